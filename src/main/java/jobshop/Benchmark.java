@@ -0,0 +1,193 @@
+package jobshop;
+
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+import jobshop.solvers.GifflerThompsonSolver;
+import jobshop.solvers.GreedySolver;
+import jobshop.solvers.SearchStatistics;
+import jobshop.solvers.Solver;
+import jobshop.solvers.neighborhood.Nowicki;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+/** Scaling benchmark: measures the throughput of the basic operations and of solvers on instances of growing size.
+ *
+ * For each instance, the following is measured on a solution built by a greedy heuristic:
+ *  - decodes/s: conversions of the ResourceOrder to a Schedule (toSchedule),
+ *  - evaluations/s: in place evaluations of the makespan of the ResourceOrder (evaluate),
+ *  - critical paths/s: extractions of the critical path of the schedule,
+ *  - neighbors/s: neighbors of the Nowicki neighborhood generated and evaluated (apply, evaluate, undo),
+ * and then, for each solver, the number of iterations per second (for solvers that report it) and the peak heap usage.
+ *
+ * Results are written in CSV, one line per instance and solver. This class is the entry point of the "benchmark"
+ * command of Main.
+ */
+public final class Benchmark {
+
+    private Benchmark() {}
+
+    /** Calls the operation repeatedly for the given time and returns the number of calls per second. */
+    static double throughput(long durationMs, Runnable operation) {
+        // warm up, so that the measure is not dominated by interpretation and compilation
+        long warmupEnd = System.nanoTime() + durationMs * 250_000L;
+        while (System.nanoTime() < warmupEnd)
+            operation.run();
+
+        long start = System.nanoTime();
+        long end = start + durationMs * 1_000_000L;
+        long calls = 0;
+        long now;
+        do {
+            operation.run();
+            calls++;
+            now = System.nanoTime();
+        } while (now < end);
+        return calls * 1e9 / (now - start);
+    }
+
+    /** Peak heap usage (in bytes) since the last call to resetPeakHeap. */
+    static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP)
+                peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+
+    static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP)
+                pool.resetPeakUsage();
+        }
+    }
+
+    /** Command line entry point, used by the "benchmark" command of Main. */
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("jsp-solver benchmark").build()
+                .defaultHelp(true)
+                .description("Measures the throughput of decoders, neighborhoods and solvers on instances of growing size.");
+        parser.addArgument("--instance")
+                .nargs("*")
+                .setDefault(new ArrayList<String>())
+                .help("Bundled instances to include (prefixes, as for the solve command).");
+        parser.addArgument("--sizes")
+                .nargs("*")
+                .setDefault(List.of("15x15", "50x20", "100x20", "200x20", "200x50", "500x50"))
+                .help("Sizes (JOBSxMACHINES) of generated instances to include.");
+        parser.addArgument("--solver")
+                .nargs("*")
+                .setDefault(List.of("taboo_sb"))
+                .help("Solvers to run on each instance.");
+        parser.addArgument("-t", "--time")
+                .setDefault(1000L)
+                .type(Long.class)
+                .help("Duration of each measure, in milliseconds.");
+        parser.addArgument("--seed")
+                .setDefault(1)
+                .type(Integer.class)
+                .help("Seed of the generated instances.");
+        parser.addArgument("--output")
+                .setDefault("benchmark.csv")
+                .help("CSV file in which to write the results.");
+
+        Namespace ns = null;
+        try {
+            ns = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+        long duration = ns.getLong("time");
+        List<String> solverNames = ns.getList("solver");
+
+        try {
+            // bundled instances first, then generated ones
+            List<Instance> instances = new ArrayList<>();
+            for (String prefix : ns.<String>getList("instance")) {
+                for (String name : BestKnownResults.instancesMatching(prefix))
+                    instances.add(Instance.fromFile(Paths.get("instances", name)));
+            }
+            for (String size : ns.<String>getList("sizes")) {
+                String[] dims = size.split("x");
+                if (dims.length != 2)
+                    throw new RuntimeException("Invalid size: " + size + " (expected JOBSxMACHINES)");
+                instances.add(InstanceGenerator.family("gen", Integer.parseInt(dims[0]), Integer.parseInt(dims[1]),
+                        1, ns.getInt("seed"))[0]);
+            }
+
+            Path output = Paths.get(ns.getString("output"));
+            try (PrintStream csv = new PrintStream(Files.newOutputStream(output))) {
+                csv.println("instance,jobs,machines,tasks,decodes_per_sec,evaluations_per_sec,critical_paths_per_sec," +
+                        "neighbors_per_sec,solver,iterations_per_sec,peak_heap_mb,makespan");
+                for (Instance instance : instances) {
+                    run(instance, solverNames, duration, csv);
+                }
+            }
+            System.out.println("Results written to " + output);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /** Runs all measures on one instance and writes a CSV line for each solver. */
+    private static void run(Instance instance, List<String> solverNames, long duration, PrintStream csv) {
+        GifflerThompsonSolver.Engine engine = new GifflerThompsonSolver.Engine(instance);
+        engine.construct(GreedySolver.Priority.EST_LRPT, GifflerThompsonSolver.Mode.ACTIVE, 0, new Random(0));
+        Schedule schedule = engine.toSchedule();
+        ResourceOrder order = new ResourceOrder(schedule);
+        Nowicki nowicki = new Nowicki();
+
+        double decodes = throughput(duration, order::toSchedule);
+        double evaluations = throughput(duration, order::evaluate);
+        double criticalPaths = throughput(duration, schedule::criticalPath);
+        // neighbors are evaluated directly, without the cache (the order is back to its initial state after each call)
+        double neighborhoods = throughput(duration, () -> {
+            for (Nowicki.Swap swap : nowicki.allSwaps(order)) {
+                swap.apply(order);
+                order.evaluate();
+                swap.undo(order);
+            }
+        });
+        int neighborhoodSize = nowicki.allSwaps(order).size();
+        double neighborsPerSec = neighborhoods * neighborhoodSize;
+
+        System.out.printf("%-16s %4dx%-3d decodes/s=%.0f evaluations/s=%.0f critical-paths/s=%.0f neighbors/s=%.0f%n",
+                instance.name, instance.numJobs, instance.numMachines, decodes, evaluations, criticalPaths, neighborsPerSec);
+
+        for (String name : solverNames) {
+            Solver solver = Solver.getSolver(name);
+            resetPeakHeap();
+            long start = System.nanoTime();
+            Optional<Schedule> result = solver.solve(instance, System.currentTimeMillis() + duration, Integer.MAX_VALUE);
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            double peakMb = peakHeap() / (1024.0 * 1024.0);
+            Optional<SearchStatistics> statistics = solver.statistics();
+            String iterations = statistics.isPresent() ? String.format("%.1f", statistics.get().iterations / elapsed) : "";
+            String makespan = result.isPresent() ? String.valueOf(result.get().makespan()) : "";
+
+            System.out.printf("%-16s   %-14s iterations/s=%s peak-heap=%.1fMB makespan=%s%n",
+                    "", name, iterations.isEmpty() ? "-" : iterations, peakMb, makespan);
+            csv.printf("%s,%d,%d,%d,%.1f,%.1f,%.1f,%.1f,%s,%s,%.1f,%s%n", instance.name, instance.numJobs,
+                    instance.numMachines, instance.numJobs * instance.numTasks, decodes, evaluations, criticalPaths,
+                    neighborsPerSec, name, iterations, peakMb, makespan);
+        }
+    }
+}
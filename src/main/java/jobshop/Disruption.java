@@ -0,0 +1,100 @@
+package jobshop;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Changes that happen while a schedule is being executed, and that require to reschedule it:
+ *  new durations for some tasks, new jobs, and the time before which the schedule has already been executed.
+ *
+ * A disruption is built with its methods, that can be chained, e.g.
+ * <code>new Disruption().at(120).changeDuration(3, 2, 40).addJob(machines, durations)</code>
+ * and then applied to the instance of the schedule with apply(). See Rescheduler.
+ */
+public final class Disruption {
+
+    /** Time at which the disruption happens: tasks that started before it cannot be moved. */
+    private int time;
+
+    /** (job, task, duration) triplets. */
+    private final List<int[]> durationChanges = new ArrayList<>();
+
+    /** Machines and durations of the tasks of each new job. */
+    private final List<int[]> newJobMachines = new ArrayList<>();
+    private final List<int[]> newJobDurations = new ArrayList<>();
+
+    /** Sets the time of the disruption (0 by default): tasks that started before it are frozen, the others
+     *  cannot start before it. */
+    public Disruption at(int time) {
+        if (time < 0)
+            throw new RuntimeException("Invalid time: " + time);
+        this.time = time;
+        return this;
+    }
+
+    /** Changes the duration of a task of the instance. */
+    public Disruption changeDuration(int job, int task, int duration) {
+        if (duration <= 0)
+            throw new RuntimeException("Invalid duration: " + duration);
+        durationChanges.add(new int[] {job, task, duration});
+        return this;
+    }
+
+    /** Adds a job, that must use every machine once.
+     *
+     * @param machines Machine of each task of the job.
+     * @param durations Duration of each task of the job.
+     */
+    public Disruption addJob(int[] machines, int[] durations) {
+        if (machines.length != durations.length)
+            throw new RuntimeException("A job needs as many machines as durations");
+        newJobMachines.add(machines.clone());
+        newJobDurations.add(durations.clone());
+        return this;
+    }
+
+    /** Time of the disruption. */
+    public int time() {
+        return time;
+    }
+
+    /** Number of jobs added by the disruption. */
+    public int numNewJobs() {
+        return newJobMachines.size();
+    }
+
+    /** Returns a new instance with the changes of the disruption: the jobs of the original instance (with the
+     *  same numbers), followed by the new jobs. */
+    public Instance apply(Instance instance) {
+        int numJobs = instance.numJobs + newJobMachines.size();
+        Instance next = new Instance(instance.name, numJobs, instance.numTasks);
+        for (int j = 0; j < instance.numJobs; j++) {
+            next.machines[j] = instance.machines[j].clone();
+            next.durations[j] = instance.durations[j].clone();
+        }
+        for (int[] change : durationChanges) {
+            int job = change[0];
+            int task = change[1];
+            if (job < 0 || job >= instance.numJobs || task < 0 || task >= instance.numTasks)
+                throw new RuntimeException("No task (" + job + ", " + task + ") in instance " + instance.name);
+            next.durations[job][task] = change[2];
+        }
+        for (int i = 0; i < newJobMachines.size(); i++) {
+            int[] machines = newJobMachines.get(i);
+            int[] durations = newJobDurations.get(i);
+            if (machines.length != instance.numTasks)
+                throw new RuntimeException("A new job must have " + instance.numTasks + " tasks");
+            boolean[] used = new boolean[instance.numMachines];
+            for (int t = 0; t < machines.length; t++) {
+                if (machines[t] < 0 || machines[t] >= instance.numMachines || used[machines[t]])
+                    throw new RuntimeException("A new job must use every machine once: " + Arrays.toString(machines));
+                if (durations[t] <= 0)
+                    throw new RuntimeException("Invalid duration: " + durations[t]);
+                used[machines[t]] = true;
+            }
+            next.machines[instance.numJobs + i] = machines.clone();
+            next.durations[instance.numJobs + i] = durations.clone();
+        }
+        return next;
+    }
+}
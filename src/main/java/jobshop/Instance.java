@@ -7,6 +7,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Scanner;
 import java.util.stream.Collectors;
 
@@ -60,6 +61,21 @@ public final class Instance {
         throw new RuntimeException("No task targeting machine "+wanted_machine+" on job "+job);
     }
 
+    /** Hash of the content of the instance (sizes, machines and durations, but not the name),
+     *  used to check that data saved for an instance is not loaded for another one. */
+    public long fingerprint() {
+        long h = 1125899906842597L;
+        h = 31 * h + numJobs;
+        h = 31 * h + numTasks;
+        for (int j = 0; j < numJobs; j++) {
+            for (int t = 0; t < numTasks; t++) {
+                h = 31 * h + machines[j][t];
+                h = 31 * h + durations[j][t];
+            }
+        }
+        return h;
+    }
+
     /**
      * Creates a new instance, with uninitialized durations and machines.
      * This should no be called directly. Instead, Instance objects should be created with the
@@ -112,9 +128,21 @@ public final class Instance {
 
     /** Parses a instance from a file. */
     public static Instance fromFile(Path path) throws IOException {
-        String name = path.getFileName().toString();
-        Iterator<String> lines = Files.readAllLines(path).stream()
-                .filter(l -> !l.startsWith("#"))
+        return parse(path.getFileName().toString(), Files.readAllLines(path));
+    }
+
+    /** Parses an instance in the format of the instance files (e.g. received from the network).
+     *
+     * @param name Name of the instance.
+     * @param text Content of an instance file.
+     */
+    public static Instance fromString(String name, String text) {
+        return parse(name, text.lines().collect(Collectors.toList()));
+    }
+
+    private static Instance parse(String name, List<String> allLines) {
+        Iterator<String> lines = allLines.stream()
+                .filter(l -> !l.startsWith("#") && !l.isBlank())
                 .collect(Collectors.toList())
                 .iterator();
 
@@ -125,9 +153,17 @@ public final class Instance {
 
         for(int job = 0 ; job<numJobs ; job++) {
             Scanner line = new Scanner(lines.next());
+            // each job uses each machine once, which task_with_machine and ResourceOrder rely on
+            boolean[] used = new boolean[pb.numMachines];
             for(int task = 0 ; task < numTasks ; task++) {
                 pb.machines[job][task] = line.nextInt();
                 pb.durations[job][task] = line.nextInt();
+                if (pb.machines[job][task] < 0 || pb.machines[job][task] >= pb.numMachines || pb.durations[job][task] < 0)
+                    throw new RuntimeException("Invalid task (" + job + ", " + task + ") in instance " + name);
+                if (used[pb.machines[job][task]])
+                    throw new RuntimeException("Job " + job + " uses machine " + pb.machines[job][task]
+                            + " twice in instance " + name);
+                used[pb.machines[job][task]] = true;
             }
         }
 
@@ -0,0 +1,78 @@
+package jobshop;
+
+import jobshop.solvers.GreedySolver;
+
+/** Cheap features of an instance, used to predict which solver performs best on it.
+ *
+ * All features are independent of the scale of durations, so that instances of the same kind generated with
+ * different duration ranges are close to each other.
+ */
+public final class InstanceFeatures {
+
+    /** Number of jobs divided by the number of machines: 1 for square instances, more for rectangular ones. */
+    public final double ratio;
+
+    /** Coefficient of variation of the durations of tasks (standard deviation divided by the mean). */
+    public final double durationVariation;
+
+    /** Load of the most loaded machine divided by the average load of machines (1 when all loads are equal). */
+    public final double loadImbalance;
+
+    /** Relative distance between the makespan of a greedy (EST_LRPT) solution and the lower bound of the instance.
+     *  Instances with a large gap are the ones on which the search has the most work to do. */
+    public final double lowerBoundGap;
+
+    public InstanceFeatures(double ratio, double durationVariation, double loadImbalance, double lowerBoundGap) {
+        this.ratio = ratio;
+        this.durationVariation = durationVariation;
+        this.loadImbalance = loadImbalance;
+        this.lowerBoundGap = lowerBoundGap;
+    }
+
+    /** Computes the features of an instance. This requires a single greedy construction. */
+    public static InstanceFeatures of(Instance instance) {
+        int numOps = instance.numJobs * instance.numTasks;
+        double sum = 0;
+        double sumOfSquares = 0;
+        long[] loads = new long[instance.numMachines];
+        for (int j = 0; j < instance.numJobs; j++) {
+            for (int t = 0; t < instance.numTasks; t++) {
+                int duration = instance.duration(j, t);
+                sum += duration;
+                sumOfSquares += (double) duration * duration;
+                loads[instance.machine(j, t)] += duration;
+            }
+        }
+        double mean = sum / numOps;
+        double variance = Math.max(0, sumOfSquares / numOps - mean * mean);
+        double variation = mean > 0 ? Math.sqrt(variance) / mean : 0;
+
+        long maxLoad = 0;
+        for (long load : loads)
+            maxLoad = Math.max(maxLoad, load);
+        double imbalance = sum > 0 ? maxLoad / (sum / instance.numMachines) : 1;
+
+        int lowerBound = LowerBound.of(instance);
+        int greedy = new GreedySolver(GreedySolver.Priority.EST_LRPT, false, 1)
+                .solve(instance, Long.MAX_VALUE, 1).get().makespan();
+        double gap = lowerBound > 0 ? (greedy - lowerBound) / (double) lowerBound : 0;
+
+        return new InstanceFeatures((double) instance.numJobs / instance.numMachines, variation, imbalance, gap);
+    }
+
+    /** Distance between the features of two instances. The ratio is compared on a logarithmic scale, so that
+     *  a 20x20 instance is as far from a 40x20 one as from a 10x20 one. */
+    public double distance(InstanceFeatures other) {
+        double dr = Math.log(ratio / other.ratio) / Math.log(2);
+        double dv = durationVariation - other.durationVariation;
+        double di = loadImbalance - other.loadImbalance;
+        double dg = lowerBoundGap - other.lowerBoundGap;
+        return Math.sqrt(dr * dr + dv * dv + di * di + dg * dg);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ratio=%.2f duration-variation=%.3f load-imbalance=%.3f lb-gap=%.3f",
+                ratio, durationVariation, loadImbalance, lowerBoundGap);
+    }
+}
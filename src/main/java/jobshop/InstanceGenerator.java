@@ -0,0 +1,171 @@
+package jobshop;
+
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/** Generator of random instances, following the procedure of Taillard (1993).
+ *
+ * Given the same seeds, the generated instances are identical to the ones of Taillard's benchmark
+ * (e.g. ta01 is obtained with 15 jobs, 15 machines, time seed 840612802 and machine seed 398197754).
+ * Durations are uniform in [1, 99] and each job visits all machines in a random order.
+ *
+ * Instances can be built in memory or written in the text format read by Instance.fromFile.
+ * This class is also the entry point of the "generate" command of Main.
+ */
+public final class InstanceGenerator {
+
+    /** Parameters of Taillard's linear congruential generator. */
+    private static final int A = 16807;
+    private static final int B = 127773;
+    private static final int C = 2836;
+    private static final int M = Integer.MAX_VALUE;
+
+    /** Current seed of the generator. */
+    private int seed;
+
+    private InstanceGenerator(int seed) {
+        if (seed <= 0)
+            throw new RuntimeException("Seeds must be strictly positive: " + seed);
+        this.seed = seed;
+    }
+
+    /** Next value of the generator, uniform in [low, high]. */
+    private int unif(int low, int high) {
+        int k = seed / B;
+        seed = A * (seed % B) - k * C;
+        if (seed < 0)
+            seed += M;
+        double value = seed / (double) M;
+        return low + (int) (value * (high - low + 1));
+    }
+
+    /** Generates an instance with Taillard's procedure.
+     *
+     * @param name Name of the instance.
+     * @param numJobs Number of jobs.
+     * @param numMachines Number of machines (and of tasks per job).
+     * @param timeSeed Seed of the generator of durations (strictly positive).
+     * @param machineSeed Seed of the generator of machine orders (strictly positive).
+     */
+    public static Instance taillard(String name, int numJobs, int numMachines, int timeSeed, int machineSeed) {
+        Instance instance = new Instance(name, numJobs, numMachines);
+        InstanceGenerator times = new InstanceGenerator(timeSeed);
+        for (int j = 0; j < numJobs; j++) {
+            for (int t = 0; t < numMachines; t++) {
+                instance.durations[j][t] = times.unif(1, 99);
+            }
+        }
+        InstanceGenerator machines = new InstanceGenerator(machineSeed);
+        for (int j = 0; j < numJobs; j++) {
+            for (int t = 0; t < numMachines; t++) {
+                instance.machines[j][t] = t;
+            }
+            for (int t = 0; t < numMachines; t++) {
+                int other = machines.unif(t, numMachines - 1);
+                int tmp = instance.machines[j][t];
+                instance.machines[j][t] = instance.machines[j][other];
+                instance.machines[j][other] = tmp;
+            }
+        }
+        return instance;
+    }
+
+    /** Generates a family of instances of the same size, whose seeds are all derived from a single one.
+     *
+     * @return count instances, named prefix_NxM_i.
+     */
+    public static Instance[] family(String prefix, int numJobs, int numMachines, int count, int seed) {
+        InstanceGenerator seeds = new InstanceGenerator(seed);
+        Instance[] family = new Instance[count];
+        for (int i = 0; i < count; i++) {
+            String name = String.format("%s_%dx%d_%d", prefix, numJobs, numMachines, i);
+            family[i] = taillard(name, numJobs, numMachines, seeds.unif(1, M - 1), seeds.unif(1, M - 1));
+        }
+        return family;
+    }
+
+    /** Writes an instance in the format read by Instance.fromFile. */
+    public static void write(Instance instance, Path path) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(path)) {
+            out.write("# " + instance.name + "\n");
+            out.write(instance.numJobs + " " + instance.numTasks + "\n");
+            StringBuilder line = new StringBuilder();
+            for (int j = 0; j < instance.numJobs; j++) {
+                line.setLength(0);
+                for (int t = 0; t < instance.numTasks; t++) {
+                    line.append(String.format("%3d %2d ", instance.machine(j, t), instance.duration(j, t)));
+                }
+                out.write(line.toString().stripTrailing());
+                out.write("\n");
+            }
+        }
+    }
+
+    /** Command line entry point, used by the "generate" command of Main. */
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("jsp-solver generate").build()
+                .defaultHelp(true)
+                .description("Generates random instances with Taillard's procedure. " +
+                        "One family of instances is generated for each combination of number of jobs and machines.");
+        parser.addArgument("--jobs")
+                .nargs("+")
+                .type(Integer.class)
+                .required(true)
+                .help("Number(s) of jobs.");
+        parser.addArgument("--machines")
+                .nargs("+")
+                .type(Integer.class)
+                .required(true)
+                .help("Number(s) of machines.");
+        parser.addArgument("--count")
+                .setDefault(1)
+                .type(Integer.class)
+                .help("Number of instances of each size.");
+        parser.addArgument("--seed")
+                .setDefault(1)
+                .type(Integer.class)
+                .help("Seed from which the seeds of all instances are derived (strictly positive).");
+        parser.addArgument("--prefix")
+                .setDefault("gen")
+                .help("Prefix of the names of the generated instances.");
+        parser.addArgument("--output")
+                .setDefault("instances/generated")
+                .help("Directory in which to write the instances.");
+
+        Namespace ns = null;
+        try {
+            ns = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+
+        Path output = Paths.get(ns.getString("output"));
+        List<Integer> jobs = ns.getList("jobs");
+        List<Integer> machines = ns.getList("machines");
+        try {
+            Files.createDirectories(output);
+            for (int numJobs : jobs) {
+                for (int numMachines : machines) {
+                    for (Instance instance : family(ns.getString("prefix"), numJobs, numMachines, ns.getInt("count"), ns.getInt("seed"))) {
+                        Path path = output.resolve(instance.name);
+                        write(instance, path);
+                        System.out.println(path);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
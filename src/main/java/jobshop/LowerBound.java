@@ -0,0 +1,144 @@
+package jobshop;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Lower bounds on the makespan of a jobshop instance.
+ *
+ * All bounds are computed from the instance only and can be used to stop a solver as soon as it finds a solution
+ * whose makespan equals the bound (it is then proven optimal), or to report an optimality gap on instances for
+ * which no best known result is available.
+ */
+public final class LowerBound {
+
+    private LowerBound() {}
+
+    /** Best lower bound available for the instance: the maximum of all bounds computed in this class. */
+    public static int of(Instance instance) {
+        return Math.max(jobBound(instance), Math.max(machineBound(instance), jacksonBound(instance)));
+    }
+
+    /** Job bound: no job can complete before the sum of the durations of its tasks. */
+    public static int jobBound(Instance instance) {
+        int bound = 0;
+        for (int job = 0; job < instance.numJobs; job++) {
+            int total = 0;
+            for (int task = 0; task < instance.numTasks; task++) {
+                total += instance.duration(job, task);
+            }
+            bound = Math.max(bound, total);
+        }
+        return bound;
+    }
+
+    /** Machine bound: each machine must process all its tasks, after the smallest head and before the smallest tail.
+     *
+     * The head of a task is the sum of the durations of its predecessors in the job, its tail the sum of the durations
+     * of its successors.
+     */
+    public static int machineBound(Instance instance) {
+        int[][] heads = heads(instance);
+        int[][] tails = tails(instance);
+        int bound = 0;
+        for (int machine = 0; machine < instance.numMachines; machine++) {
+            int load = 0;
+            int minHead = Integer.MAX_VALUE;
+            int minTail = Integer.MAX_VALUE;
+            for (int job = 0; job < instance.numJobs; job++) {
+                int task = instance.task_with_machine(job, machine);
+                load += instance.duration(job, task);
+                minHead = Math.min(minHead, heads[job][task]);
+                minTail = Math.min(minTail, tails[job][task]);
+            }
+            bound = Math.max(bound, minHead + load + minTail);
+        }
+        return bound;
+    }
+
+    /** One-machine bound: for each machine, the optimal value of the preemptive one-machine problem with heads and
+     * tails (solved exactly by Jackson's preemptive schedule). */
+    public static int jacksonBound(Instance instance) {
+        int[][] heads = heads(instance);
+        int[][] tails = tails(instance);
+        int n = instance.numJobs;
+        int[] release = new int[n];
+        int[] duration = new int[n];
+        int[] tail = new int[n];
+        int bound = 0;
+        for (int machine = 0; machine < instance.numMachines; machine++) {
+            for (int job = 0; job < n; job++) {
+                int task = instance.task_with_machine(job, machine);
+                release[job] = heads[job][task];
+                duration[job] = instance.duration(job, task);
+                tail[job] = tails[job][task];
+            }
+            bound = Math.max(bound, jacksonPreemptive(release, duration, tail, n));
+        }
+        return bound;
+    }
+
+    /** Value of Jackson's preemptive schedule for the one-machine problem 1|r_j,pmtn,q_j|C_max.
+     *
+     * At any time, the available task with the largest tail is processed, and is preempted as soon as a task
+     * with a larger tail is released.
+     *
+     * @param release Release time (head) of each task.
+     * @param duration Processing time of each task.
+     * @param tail Delivery time (tail) of each task.
+     * @param n Number of tasks to consider (the first n elements of the arrays).
+     * @return The maximal value of completion time plus tail over all tasks, which is optimal for the preemptive problem
+     *         and thus a lower bound for the non-preemptive one.
+     */
+    public static int jacksonPreemptive(int[] release, int[] duration, int[] tail, int n) {
+        Integer[] byRelease = new Integer[n];
+        for (int i = 0; i < n; i++)
+            byRelease[i] = i;
+        Arrays.sort(byRelease, (a, b) -> Integer.compare(release[a], release[b]));
+
+        int[] left = Arrays.copyOf(duration, n);
+        PriorityQueue<Integer> ready = new PriorityQueue<>((a, b) -> Integer.compare(tail[b], tail[a]));
+        int time = 0;
+        int next = 0;
+        int value = 0;
+        while (next < n || !ready.isEmpty()) {
+            if (ready.isEmpty() && time < release[byRelease[next]])
+                time = release[byRelease[next]];
+            while (next < n && release[byRelease[next]] <= time)
+                ready.add(byRelease[next++]);
+
+            int current = ready.poll();
+            // run the current task until it completes or until the next release, whichever comes first
+            int until = next < n ? Math.min(time + left[current], release[byRelease[next]]) : time + left[current];
+            left[current] -= until - time;
+            time = until;
+            if (left[current] == 0)
+                value = Math.max(value, time + tail[current]);
+            else
+                ready.add(current);
+        }
+        return value;
+    }
+
+    /** heads[j][t] is the sum of the durations of the tasks preceding (j,t) in its job. */
+    static int[][] heads(Instance instance) {
+        int[][] heads = new int[instance.numJobs][instance.numTasks];
+        for (int job = 0; job < instance.numJobs; job++) {
+            for (int task = 1; task < instance.numTasks; task++) {
+                heads[job][task] = heads[job][task - 1] + instance.duration(job, task - 1);
+            }
+        }
+        return heads;
+    }
+
+    /** tails[j][t] is the sum of the durations of the tasks following (j,t) in its job. */
+    static int[][] tails(Instance instance) {
+        int[][] tails = new int[instance.numJobs][instance.numTasks];
+        for (int job = 0; job < instance.numJobs; job++) {
+            for (int task = instance.numTasks - 2; task >= 0; task--) {
+                tails[job][task] = tails[job][task + 1] + instance.duration(job, task + 1);
+            }
+        }
+        return tails;
+    }
+}
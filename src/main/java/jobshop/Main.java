@@ -1,29 +1,67 @@
 package jobshop;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 import java.util.stream.Collectors;
 
 import jobshop.encodings.ResourceOrder;
 import jobshop.encodings.Schedule;
 import jobshop.encodings.Task;
+import jobshop.export.ScheduleExporter;
 import jobshop.solvers.*;
+import jobshop.sweep.Coordinator;
+import jobshop.sweep.Worker;
+import jobshop.tuning.Tuner;
 import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
 import net.sourceforge.argparse4j.inf.ArgumentParser;
 import net.sourceforge.argparse4j.inf.ArgumentParserException;
 import net.sourceforge.argparse4j.inf.Namespace;
 
 /**
  * This class is the main entry point for doing comparative performance tests of solvers.
+ *
+ * When the first argument is "generate", "benchmark", "serve", "coordinate", "work" or "tune", the remaining
+ * arguments are passed to the instance generator, the scaling benchmark, the solving service, the coordinator or a
+ * worker of a distributed sweep, or the parameter tuner instead.
  */
 public class Main {
 
     public static void main(String[] args) {
+        // sub commands other than solving, that have their own arguments
+        if (args.length > 0 && args[0].equals("generate")) {
+            InstanceGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("benchmark")) {
+            Benchmark.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("serve")) {
+            SolveServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("coordinate")) {
+            Coordinator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("work")) {
+            Worker.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("tune")) {
+            Tuner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         // configure the argument parser
         ArgumentParser parser = ArgumentParsers.newFor("jsp-solver").build()
                 .defaultHelp(true)
@@ -32,6 +70,19 @@ public class Main {
                 .setDefault(1L)
                 .type(Long.class)
                 .help("Solver timeout in seconds for each instance. Default is 1 second.");
+        parser.addArgument("--cpu-time")
+                .type(Long.class)
+                .help("Limit on the CPU time of each solver, in milliseconds. Unlike the timeout, it does not " +
+                        "depend on the load of the machine, which makes runs comparable.");
+        parser.addArgument("--max-evaluations")
+                .type(Long.class)
+                .help("Limit on the number of neighbors evaluated by each solver on an instance. It covers the " +
+                        "whole solve: the solver of the initial solution, the local search and every solver run " +
+                        "by the portfolio share it.");
+        parser.addArgument("--max-iter")
+                .setDefault(150)
+                .type(Integer.class)
+                .help("Maximal number of iterations of each local search.");
         parser.addArgument("--solver")
                 .nargs("+")
                 .required(true)
@@ -40,7 +91,47 @@ public class Main {
                 .nargs("+")
                 .required(true)
                 .help("Instance(s) to solve (space separated if more than one). All instances starting with the given " +
-                        "string will be selected. (e.g. \"ft\" will select the instances ft06, ft10 and ft20.");
+                        "string will be selected. (e.g. \"ft\" will select the instances ft06, ft10 and ft20. " +
+                        "A path to an instance file can also be given.");
+        parser.addArgument("--cache-stats")
+                .action(Arguments.storeTrue())
+                .help("Print the statistics of the evaluation cache of each solver (on the error output).");
+        parser.addArgument("--search-stats")
+                .action(Arguments.storeTrue())
+                .help("Print the statistics of the search of each solver, e.g. evaluations per improvement " +
+                        "(on the error output).");
+        parser.addArgument("--learn")
+                .action(Arguments.storeTrue())
+                .help("Record the result of each solver in the performance table of the portfolio solver " +
+                        "(" + PerformanceTable.DEFAULT_FILE + "), so that it learns which solvers to run. " +
+                        "Without it, the portfolio solver reads the table but does not write it.");
+        parser.addArgument("--update-best-known")
+                .action(Arguments.storeTrue())
+                .help("Record results that improve on the best known ones in the override file of the best known " +
+                        "results, so that the following runs compare with them.");
+        parser.addArgument("--seed")
+                .type(Long.class)
+                .help("Seed of the solvers, to reproduce a run. Default is a random seed.");
+        parser.addArgument("--archive")
+                .help("Directory of a solution archive: local searches start from the archived solution of each " +
+                        "instance, when there is one, and better solutions are added to the archive.");
+        parser.addArgument("--checkpoint")
+                .help("Directory in which solvers that support it (taboo) periodically snapshot their search, " +
+                        "in a sub-directory per solver.");
+        parser.addArgument("--checkpoint-interval")
+                .setDefault(60L)
+                .type(Long.class)
+                .help("Time between two snapshots of a search, in seconds.");
+        parser.addArgument("--resume")
+                .action(Arguments.storeTrue())
+                .help("Continue the searches from the snapshots of the checkpoint directory (\"checkpoints\" if " +
+                        "--checkpoint is not given).");
+        parser.addArgument("--export")
+                .help("Directory in which the schedule found by each solver is exported, as <instance>-<solver>.<format>.");
+        parser.addArgument("--export-format")
+                .setDefault(ScheduleExporter.Format.HTML)
+                .type(Arguments.caseInsensitiveEnumType(ScheduleExporter.Format.class))
+                .help("Format of the exported schedules: svg, html (Gantt chart) or csv (timeline of the tasks).");
 
         // parse command line arguments
         Namespace ns = null;
@@ -59,57 +150,116 @@ public class Main {
 
         PrintStream output = System.out;
 
+        boolean cacheStats = ns.getBoolean("cache_stats");
+        boolean searchStats = ns.getBoolean("search_stats");
+        boolean learn = ns.getBoolean("learn");
+        boolean updateBestKnown = ns.getBoolean("update_best_known");
+
         // convert the timeout from seconds to milliseconds.
         long solveTimeMs = ns.getLong("timeout") * 1000;
+        Long cpuTimeMs = ns.getLong("cpu_time");
+        Long maxEvaluations = ns.getLong("max_evaluations");
+        int maxIter = ns.getInt("max_iter");
 
         // Get the list of solvers that we should benchmark.
         // We also check that we have a solver available for the given name and print an error message otherwise.
         List<String> solversToTest = ns.getList("solver");
-        List<Solver> solvers = solversToTest.stream().map(Solver::getSolver).collect(Collectors.toList());
+        long seed = ns.getLong("seed") != null ? ns.getLong("seed") : new Random().nextLong();
+        SolutionArchive archive = null;
+        try {
+            if (ns.getString("archive") != null)
+                archive = new SolutionArchive(Paths.get(ns.getString("archive")));
+        } catch (IOException e) {
+            System.err.println("ERROR: could not open the archive: " + e.getMessage());
+            System.exit(1);
+        }
+        final SolutionArchive solutionArchive = archive;
+        Path exportDir = ns.getString("export") != null ? Paths.get(ns.getString("export")) : null;
+        ScheduleExporter.Format exportFormat = ns.get("export_format");
+        PerformanceTable table = learn ? new PerformanceTable(PerformanceTable.DEFAULT_FILE)
+                : PerformanceTable.readOnly(PerformanceTable.DEFAULT_FILE);
+        List<Solver> solvers = solversToTest.stream()
+                .map(name -> Solver.getSolver(name, seed, solutionArchive, table))
+                .collect(Collectors.toList());
+
+        // snapshots of the searches, in one directory per solver
+        boolean resume = ns.getBoolean("resume");
+        String checkpointDir = ns.getString("checkpoint") != null ? ns.getString("checkpoint") : resume ? "checkpoints" : null;
+        if (checkpointDir != null) {
+            for (int solverId = 0; solverId < solvers.size(); solverId++) {
+                String name = solversToTest.get(solverId);
+                try {
+                    Checkpointer checkpointer = new Checkpointer(Paths.get(checkpointDir, name),
+                            ns.getLong("checkpoint_interval") * 1000, resume);
+                    if (!solvers.get(solverId).checkpointWith(checkpointer)) {
+                        System.err.println("WARNING: solver " + name + " does not support checkpoints");
+                        checkpointer.close();
+                    }
+                } catch (IOException e) {
+                    System.err.println("ERROR: could not create the checkpoint directory: " + e.getMessage());
+                    System.exit(1);
+                }
+            }
+        }
 
         // retrieve all instances on which we should run the solvers.
-        List<String> instances = new ArrayList<>();
+        List<Path> instances = new ArrayList<>();
         List<String> instancePrefixes = ns.getList("instance");
         for(String instancePrefix : instancePrefixes) {
             List<String> matches = BestKnownResults.instancesMatching(instancePrefix);
-            if(matches.isEmpty()) {
+            if(!matches.isEmpty()) {
+                for(String match : matches)
+                    instances.add(Paths.get("instances/", match));
+            } else if(Files.isRegularFile(Paths.get(instancePrefix))) {
+                // not a known instance, but a file that we can load (e.g. a generated instance)
+                instances.add(Paths.get(instancePrefix));
+            } else {
                 System.err.println("ERROR: instance prefix \"" + instancePrefix + "\" does not match any instance.");
-                System.err.println("       available instances: " + Arrays.toString(BestKnownResults.instances));
+                System.err.println("       available instances: " + Arrays.toString(BestKnownResults.instances()));
                 System.exit(1);
             }
-            instances.addAll(matches);
         }
 
         // average runtime of each solver
         float[] avg_runtimes = new float[solversToTest.size()];
         // average distance to best known result for each solver
         float[] avg_distances = new float[solversToTest.size()];
+        // average distance to the lower bound for each solver
+        float[] avg_lb_distances = new float[solversToTest.size()];
+        // number of instances with a best known result
+        int numKnown = (int) instances.stream().filter(p -> BestKnownResults.isKnown(p.getFileName().toString())).count();
 
         try {
             // header of the result table :
             //   - solver names (first line)
             //   - name of each column (second line)
-            output.print(  "                         ");
+            output.print(  "                            ");
             for(String s : solversToTest)
                 output.printf("%-30s", s);
             output.println();
-            output.print("instance size  best      ");
+            output.print("instance size   best    lb  ");
             for(String s : solversToTest) {
-                output.print("runtime makespan ecart        ");
+                output.print("runtime makespan ecart lbgap  ");
             }
             output.println();
 
             // for all instances, load it from f
-            for(String instanceName : instances) {
-                // get the best known result for this instance
-                int bestKnown = BestKnownResults.of(instanceName);
-
+            for(Path path : instances) {
                 // load instance from file.
-                Path path = Paths.get("instances/", instanceName);
                 Instance instance = Instance.fromFile(path);
+                String instanceName = instance.name;
+
+                // get the best known result for this instance, if any, and a lower bound on its makespan
+                boolean known = BestKnownResults.isKnown(instanceName);
+                int bestKnown = known ? BestKnownResults.of(instanceName) : -1;
+                int lowerBound = Math.max(LowerBound.of(instance), BestKnownResults.lowerBound(instanceName).orElse(0));
+
+                // features of the instance, for the performance table of the portfolio solver
+                InstanceFeatures features = learn ? InstanceFeatures.of(instance) : null;
 
                 // print some general statistics on the instance
-                output.printf("%-8s %-5s %4d      ",instanceName, instance.numJobs +"x"+instance.numTasks, bestKnown);
+                output.printf("%-8s %-5s %5s %5d  ",instanceName, instance.numJobs +"x"+instance.numTasks,
+                        known ? String.valueOf(bestKnown) : "-", lowerBound);
 
                 // run all selected solvers on the instance and print the results
                 for(int solverId = 0 ; solverId < solvers.size() ; solverId++) {
@@ -117,11 +267,15 @@ public class Main {
                     // we lookup the `Main.solvers` hash map to get the solver object with the given name.
                     Solver solver = solvers.get(solverId);
 
-                    // start chronometer and compute deadline for the solver to provide a result.
+                    // start chronometer and compute the budget of the solver to provide a result.
                     long start = System.currentTimeMillis();
-                    long deadline = System.currentTimeMillis() + solveTimeMs;
+                    SolveBudget budget = SolveBudget.of(start + solveTimeMs, maxIter);
+                    if (cpuTimeMs != null)
+                        budget = budget.withCpuTime(cpuTimeMs);
+                    if (maxEvaluations != null)
+                        budget = budget.withEvaluations(maxEvaluations);
                     // run the solver on the current instance
-                    Optional<Schedule> result = solver.solve(instance, deadline, 150);
+                    Optional<Schedule> result = solver.solve(instance, budget);
                     // measure elapsed time (in milliseconds)
                     long runtime = System.currentTimeMillis() - start;
 
@@ -135,21 +289,59 @@ public class Main {
 
                     // compute some statistics on the solution and print them.
                     int makespan = schedule.makespan();
-                    float dist = 100f * (makespan - bestKnown) / (float) bestKnown;
+                    float lbDist = 100f * (makespan - lowerBound) / (float) lowerBound;
                     avg_runtimes[solverId] += (float) runtime / (float) instances.size();
-                    avg_distances[solverId] += dist / (float) instances.size();
+                    avg_lb_distances[solverId] += lbDist / (float) instances.size();
+                    String dist = "-";
+                    if(known) {
+                        // record a new best known result, for this run and the following ones
+                        if (updateBestKnown && BestKnownResults.update(instanceName, makespan))
+                            System.err.printf("New best known result for %s: %d (was %d)%n", instanceName, makespan, bestKnown);
+                        float d = 100f * (makespan - bestKnown) / (float) bestKnown;
+                        avg_distances[solverId] += d / (float) numKnown;
+                        dist = String.format("%5.1f", d);
+                    }
+
+                    if (archive != null && archive.offer(instance, schedule, solversToTest.get(solverId), seed))
+                        System.err.printf("Archived a new solution for %s: %d%n", instanceName, makespan);
+                    // the portfolio solver records the results of the solvers it runs by itself
+                    // the time recorded is the one given to the solver, with which the portfolio queries the table
+                    if (learn && !(solver instanceof PortfolioSolver)) {
+                        int bound = LowerBound.of(instance);
+                        table.record(new PerformanceTable.Record(instanceName, features,
+                                solversToTest.get(solverId), solveTimeMs, (makespan - bound) / (double) bound));
+                    }
+                    if (exportDir != null) {
+                        Path file = exportDir.resolve(instanceName + "-" + solversToTest.get(solverId) + "." + exportFormat.extension());
+                        try {
+                            Files.createDirectories(exportDir);
+                            ScheduleExporter.write(schedule, exportFormat, file);
+                        } catch (IOException e) {
+                            System.err.println("ERROR: could not export the schedule to " + file + ": " + e.getMessage());
+                        }
+                    }
 
-                    output.printf("%7d %8s %5.1f        ", runtime, makespan, dist);
+                    output.printf("%7d %8s %5s %5.1f  ", runtime, makespan, dist, lbDist);
                     output.flush();
+                    if (cacheStats && solver.evaluationCache().isPresent())
+                        System.err.printf("[%s on %s] cache: %s%n", solversToTest.get(solverId), instanceName,
+                                solver.evaluationCache().get());
+                    if (searchStats && solver.statistics().isPresent())
+                        System.err.printf("[%s on %s] search: %s%n", solversToTest.get(solverId), instanceName,
+                                solver.statistics().get());
+                    if (searchStats && solver instanceof PortfolioSolver)
+                        System.err.printf("[%s on %s] portfolio: %s%n", solversToTest.get(solverId), instanceName,
+                                ((PortfolioSolver) solver).lastAllocation());
                 }
                 output.println();
             }
 
 
             // we have finished all benchmarks, compute the average solve time and distance of each solver.
-            output.printf("%-8s %-5s %4s      ", "AVG", "-", "-");
+            output.printf("%-8s %-5s %5s %5s  ", "AVG", "-", "-", "-");
             for(int solverId = 0 ; solverId < solversToTest.size() ; solverId++) {
-                output.printf("%7.1f %8s %5.1f        ", avg_runtimes[solverId], "-", avg_distances[solverId]);
+                String dist = numKnown > 0 ? String.format("%5.1f", avg_distances[solverId]) : "-";
+                output.printf("%7.1f %8s %5s %5.1f  ", avg_runtimes[solverId], "-", dist, avg_lb_distances[solverId]);
             }
 
 
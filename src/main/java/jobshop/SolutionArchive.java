@@ -0,0 +1,132 @@
+package jobshop;
+
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/** On-disk archive of the best solution found for each instance.
+ *
+ * The archive is a directory with one binary file per instance (named after the instance, with the .sol extension)
+ * containing the resource order of the best solution and some metadata: its makespan, the solver and seed that
+ * produced it and the time at which it was found. A fingerprint of the instance is also stored, so that a solution
+ * is never loaded for a different instance with the same name (e.g. generated instances).
+ *
+ * Solutions are only replaced by better ones, by writing a temporary file and moving it atomically over the previous
+ * one, and each improvement is appended to the history.csv file of the archive.
+ */
+public final class SolutionArchive {
+
+    /** Magic number and version at the start of each file. */
+    private static final int MAGIC = 0x4a53534f; // "JSSO"
+    private static final int VERSION = 1;
+
+    /** An archived solution with its metadata. */
+    public static final class Entry {
+        /** Resource order of the solution. */
+        public final ResourceOrder order;
+        /** Makespan of the solution. */
+        public final int makespan;
+        /** Name of the solver that found the solution. */
+        public final String solver;
+        /** Seed given to the solver. */
+        public final long seed;
+        /** Time at which the solution was archived (milliseconds since the epoch). */
+        public final long time;
+
+        Entry(ResourceOrder order, int makespan, String solver, long seed, long time) {
+            this.order = order;
+            this.makespan = makespan;
+            this.solver = solver;
+            this.seed = seed;
+            this.time = time;
+        }
+
+        /** Schedule of the archived solution. */
+        public Schedule schedule() {
+            return order.toSchedule().get();
+        }
+    }
+
+    /** Directory of the archive. */
+    public final Path directory;
+
+    /** Creates an archive in the given directory, that is created if needed. */
+    public SolutionArchive(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+
+    private Path file(Instance instance) {
+        return directory.resolve(instance.name + ".sol");
+    }
+
+    /** Returns the archived solution of the instance, if any.
+     *  Files that are corrupted or that were written for a different instance are ignored. */
+    public synchronized Optional<Entry> load(Instance instance) throws IOException {
+        Path path = file(instance);
+        if (!Files.isRegularFile(path))
+            return Optional.empty();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != instance.fingerprint())
+                return Optional.empty();
+            int makespan = in.readInt();
+            long seed = in.readLong();
+            long time = in.readLong();
+            String solver = in.readUTF();
+            ResourceOrder order = ResourceOrder.read(in, instance);
+            Optional<Schedule> schedule = order.toSchedule();
+            if (schedule.isEmpty() || schedule.get().makespan() != makespan)
+                return Optional.empty();
+            return Optional.of(new Entry(order, makespan, solver, seed, time));
+        } catch (IOException | RuntimeException e) {
+            // truncated or inconsistent file
+            return Optional.empty();
+        }
+    }
+
+    /** Archives a solution if it is better than the archived one (or if there is none).
+     *
+     * @return True if the solution was archived.
+     */
+    public synchronized boolean offer(Instance instance, Schedule schedule, String solver, long seed) throws IOException {
+        // the order is decoded again, as its semi-active schedule may be better than the given one
+        ResourceOrder order = new ResourceOrder(schedule);
+        int makespan = order.evaluate();
+        Optional<Entry> archived = load(instance);
+        if (archived.isPresent() && archived.get().makespan <= makespan)
+            return false;
+
+        long time = System.currentTimeMillis();
+        Path tmp = Files.createTempFile(directory, instance.name, ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(instance.fingerprint());
+                out.writeInt(makespan);
+                out.writeLong(seed);
+                out.writeLong(time);
+                out.writeUTF(solver);
+                order.write(out);
+            }
+            Files.move(tmp, file(instance), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        String line = String.format("%d,%s,%d,%s,%d%n", time, instance.name, makespan, solver, seed);
+        Files.write(directory.resolve("history.csv"), line.getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return true;
+    }
+}
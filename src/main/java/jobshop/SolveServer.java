@@ -0,0 +1,265 @@
+package jobshop;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jobshop.encodings.Schedule;
+import jobshop.solvers.SearchStatistics;
+import jobshop.solvers.Solver;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Resident solving service, listening on the loopback interface, so that repeated solves run in a warm JVM
+ *  (classes loaded and hot methods compiled) instead of paying the start up of a new one each time.
+ *
+ * Endpoints:
+ *  - POST /solve?solver=NAME&amp;timeout=MS[&amp;name=NAME][&amp;seed=SEED] with an instance in the format of the
+ *    instance files as body. Solves it and returns the makespan, the start times and some metrics in JSON.
+ *  - GET /status returns the number of workers, of running and queued requests and of completed solves.
+ *
+ * Solves run on a bounded pool of workers. When all workers are busy and the queue is full, requests are refused
+ * with the status 503, rather than accumulating. The connections are handled by a bounded pool as well: when it is
+ * saturated, the thread accepting connections handles the next one itself, which only refuses it, and stops
+ * accepting new connections meanwhile. Invalid requests get the status 400. The timeout is counted from
+ * the arrival of the request, so that time spent in the queue is part of the budget.
+ * This class is the entry point of the "serve" command of Main.
+ */
+public final class SolveServer implements AutoCloseable {
+
+    private final HttpServer server;
+    /** Workers running the solvers. */
+    private final ThreadPoolExecutor workers;
+    /** Threads handling the connections, that wait for the workers. */
+    private final ExecutorService handlers;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /** Creates a server, that does not accept requests until start() is called.
+     *
+     * @param port Port on the loopback interface (0 to pick any free port).
+     * @param numWorkers Number of solves that run in parallel.
+     * @param queueCapacity Number of requests that can wait for a worker.
+     */
+    public SolveServer(int port, int numWorkers, int queueCapacity) throws IOException {
+        this.workers = new ThreadPoolExecutor(numWorkers, numWorkers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("solve-worker"));
+        // a handler per request that can be running or queued, and some more to refuse the others
+        int numHandlers = numWorkers + queueCapacity + 1;
+        this.handlers = new ThreadPoolExecutor(numHandlers, numHandlers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(numHandlers), daemonThreads("solve-http"), new ThreadPoolExecutor.CallerRunsPolicy());
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(handlers);
+        server.createContext("/solve", this::solve);
+        server.createContext("/status", this::status);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /** Starts accepting requests. */
+    public void start() {
+        server.start();
+    }
+
+    /** Port on which the server listens. */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /** Stops accepting requests and interrupts the running solves. */
+    @Override
+    public void close() {
+        server.stop(0);
+        workers.shutdownNow();
+        handlers.shutdownNow();
+    }
+
+    private void solve(HttpExchange exchange) throws IOException {
+        long arrival = System.currentTimeMillis();
+        try {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                respond(exchange, 405, error("use POST with an instance as body"));
+                return;
+            }
+            Map<String, String> params = query(exchange);
+            String solverName = params.get("solver");
+            if (solverName == null || !params.containsKey("timeout")) {
+                respond(exchange, 400, error("the solver and timeout parameters are required"));
+                return;
+            }
+            long deadline = arrival + Long.parseLong(params.get("timeout"));
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            Instance instance = Instance.fromString(params.getOrDefault("name", "request"), body);
+            // a new solver for each request: solvers keep state between calls and are not thread safe
+            Solver solver = params.containsKey("seed")
+                    ? Solver.getSolver(solverName, Long.parseLong(params.get("seed")), null)
+                    : Solver.getSolver(solverName);
+
+            Future<String> result;
+            try {
+                result = workers.submit(() -> run(instance, solverName, solver, arrival, deadline));
+            } catch (RejectedExecutionException e) {
+                rejected.incrementAndGet();
+                respond(exchange, 503, error("all workers are busy, try again later"));
+                return;
+            }
+            try {
+                respond(exchange, 200, result.get());
+            } catch (ExecutionException e) {
+                respond(exchange, 500, error("solver failure: " + e.getCause()));
+            } catch (InterruptedException e) {
+                result.cancel(true);
+                Thread.currentThread().interrupt();
+                respond(exchange, 503, error("server shutting down"));
+            }
+        } catch (RuntimeException e) {
+            // malformed parameters or instance, unknown solver
+            respond(exchange, 400, error(e.toString()));
+        }
+    }
+
+    /** Solves an instance on a worker and returns the JSON response. */
+    private String run(Instance instance, String solverName, Solver solver, long arrival, long deadline) {
+        long start = System.currentTimeMillis();
+        Optional<Schedule> result = solver.solve(instance, deadline, Integer.MAX_VALUE);
+        long end = System.currentTimeMillis();
+        completed.incrementAndGet();
+        if (result.isEmpty())
+            throw new RuntimeException("no solution found");
+        Schedule schedule = result.get();
+
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"instance\": ").append(quote(instance.name));
+        json.append(", \"solver\": ").append(quote(solverName));
+        json.append(", \"makespan\": ").append(schedule.makespan());
+        json.append(", \"lower_bound\": ").append(LowerBound.of(instance));
+        json.append(", \"valid\": ").append(schedule.isValid());
+        json.append(", \"queue_ms\": ").append(start - arrival);
+        json.append(", \"runtime_ms\": ").append(end - start);
+        Optional<SearchStatistics> statistics = solver.statistics();
+        if (statistics.isPresent()) {
+            json.append(", \"iterations\": ").append(statistics.get().iterations);
+            json.append(", \"evaluations\": ").append(statistics.get().evaluations);
+        }
+        json.append(", \"start_times\": [");
+        for (int j = 0; j < instance.numJobs; j++) {
+            json.append(j == 0 ? "[" : ", [");
+            for (int t = 0; t < instance.numTasks; t++) {
+                if (t > 0)
+                    json.append(", ");
+                json.append(schedule.startTime(j, t));
+            }
+            json.append("]");
+        }
+        json.append("]}");
+        return json.toString();
+    }
+
+    private void status(HttpExchange exchange) throws IOException {
+        String json = String.format("{\"workers\": %d, \"running\": %d, \"queued\": %d, \"completed\": %d, \"rejected\": %d}",
+                workers.getMaximumPoolSize(), workers.getActiveCount(), workers.getQueue().size(),
+                completed.get(), rejected.get());
+        respond(exchange, 200, json);
+    }
+
+    /** Parameters of the query string of a request. */
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null)
+            return params;
+        for (String param : query.split("&")) {
+            int eq = param.indexOf('=');
+            if (eq > 0)
+                params.put(URLDecoder.decode(param.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(param.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static String error(String message) {
+        return "{\"error\": " + quote(message) + "}";
+    }
+
+    private static String quote(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = (json + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /** Command line entry point, used by the "serve" command of Main. */
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("jsp-solver serve").build()
+                .defaultHelp(true)
+                .description("Runs a solving service on the loopback interface. Example: curl --data-binary " +
+                        "@instances/ft10 'http://localhost:7070/solve?solver=taboo_sb&timeout=1000'");
+        parser.addArgument("--port")
+                .setDefault(7070)
+                .type(Integer.class)
+                .help("Port on which to listen.");
+        parser.addArgument("--workers")
+                .setDefault(Runtime.getRuntime().availableProcessors())
+                .type(Integer.class)
+                .help("Number of solves that run in parallel.");
+        parser.addArgument("--queue")
+                .setDefault(16)
+                .type(Integer.class)
+                .help("Number of requests that can wait for a worker before new ones are refused.");
+
+        Namespace ns = null;
+        try {
+            ns = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+
+        try {
+            SolveServer server = new SolveServer(ns.getInt("port"), ns.getInt("workers"), ns.getInt("queue"));
+            server.start();
+            System.out.println("Listening on http://localhost:" + server.port() + "/solve");
+            // the threads of the server are daemons, keep the JVM alive until it is killed
+            Thread.currentThread().join();
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
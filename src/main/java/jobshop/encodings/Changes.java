@@ -1,11 +0,0 @@
-package jobshop.encodings;
-
-public class Changes {
-    public Task t1;
-    public Task t2;
-
-    public Changes(Task t1, Task t2){
-        this.t1=t1;
-        this.t2=t2;
-    }
-}
@@ -1,7 +1,11 @@
 package jobshop.encodings;
 
 import jobshop.Instance;
+import jobshop.events.SolverEvents;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
@@ -20,6 +24,16 @@ public final class ResourceOrder extends Encoding {
 
     private ArrayList<Machine> machines;
 
+    // for each job, end time of its last task added with addTaskToMachine
+    private final int[] jobEndTime;
+
+    // earliest start time of each task (indexed by job * numTasks + task), or null if tasks can start at time 0
+    private int[] releaseTimes;
+
+    // Zobrist hash of the content of tasksByMachine: xor of the keys of all (machine, position, job) triplets,
+    // maintained incrementally by addTaskToMachine and swapTasks
+    private long fingerprint;
+
     /** Creates a new empty resource order. */
     public ResourceOrder(Instance instance)
     {
@@ -35,6 +49,7 @@ public final class ResourceOrder extends Encoding {
         for (int i = 0; i < instance.numMachines; i++) {
             machines.add(new Machine(i));
         }
+        jobEndTime = new int[instance.numJobs];
     }
 
     /** Creates a resource order from a schedule. */
@@ -45,6 +60,7 @@ public final class ResourceOrder extends Encoding {
 
         this.tasksByMachine = new Task[pb.numMachines][];
         this.nextFreeSlot = new int[instance.numMachines];
+        this.jobEndTime = new int[instance.numJobs];
 
         for(int m = 0; m<schedule.instance.numMachines ; m++) {
             final int machine = m;
@@ -58,6 +74,9 @@ public final class ResourceOrder extends Encoding {
 
             // indicate that all tasks have been initialized for machine m
             nextFreeSlot[m] = instance.numJobs;
+            for (int i = 0; i < instance.numJobs; i++) {
+                fingerprint ^= zobristKey(m, i, tasksByMachine[m][i].job);
+            }
         }
     }
 
@@ -68,6 +87,17 @@ public final class ResourceOrder extends Encoding {
         for(int i=0 ; i<this.tasksByMachine.length ; i++) {
             this.tasksByMachine[i] = original.tasksByMachine[i].clone();
         }
+        this.fingerprint = original.fingerprint;
+        this.jobEndTime = original.jobEndTime.clone();
+        this.releaseTimes = original.releaseTimes == null ? null : original.releaseTimes.clone();
+        if (original.machines != null) {
+            this.machines = new ArrayList<>(original.machines.size());
+            for (Machine m : original.machines) {
+                Machine copy = new Machine(m.machine);
+                copy.end_time = m.end_time;
+                this.machines.add(copy);
+            }
+        }
     }
 
 
@@ -103,29 +133,24 @@ public final class ResourceOrder extends Encoding {
             throw new RuntimeException("Task " + task + " cannot be scheduled on machine "+machine);
         }
         tasksByMachine[machine][nextFreeSlot[machine]] = task;
+        fingerprint ^= zobristKey(machine, nextFreeSlot[machine], task.job);
         nextFreeSlot[machine] += 1;
 
 
-        Machine m = machines.get(machine);
-
-        // For the first task of the job we just have to begin where the previous task of the machine ends
-        if (task.task == 0) {
-            task.start_time = m.end_time;
+        if (machines == null) {
+            // resource order created from a schedule: the end times of machines and jobs are not tracked
+            return;
         }
+        Machine m = machines.get(machine);
 
-        // If the task is not the first, we have to compare the end time of the previous
-        // task of the job with the end time of the previous task on the machine
-        else {
-
-            ArrayList<Task> previous_tasks = task.getOtherTasksInResourceOrder(this);
-            Task previous_task = previous_tasks.get(previous_tasks.size()-1);
+        // The task starts when both the previous task of the machine and the previous task of the job are done
+        // (the end time of the previous task of the job is 0 for the first task).
+        task.start_time = Math.max(m.end_time, jobEndTime[task.job]);
 
-            //this.printTasksByMachine();
-            int previous_end_time = previous_task.start_time + this.instance.duration(previous_task);
-            task.start_time = Math.max(m.end_time, previous_end_time);
-        }
-        // Then, we update the end time of the machine, with the value of the end time of the added task.
-        m.incrementEndTime(task.start_time + this.instance.duration(task));
+        // Then, we update the end times of the machine and of the job, with the value of the end time of the added task.
+        int end_time = task.start_time + this.instance.duration(task);
+        m.incrementEndTime(end_time - m.end_time);
+        jobEndTime[task.job] = end_time;
     }
 
     /** Returns the i-th task scheduled on a particular machine.
@@ -151,6 +176,39 @@ public final class ResourceOrder extends Encoding {
         Task tmp = tasksByMachine[machine][indexTask1];
         tasksByMachine[machine][indexTask1] = tasksByMachine[machine][indexTask2];
         tasksByMachine[machine][indexTask2] = tmp;
+        fingerprint ^= zobristKey(machine, indexTask1, tmp.job) ^ zobristKey(machine, indexTask2, tmp.job)
+                ^ zobristKey(machine, indexTask1, tasksByMachine[machine][indexTask1].job)
+                ^ zobristKey(machine, indexTask2, tasksByMachine[machine][indexTask1].job);
+    }
+
+    /** Sets the earliest time at which a task can start, e.g. the current time when rescheduling.
+     *  Release times are taken into account by evaluate() and toSchedule(), but not by the fingerprint. */
+    public void setReleaseTime(int job, int task, int time) {
+        if (releaseTimes == null)
+            releaseTimes = new int[instance.numJobs * instance.numTasks];
+        releaseTimes[job * instance.numTasks + task] = time;
+    }
+
+    /** Earliest time at which a task can start (0 unless set by setReleaseTime). */
+    public int releaseTime(int job, int task) {
+        return releaseTimes == null ? 0 : releaseTimes[job * instance.numTasks + task];
+    }
+
+    /** 64 bits hash of the order of tasks on all machines, updated in constant time when the order is modified.
+     *
+     * Two equal resource orders always have the same fingerprint, and two different ones have the same fingerprint
+     * with a probability of about 2^-64, which allows to use it as the identity of a solution.
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    /** Random key associated to a job being at a given position on a machine (splitmix64 of the triplet). */
+    private static long zobristKey(int machine, int position, int job) {
+        long z = ((long) machine << 42 | (long) position << 21 | job) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
     }
 
     public int getPositionForMachine(int machine, Task t) {
@@ -163,56 +221,94 @@ public final class ResourceOrder extends Encoding {
         throw new RuntimeException();
     }
 
-    @Override
-    public Optional<Schedule> toSchedule() {
-        // indicates, for each task that have been scheduled, its start time
-        Schedule schedule = new Schedule(instance);
-
-        // for each job, how many tasks have been scheduled (0 initially)
-        int[] nextToScheduleByJob = new int[instance.numJobs];
-
-        // for each machine, how many tasks have been scheduled (0 initially)
-        int[] nextToScheduleByMachine = new int[instance.numMachines];
+    /** Value returned by evaluate() when the resource order has no feasible schedule. */
+    public static final int INFEASIBLE = Integer.MAX_VALUE;
 
-        // for each machine, earliest time at which the machine can be used
-        int[] releaseTimeOfMachine = new int[instance.numMachines];
+    // working memory of evaluate(), allocated on first use and never shared between copies
+    private int[] startTimes;
+    private int[] nextToScheduleByJob;
+    private int[] nextToScheduleByMachine;
+    private int[] releaseTimeOfJob;
+    private int[] releaseTimeOfMachine;
+    private int[] machinesToCheck;
 
-
-        // loop while there remains a job that has unscheduled tasks
-        while(IntStream.range(0, instance.numJobs).anyMatch(m -> nextToScheduleByJob[m] < instance.numTasks)) {
-
-            // selects a task that has no unscheduled predecessor on its job and machine :
-            //  - it is the next to be schedule on a machine
-            //  - it is the next to be scheduled on its job
-            // If there is no such task, we have cyclic dependency and the solution is invalid.
-            Optional<Task> schedulable =
-                    IntStream.range(0, instance.numMachines) // all machines ...
-                    .filter(m -> nextToScheduleByMachine[m] < instance.numJobs) // ... with unscheduled jobs
-                    .mapToObj(m -> this.tasksByMachine[m][nextToScheduleByMachine[m]]) // tasks that are next to schedule on a machine ...
-                    .filter(task -> task.task == nextToScheduleByJob[task.job])  // ... and on their job
-                    .findFirst(); // select the first one if any
-
-            if(schedulable.isPresent()) {
-                // we have a schedulable task, lets call it t
-                Task t = schedulable.get();
-                int machine = instance.machine(t.job, t.task);
-
-                // compute the earliest start time (est) of the task
-                int est = t.task == 0 ? 0 : schedule.endTime(t.job, t.task-1);
-                est = Math.max(est, releaseTimeOfMachine[instance.machine(t)]);
-                schedule.setStartTime(t.job, t.task, est);
-
-                // mark the task as scheduled
+    /** Computes the earliest start time of all tasks for this resource order, without allocating any object.
+     *
+     * Tasks are scheduled as soon as they are next on both their job and their machine. When a task is scheduled,
+     * only its machine and the machine of the next task of its job can have a new schedulable task, which makes
+     * the evaluation linear in the number of tasks.
+     *
+     * @return The makespan of the resulting schedule, or INFEASIBLE if the order contains a cyclic dependency.
+     */
+    public int evaluate() {
+        int numJobs = instance.numJobs;
+        int numTasks = instance.numTasks;
+        if (startTimes == null) {
+            startTimes = new int[numJobs * numTasks];
+            nextToScheduleByJob = new int[numJobs];
+            nextToScheduleByMachine = new int[instance.numMachines];
+            releaseTimeOfJob = new int[numJobs];
+            releaseTimeOfMachine = new int[instance.numMachines];
+            // each machine is checked once initially and at most once after each scheduled task
+            machinesToCheck = new int[instance.numMachines + numJobs * numTasks];
+        }
+        Arrays.fill(nextToScheduleByJob, 0);
+        Arrays.fill(nextToScheduleByMachine, 0);
+        Arrays.fill(releaseTimeOfJob, 0);
+        Arrays.fill(releaseTimeOfMachine, 0);
+
+        int numToCheck = 0;
+        for (int m = 0; m < instance.numMachines; m++)
+            machinesToCheck[numToCheck++] = m;
+
+        int scheduled = 0;
+        int makespan = 0;
+        while (numToCheck > 0) {
+            int m = machinesToCheck[--numToCheck];
+            // schedule all tasks of the machine that are also next on their job
+            while (nextToScheduleByMachine[m] < nextFreeSlot[m]) {
+                Task t = tasksByMachine[m][nextToScheduleByMachine[m]];
+                if (t.task != nextToScheduleByJob[t.job])
+                    break;
+                int est = Math.max(releaseTimeOfJob[t.job], releaseTimeOfMachine[m]);
+                if (releaseTimes != null)
+                    est = Math.max(est, releaseTimes[t.job * numTasks + t.task]);
+                int end = est + instance.duration(t.job, t.task);
+                startTimes[t.job * numTasks + t.task] = est;
+                releaseTimeOfJob[t.job] = end;
+                releaseTimeOfMachine[m] = end;
+                makespan = Math.max(makespan, end);
+                nextToScheduleByMachine[m]++;
                 nextToScheduleByJob[t.job]++;
-                nextToScheduleByMachine[machine]++;
-                // increase the release time of the machine
-                releaseTimeOfMachine[machine] = est + instance.duration(t.job, t.task);
-            } else {
-                // no tasks are schedulable, there is no solution for this resource ordering
-                return Optional.empty();
+                scheduled++;
+                if (t.task + 1 < numTasks)
+                    machinesToCheck[numToCheck++] = instance.machine(t.job, t.task + 1);
+            }
+        }
+        // if some tasks could not be scheduled, there is a cyclic dependency
+        return scheduled == numJobs * numTasks ? makespan : INFEASIBLE;
+    }
+
+    @Override
+    public Optional<Schedule> toSchedule() {
+        SolverEvents.Decode event = new SolverEvents.Decode();
+        event.begin();
+        int makespan = evaluate();
+        if (event.shouldCommit()) {
+            event.instance = instance.name;
+            event.makespan = makespan;
+            event.commit();
+        }
+        if (makespan == INFEASIBLE) {
+            // no tasks are schedulable, there is no solution for this resource ordering
+            return Optional.empty();
+        }
+        Schedule schedule = new Schedule(instance);
+        for (int j = 0; j < instance.numJobs; j++) {
+            for (int t = 0; t < instance.numTasks; t++) {
+                schedule.setStartTime(j, t, startTimes[j * instance.numTasks + t]);
             }
         }
-        // we exited the loop : all tasks have been scheduled successfully
         return Optional.of(schedule);
     }
 
@@ -224,6 +320,29 @@ public final class ResourceOrder extends Encoding {
         return new ResourceOrder(this);
     }
 
+    /** Writes the order of jobs on each machine, with two bytes per task. The resource order must be complete. */
+    public void write(DataOutput out) throws IOException {
+        if (instance.numJobs > 0xFFFF)
+            throw new RuntimeException("Too many jobs to write a resource order: " + instance.numJobs);
+        for (int m = 0; m < instance.numMachines; m++) {
+            for (int i = 0; i < instance.numJobs; i++) {
+                out.writeShort(tasksByMachine[m][i].job);
+            }
+        }
+    }
+
+    /** Reads a resource order written by write(DataOutput). */
+    public static ResourceOrder read(DataInput in, Instance instance) throws IOException {
+        ResourceOrder order = new ResourceOrder(instance);
+        for (int m = 0; m < instance.numMachines; m++) {
+            for (int i = 0; i < instance.numJobs; i++) {
+                int job = in.readUnsignedShort();
+                order.addTaskToMachine(m, new Task(job, instance.task_with_machine(job, m)));
+            }
+        }
+        return order;
+    }
+
     @Override
     protected Object clone() {
         return new ResourceOrder(this);
@@ -256,8 +375,6 @@ public final class ResourceOrder extends Encoding {
 
     @Override
     public int hashCode() {
-        int result = Arrays.hashCode(tasksByMachine);
-        result = 31 * result + Arrays.hashCode(nextFreeSlot);
-        return result;
+        return Long.hashCode(fingerprint);
     }
 }
\ No newline at end of file
@@ -1,9 +1,9 @@
 package jobshop.encodings;
 
 import jobshop.Instance;
+import jobshop.events.SolverEvents;
 
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /** Direct encoding of the solution to JobShop problem.
@@ -110,9 +110,12 @@ public class Schedule extends Encoding {
 
     /** Computes a critical path of the schedule.
      *
-     * @return A sequence of task along a critical path.
+     * @return A sequence of task along a critical path. It starts at time 0, unless its first task only waits for
+     *         its release time (in a rescheduled solution).
      */
     public List<Task> criticalPath() {
+        SolverEvents.CriticalPath event = new SolverEvents.CriticalPath();
+        event.begin();
         // select task with greatest end time
         Task ldd = IntStream.range(0, instance.numJobs)
                 .mapToObj(j -> new Task(j, instance.numTasks-1))
@@ -151,15 +154,65 @@ public class Schedule extends Encoding {
                         .filter(t -> endTime(t) == startTime(cur))
                         .findFirst();
             }
-            // at this point we should have identified a latest predecessor, either on the job or on the machine
-            assert latestPredecessor.isPresent() && endTime(latestPredecessor.get()) == startTime(cur);
+            // a task that only waits for its release time (e.g. in a rescheduled solution) starts the path
+            if (latestPredecessor.isEmpty())
+                break;
             // insert predecessor at the beginning of the path
             path.add(0, latestPredecessor.get());
         }
-        assert isCriticalPath(path);
+        assert startTime(path.getFirst()) != 0 || isCriticalPath(path);
+        if (event.shouldCommit()) {
+            event.instance = instance.name;
+            event.makespan = makespan();
+            event.length = path.size();
+            event.commit();
+        }
         return path;
     }
 
+    /** Returns the tasks of the critical path (the same as criticalPath()) as a map: the task (job, task) is on the
+     *  critical path if and only if the element job * numTasks + task is true. Membership tests are in constant time.
+     *
+     *  Unlike criticalPath(), which scans the tasks of a machine at each step, the machine predecessors are found
+     *  with an index of the end times of the tasks of each machine, so that the map is built in linear time. */
+    public boolean[] criticalTaskMap() {
+        int numTasks = instance.numTasks;
+        boolean[] critical = new boolean[instance.numJobs * numTasks];
+        // job of the first task (in job order) of each machine that ends at a given time, keyed by machine and time
+        Map<Long, Integer> endingOnMachine = new HashMap<>();
+        // last task of the job that completes last
+        int last = numTasks - 1;
+        for (int j = 0; j < instance.numJobs; j++) {
+            for (int t = 0; t < numTasks; t++)
+                endingOnMachine.putIfAbsent(key(instance.machine(j, t), endTime(j, t)), j * numTasks + t);
+            if (endTime(j, numTasks - 1) > endTime(last / numTasks, numTasks - 1))
+                last = j * numTasks + numTasks - 1;
+        }
+
+        int op = last;
+        critical[op] = true;
+        while (startTime(op / numTasks, op % numTasks) != 0) {
+            int job = op / numTasks;
+            int task = op % numTasks;
+            int start = startTime(job, task);
+            if (task > 0 && endTime(job, task - 1) == start) {
+                op = op - 1;
+            } else {
+                Integer previous = endingOnMachine.get(key(instance.machine(job, task), start));
+                // a task that only waits for its release time (e.g. in a rescheduled solution) starts the path
+                if (previous == null)
+                    break;
+                op = previous;
+            }
+            critical[op] = true;
+        }
+        return critical;
+    }
+
+    private static long key(int machine, int time) {
+        return ((long) machine << 32) | time;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -185,9 +238,11 @@ public class Schedule extends Encoding {
      * For each task, we indicate :
      *  - the machine on which the task must be executed
      *  - whether this task is on the critical path (task on the critical path are filled in with stars).
+     *
+     * The chart is as wide as the makespan (or more): for large instances, use the exporters of jobshop.export.
      */
     public String asciiGantt() {
-        var criticalPath = this.criticalPath();
+        boolean[] critical = this.criticalTaskMap();
         int minTaskDur = IntStream.range(0, instance.numJobs).flatMap(job -> IntStream.range(0, instance.numTasks).map(task -> instance.duration(job, task))).min().getAsInt();
         // time units by character
         int charsPerTimeUnit = minTaskDur >= 5 ? 1 : (5 / minTaskDur) +1;
@@ -201,7 +256,7 @@ public class Schedule extends Encoding {
                 var st = startTime(job, task);
                 // add spaces until the start of our task
                 sb.append(" ".repeat(charsPerTimeUnit * (st - cursor )));
-                sb.append(formatTask(t, charsPerTimeUnit, criticalPath.contains(t)));
+                sb.append(formatTask(t, charsPerTimeUnit, critical[job * instance.numTasks + task]));
 
                 cursor = endTime(job, task);
             }
@@ -261,7 +316,12 @@ public class Schedule extends Encoding {
 
     @Override
     public int hashCode() {
-        return Arrays.stream(times).map(Arrays::hashCode).collect(Collectors.toList()).hashCode();
-
+        int result = 1;
+        for (int[] jobTimes : times) {
+            for (int time : jobTimes) {
+                result = 31 * result + time;
+            }
+        }
+        return result;
     }
 }
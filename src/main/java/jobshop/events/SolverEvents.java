@@ -0,0 +1,90 @@
+package jobshop.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Java Flight Recorder events emitted by the solvers, to measure the cost of each phase of a search in JMC.
+ *
+ * Events are used with the usual pattern: create, begin(), do the work, set the fields and commit(). When the event
+ * is not enabled in the recording (or there is no recording), commit() does nothing and the JIT removes the
+ * allocation of the event, so they can stay in production code. Stack traces are disabled to keep recording cheap.
+ * The most frequent events (decodes and critical paths, several per iteration) are disabled by default and must be
+ * enabled explicitly, e.g. with jfr configure or a custom .jfc file.
+ */
+public final class SolverEvents {
+
+    private SolverEvents() {}
+
+    /** Fields shared by all events. */
+    @Category({"Jobshop", "Solver"})
+    @StackTrace(false)
+    public abstract static class SolverEvent extends Event {
+        @Label("Instance")
+        public String instance;
+
+        @Label("Iteration")
+        @Description("Iteration of the search (or number of the construction) during which the event happened")
+        public long iteration;
+
+        @Label("Makespan")
+        public int makespan;
+    }
+
+    /** Construction of a solution by a greedy heuristic. */
+    @Name("jobshop.Construction")
+    @Label("Construction")
+    public static final class Construction extends SolverEvent {
+        @Label("Heuristic")
+        public String heuristic;
+    }
+
+    /** Generation of the moves of a neighborhood. */
+    @Name("jobshop.Neighborhood")
+    @Label("Neighborhood Generation")
+    public static final class Neighborhood extends SolverEvent {
+        @Label("Neighbors")
+        public int neighbors;
+    }
+
+    /** Decoding of a resource order into a schedule. */
+    @Name("jobshop.Decode")
+    @Label("Decode")
+    @Enabled(false)
+    public static final class Decode extends SolverEvent {
+    }
+
+    /** Extraction of the critical path of a schedule. */
+    @Name("jobshop.CriticalPath")
+    @Label("Critical Path")
+    @Enabled(false)
+    public static final class CriticalPath extends SolverEvent {
+        @Label("Length")
+        @Description("Number of tasks on the critical path")
+        public int length;
+    }
+
+    /** Move accepted by a local search, the makespan being the one of the new current solution. */
+    @Name("jobshop.MoveAccepted")
+    @Label("Move Accepted")
+    public static final class MoveAccepted extends SolverEvent {
+        @Label("Move")
+        public String move;
+
+        @Label("Aspiration")
+        @Description("True if the move was taboo but accepted because it improves on the best solution")
+        public boolean aspiration;
+    }
+
+    /** New best solution of a search. */
+    @Name("jobshop.NewBest")
+    @Label("New Best Solution")
+    public static final class NewBest extends SolverEvent {
+        @Label("Solver")
+        public String solver;
+    }
+}
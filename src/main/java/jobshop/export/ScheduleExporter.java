@@ -0,0 +1,168 @@
+package jobshop.export;
+
+import jobshop.Instance;
+import jobshop.encodings.Schedule;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/** Exports schedules as timelines (CSV) or Gantt charts (SVG, or HTML page containing the SVG chart).
+ *
+ * Exporters write directly to a Writer, one element per task, in time linear in the number of tasks: the size of
+ * the output does not depend on the makespan (the chart is scaled to a fixed width), and membership in the critical
+ * path comes from Schedule.criticalTaskMap(). This makes them usable on large instances, unlike Schedule.asciiGantt().
+ */
+public final class ScheduleExporter {
+
+    /** Supported output formats. */
+    public enum Format {
+        CSV, SVG, HTML;
+
+        /** Extension of the files in this format. */
+        public String extension() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /** Layout of the SVG chart, in pixels. */
+    static final int CHART_WIDTH = 1200;
+    static final int MARGIN_LEFT = 50;
+    static final int MARGIN_TOP = 10;
+    static final int ROW_HEIGHT = 18;
+    static final int AXIS_HEIGHT = 30;
+    /** Minimal width of a task for its job number to be written in it. */
+    static final int MIN_LABEL_WIDTH = 16;
+
+    private ScheduleExporter() {}
+
+    /** Writes the schedule in the given format. */
+    public static void write(Schedule schedule, Format format, Writer out) throws IOException {
+        switch (format) {
+            case CSV: writeCsv(schedule, out); break;
+            case SVG: writeSvg(schedule, out); break;
+            case HTML: writeHtml(schedule, out); break;
+            default: throw new RuntimeException("Unknown format: " + format);
+        }
+    }
+
+    /** Writes the schedule in the given format to a file. */
+    public static void write(Schedule schedule, Format format, Path path) throws IOException {
+        try (Writer out = Files.newBufferedWriter(path)) {
+            write(schedule, format, out);
+        }
+    }
+
+    /** Writes one line per task: job, task, machine, start, end, duration and whether it is on the critical path. */
+    public static void writeCsv(Schedule schedule, Writer out) throws IOException {
+        Instance instance = schedule.instance;
+        boolean[] critical = schedule.criticalTaskMap();
+        out.write("job,task,machine,start,end,duration,critical\n");
+        for (int j = 0; j < instance.numJobs; j++) {
+            for (int t = 0; t < instance.numTasks; t++) {
+                out.write(j + "," + t + "," + instance.machine(j, t) + "," + schedule.startTime(j, t) + ","
+                        + schedule.endTime(j, t) + "," + instance.duration(j, t) + ","
+                        + critical[j * instance.numTasks + t] + "\n");
+            }
+        }
+    }
+
+    /** Writes a Gantt chart with one row per machine. Each job has its own color, tasks of the critical path are
+     *  outlined, and each task has a tooltip with its job, task number and times. */
+    public static void writeSvg(Schedule schedule, Writer out) throws IOException {
+        Instance instance = schedule.instance;
+        boolean[] critical = schedule.criticalTaskMap();
+        int makespan = Math.max(1, schedule.makespan());
+        double scale = (double) CHART_WIDTH / makespan;
+        int chartHeight = instance.numMachines * ROW_HEIGHT;
+        int width = MARGIN_LEFT + CHART_WIDTH + 20;
+        int height = MARGIN_TOP + chartHeight + AXIS_HEIGHT;
+
+        out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + width + "\" height=\"" + height
+                + "\" font-family=\"sans-serif\" font-size=\"11\">\n");
+        out.write("<title>" + escape(instance.name) + ": makespan " + schedule.makespan() + "</title>\n");
+
+        // machines
+        for (int m = 0; m < instance.numMachines; m++) {
+            int y = MARGIN_TOP + m * ROW_HEIGHT;
+            out.write("<text x=\"4\" y=\"" + (y + ROW_HEIGHT - 5) + "\">M" + m + "</text>\n");
+        }
+
+        // tasks
+        for (int j = 0; j < instance.numJobs; j++) {
+            String color = color(j, instance.numJobs);
+            for (int t = 0; t < instance.numTasks; t++) {
+                int m = instance.machine(j, t);
+                double x = MARGIN_LEFT + schedule.startTime(j, t) * scale;
+                double w = Math.max(0.5, instance.duration(j, t) * scale);
+                int y = MARGIN_TOP + m * ROW_HEIGHT + 2;
+                out.write("<rect x=\"" + num(x) + "\" y=\"" + y + "\" width=\"" + num(w) + "\" height=\""
+                        + (ROW_HEIGHT - 4) + "\" fill=\"" + color + "\"");
+                if (critical[j * instance.numTasks + t])
+                    out.write(" stroke=\"black\" stroke-width=\"1.5\"");
+                out.write("><title>job " + j + ", task " + t + ", machine " + m + ": " + schedule.startTime(j, t)
+                        + "-" + schedule.endTime(j, t) + "</title></rect>\n");
+                if (w >= MIN_LABEL_WIDTH) {
+                    out.write("<text x=\"" + num(x + w / 2) + "\" y=\"" + (y + ROW_HEIGHT - 8)
+                            + "\" text-anchor=\"middle\" pointer-events=\"none\">" + j + "</text>\n");
+                }
+            }
+        }
+
+        // time axis
+        int axisY = MARGIN_TOP + chartHeight + 4;
+        out.write("<line x1=\"" + MARGIN_LEFT + "\" y1=\"" + axisY + "\" x2=\"" + (MARGIN_LEFT + CHART_WIDTH)
+                + "\" y2=\"" + axisY + "\" stroke=\"black\"/>\n");
+        int step = tickStep(makespan);
+        for (int time = 0; time <= makespan; time += step) {
+            double x = MARGIN_LEFT + time * scale;
+            out.write("<line x1=\"" + num(x) + "\" y1=\"" + axisY + "\" x2=\"" + num(x) + "\" y2=\"" + (axisY + 4)
+                    + "\" stroke=\"black\"/><text x=\"" + num(x) + "\" y=\"" + (axisY + 16)
+                    + "\" text-anchor=\"middle\">" + time + "</text>\n");
+        }
+        out.write("</svg>\n");
+    }
+
+    /** Writes an HTML page with a summary of the schedule and its Gantt chart. */
+    public static void writeHtml(Schedule schedule, Writer out) throws IOException {
+        Instance instance = schedule.instance;
+        String title = escape(instance.name) + " - makespan " + schedule.makespan();
+        out.write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n<title>" + title + "</title>\n");
+        out.write("<style>body { font-family: sans-serif; } svg rect:hover { opacity: 0.7; }</style>\n");
+        out.write("</head>\n<body>\n<h1>" + title + "</h1>\n");
+        out.write("<p>" + instance.numJobs + " jobs, " + instance.numMachines + " machines. "
+                + "Each job has its own color, tasks of the critical path are outlined. "
+                + "Hover a task for details.</p>\n");
+        writeSvg(schedule, out);
+        out.write("</body>\n</html>\n");
+    }
+
+    /** Distinct colors for the jobs, spread around the color wheel. */
+    static String color(int job, int numJobs) {
+        double hue = (job * 137.508) % 360;
+        int lightness = 55 + 15 * (job % 3) / 2;
+        return "hsl(" + num(hue) + "," + (numJobs > 20 ? 60 : 70) + "%," + lightness + "%)";
+    }
+
+    /** Step between the ticks of the time axis: 1, 2 or 5 times a power of ten, for about 10 ticks. */
+    static int tickStep(int makespan) {
+        int step = 1;
+        while (true) {
+            for (int factor : new int[]{1, 2, 5}) {
+                if (makespan / (step * factor) <= 10)
+                    return step * factor;
+            }
+            step *= 10;
+        }
+    }
+
+    private static String num(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -15,7 +15,7 @@ public class BasicSolver implements Solver {
 
 
     @Override
-    public Optional<Schedule> solve(Instance instance, long deadline, int maxIter) {
+    public Optional<Schedule> solve(Instance instance, SolveBudget budget) {
 
         // resource order that will be populated (initially empty)
         ResourceOrder sol = new ResourceOrder(instance);
@@ -0,0 +1,409 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.encodings.Schedule;
+import jobshop.solvers.disjunctive.DisjunctiveGraph;
+import jobshop.solvers.neighborhood.Nowicki;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Exact branch and bound for the jobshop, in the style of Brucker, Jurisch and Sievers.
+ *
+ * A node of the search tree is a partial selection of machine arcs in the disjunctive graph. For each node:
+ *  - heads and tails are computed; the node is bounded by the one-machine preemptive bound of every machine.
+ *  - a complete solution consistent with the selection is built with the Giffler-Thompson scheme, which may improve
+ *    the best known solution.
+ *  - the blocks (in the sense of Nowicki.Block) of a critical path of this solution are computed. Any better solution
+ *    must move an operation of a block before the first or after the last operation of this block: each such move
+ *    is a child of the node, obtained by fixing the corresponding arcs.
+ *
+ * Subtrees are explored in parallel with a ForkJoinPool (work stealing), sharing the best known makespan.
+ * When the deadline is met, the best solution found is returned and the bound of the unexplored nodes is recorded,
+ * and can be retrieved with bound(). As the nodes are explored by other threads, only the deadline of the budget
+ * limits the search (the initial solution is built with the whole budget).
+ */
+public class BranchAndBoundSolver implements Solver {
+
+    /** Solver used to obtain the initial upper bound. */
+    final Solver initialSolver;
+
+    /** Number of worker threads. */
+    final int parallelism;
+
+    /** Best lower bound proven by the last call to solve. */
+    private volatile int bound;
+
+    /** Whether the last call to solve proved the optimality of its result. */
+    private volatile boolean optimal;
+
+    /** Creates a branch and bound using all available processors, initialized with the shifting bottleneck. */
+    public BranchAndBoundSolver() {
+        this(new ShiftingBottleneckSolver(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Creates a new branch and bound solver.
+     *
+     * @param initialSolver Solver used to get an initial solution (and upper bound).
+     * @param parallelism Number of threads exploring the search tree.
+     */
+    public BranchAndBoundSolver(Solver initialSolver, int parallelism) {
+        this.initialSolver = initialSolver;
+        this.parallelism = parallelism;
+    }
+
+    /** Lower bound proven during the last call to solve. Equal to the makespan of the result if it is optimal. */
+    public int bound() {
+        return bound;
+    }
+
+    /** Returns true if the last call to solve returned a proven optimal solution. */
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    @Override
+    public Optional<Schedule> solve(Instance instance, SolveBudget budget) {
+        Search search = new Search(instance, budget.deadline());
+        initialSolver.solve(instance, budget).ifPresent(search::offer);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(search.new Node(new DisjunctiveGraph(instance), search.rootBound));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int upper = search.upper.get();
+        this.bound = Math.min(upper, Math.max(search.rootBound, search.openBound.get()));
+        this.optimal = bound == upper;
+        return Optional.ofNullable(search.best);
+    }
+
+    /** State shared by all nodes of a search. */
+    private static final class Search {
+        final Instance instance;
+        final long deadline;
+        final int numJobs;
+        final int numTasks;
+
+        /** Lower bound of the whole problem. */
+        final int rootBound;
+
+        /** Makespan of the best solution found so far. */
+        final AtomicInteger upper = new AtomicInteger(Integer.MAX_VALUE);
+
+        /** Smallest bound of the nodes left unexplored because of the deadline. */
+        final AtomicInteger openBound = new AtomicInteger(Integer.MAX_VALUE);
+
+        /** Best solution found so far. */
+        Schedule best;
+
+        /** Nodes of the tasks of each machine. */
+        final int[][] tasksOfMachine;
+
+        Search(Instance instance, long deadline) {
+            this.instance = instance;
+            this.deadline = deadline;
+            this.numJobs = instance.numJobs;
+            this.numTasks = instance.numTasks;
+            this.rootBound = LowerBound.of(instance);
+            this.tasksOfMachine = new int[instance.numMachines][numJobs];
+            for (int j = 0; j < numJobs; j++) {
+                for (int t = 0; t < numTasks; t++) {
+                    tasksOfMachine[instance.machine(j, t)][j] = j * numTasks + t;
+                }
+            }
+        }
+
+        /** Records a new solution if it is better than the best one. */
+        synchronized void offer(Schedule schedule) {
+            int makespan = schedule.makespan();
+            if (makespan < upper.get()) {
+                best = schedule;
+                upper.set(makespan);
+            }
+        }
+
+        /** Records that a subtree with the given bound was not explored. */
+        void abandon(int nodeBound) {
+            openBound.accumulateAndGet(nodeBound, Math::min);
+        }
+
+        /** A node of the search tree, explored as a fork/join task (never serialized). */
+        @SuppressWarnings("serial")
+        final class Node extends RecursiveAction {
+
+            /** Partial selection of this node. */
+            final DisjunctiveGraph graph;
+
+            /** Lower bound inherited from the parent node. */
+            final int parentBound;
+
+            Node(DisjunctiveGraph graph, int parentBound) {
+                this.graph = graph;
+                this.parentBound = parentBound;
+            }
+
+            @Override
+            protected void compute() {
+                if (parentBound >= upper.get())
+                    return;
+                if (System.currentTimeMillis() >= deadline) {
+                    abandon(parentBound);
+                    return;
+                }
+
+                int numOps = graph.numOps;
+                int[] heads = new int[numOps];
+                int[] tails = new int[numOps];
+                if (!graph.heads(heads) || !graph.tails(tails))
+                    return; // the selection contains a cycle
+
+                // immediate selection: fix the pairs of tasks that can only be ordered one way in a better solution
+                for (int round = 0; round < 3; round++) {
+                    int selected = immediateSelection(heads, tails);
+                    if (selected < 0)
+                        return;
+                    if (selected == 0)
+                        break;
+                    if (!graph.heads(heads) || !graph.tails(tails))
+                        return;
+                }
+                int lb = Math.max(parentBound, bound(graph, heads, tails));
+                if (lb >= upper.get())
+                    return;
+
+                // complete solution consistent with the selection
+                int[][] sequences = new int[instance.numMachines][numJobs];
+                int[] start = new int[numOps];
+                int makespan = complete(heads, tails, sequences, start);
+                if (makespan < upper.get()) {
+                    Schedule schedule = new Schedule(instance);
+                    for (int op = 0; op < numOps; op++)
+                        schedule.setStartTime(op / numTasks, op % numTasks, start[op]);
+                    offer(schedule);
+                }
+                if (lb >= upper.get())
+                    return;
+
+                // Children of block k keep the first and last tasks of the previous blocks at their place,
+                // and "after" children also keep the first task of block k in place, which avoids exploring
+                // the same selections several times.
+                List<Node> children = new ArrayList<>();
+                List<Nowicki.Block> blocks = criticalBlocks(sequences, start, makespan);
+                DisjunctiveGraph base = new DisjunctiveGraph(graph);
+                for (Nowicki.Block block : blocks) {
+                    int[] seq = sequences[block.machine];
+                    for (int i = block.firstTask + 1; i <= block.lastTask; i++)
+                        child(base, seq, block, i, true, lb, children);
+                    DisjunctiveGraph afterBase = new DisjunctiveGraph(base);
+                    if (!fix(afterBase, seq, block, block.firstTask, true))
+                        break;
+                    for (int i = block.firstTask; i < block.lastTask; i++)
+                        child(afterBase, seq, block, i, false, lb, children);
+                    if (!fix(base, seq, block, block.firstTask, true) || !fix(base, seq, block, block.lastTask, false))
+                        break;
+                }
+                children.sort((a, b) -> Integer.compare(a.parentBound, b.parentBound));
+
+                // explore the first child in this thread, and let the others be stolen by idle workers
+                if (getSurplusQueuedTaskCount() > 2 * parallelism()) {
+                    for (Node child : children)
+                        child.compute();
+                } else {
+                    invokeAll(children);
+                }
+            }
+
+            private int parallelism() {
+                return getPool().getParallelism();
+            }
+
+            /** Creates a child where the i-th task of the block is moved before (or after) all other tasks of the block.
+             *  The child is discarded right away if it is infeasible or cannot improve the best solution. */
+            private void child(DisjunctiveGraph base, int[] seq, Nowicki.Block block, int i, boolean before, int lb,
+                               List<Node> children) {
+                DisjunctiveGraph g = new DisjunctiveGraph(base);
+                if (!fix(g, seq, block, i, before))
+                    return;
+                int[] heads = new int[g.numOps];
+                int[] tails = new int[g.numOps];
+                if (!g.heads(heads) || !g.tails(tails))
+                    return;
+                int childBound = Math.max(lb, bound(g, heads, tails));
+                if (childBound < upper.get())
+                    children.add(new Node(g, childBound));
+            }
+
+            /** Adds the arcs placing the i-th task of the block before (or after) all other tasks of the block.
+             *  Returns false if one of these arcs is the reverse of an arc of the selection. */
+            private boolean fix(DisjunctiveGraph g, int[] seq, Nowicki.Block block, int i, boolean before) {
+                for (int k = block.firstTask; k <= block.lastTask; k++) {
+                    if (k == i)
+                        continue;
+                    int from = before ? seq[i] : seq[k];
+                    int to = before ? seq[k] : seq[i];
+                    if (g.hasArc(to, from))
+                        return false;
+                    if (!g.hasArc(from, to))
+                        g.addArc(from, to);
+                }
+                return true;
+            }
+
+            /** For each pair of unordered tasks on the same machine, adds an arc if only one order can lead to
+             *  a solution better than the best known one.
+             *
+             * @return -1 if a pair cannot be ordered at all (the node can be pruned), 1 if arcs were added, 0 otherwise.
+             */
+            private int immediateSelection(int[] heads, int[] tails) {
+                int ub = upper.get();
+                int result = 0;
+                for (int[] tasks : tasksOfMachine) {
+                    for (int a = 0; a < numJobs; a++) {
+                        for (int b = a + 1; b < numJobs; b++) {
+                            int i = tasks[a], j = tasks[b];
+                            if (graph.hasArc(i, j) || graph.hasArc(j, i))
+                                continue;
+                            int p = graph.duration(i) + graph.duration(j);
+                            boolean iFirst = heads[i] + p + tails[j] < ub;
+                            boolean jFirst = heads[j] + p + tails[i] < ub;
+                            if (!iFirst && !jFirst)
+                                return -1;
+                            if (!jFirst) {
+                                graph.addArc(i, j);
+                                result = 1;
+                            } else if (!iFirst) {
+                                graph.addArc(j, i);
+                                result = 1;
+                            }
+                        }
+                    }
+                }
+                return result;
+            }
+
+            /** Maximal one-machine preemptive bound over all machines, with the heads and tails of the node. */
+            private int bound(DisjunctiveGraph graph, int[] heads, int[] tails) {
+                int[] r = new int[numJobs], p = new int[numJobs], q = new int[numJobs];
+                int lb = 0;
+                for (int[] tasks : tasksOfMachine) {
+                    for (int j = 0; j < numJobs; j++) {
+                        r[j] = heads[tasks[j]];
+                        p[j] = graph.duration(tasks[j]);
+                        q[j] = tails[tasks[j]];
+                    }
+                    lb = Math.max(lb, LowerBound.jacksonPreemptive(r, p, q, numJobs));
+                }
+                return lb;
+            }
+
+            /** Builds an active schedule that respects the selection of the node with the Giffler-Thompson scheme.
+             *  In the conflict set, the task with the largest tail is selected.
+             *
+             * @return The makespan of the schedule, whose machine sequences and start times are stored in
+             *         sequences and start.
+             */
+            private int complete(int[] heads, int[] tails, int[][] sequences, int[] start) {
+                int[] remainingPreds = new int[graph.numOps];
+                for (int op = 0; op < graph.numOps; op++)
+                    remainingPreds[op] = graph.numPredecessors(op);
+                int[] nextTask = new int[numJobs];
+                int[] jobReady = new int[numJobs];
+                int[] machineReady = new int[instance.numMachines];
+                int[] machineSize = new int[instance.numMachines];
+                int makespan = 0;
+
+                for (int step = 0; step < graph.numOps; step++) {
+                    int bestEnd = Integer.MAX_VALUE;
+                    int bestMachine = -1;
+                    for (int j = 0; j < numJobs; j++) {
+                        if (nextTask[j] == numTasks)
+                            continue;
+                        int op = j * numTasks + nextTask[j];
+                        if (remainingPreds[op] > 0)
+                            continue;
+                        int m = instance.machine(j, nextTask[j]);
+                        int end = Math.max(jobReady[j], machineReady[m]) + graph.duration(op);
+                        if (end < bestEnd) {
+                            bestEnd = end;
+                            bestMachine = m;
+                        }
+                    }
+                    int selected = -1;
+                    for (int j = 0; j < numJobs; j++) {
+                        if (nextTask[j] == numTasks || instance.machine(j, nextTask[j]) != bestMachine)
+                            continue;
+                        int op = j * numTasks + nextTask[j];
+                        int est = Math.max(jobReady[j], machineReady[bestMachine]);
+                        if (remainingPreds[op] > 0 || est >= bestEnd && est + graph.duration(op) != bestEnd)
+                            continue;
+                        if (selected < 0 || tails[op] > tails[selected])
+                            selected = op;
+                    }
+
+                    int job = selected / numTasks;
+                    int est = Math.max(jobReady[job], machineReady[bestMachine]);
+                    start[selected] = est;
+                    jobReady[job] = est + graph.duration(selected);
+                    machineReady[bestMachine] = jobReady[job];
+                    makespan = Math.max(makespan, jobReady[job]);
+                    sequences[bestMachine][machineSize[bestMachine]++] = selected;
+                    nextTask[job]++;
+                    for (int k = 0; k < graph.numSuccessors(selected); k++)
+                        remainingPreds[graph.successor(selected, k)]--;
+                }
+                return makespan;
+            }
+
+            /** Blocks of a critical path of the given complete schedule.
+             *  A block is a maximal sequence of at least two consecutive tasks of the path on the same machine. */
+            private List<Nowicki.Block> criticalBlocks(int[][] sequences, int[] start, int makespan) {
+                int numOps = graph.numOps;
+                // position of each task in its machine sequence
+                int[] position = new int[numOps];
+                for (int[] seq : sequences) {
+                    for (int i = 0; i < seq.length; i++)
+                        position[seq[i]] = i;
+                }
+
+                // walk a critical path backwards from a task that completes at the makespan
+                int op = -1;
+                for (int j = 0; j < numJobs && op < 0; j++) {
+                    int last = j * numTasks + numTasks - 1;
+                    if (start[last] + graph.duration(last) == makespan)
+                        op = last;
+                }
+                List<Nowicki.Block> blocks = new ArrayList<>();
+                int blockEnd = -1;
+                while (op >= 0) {
+                    int machine = instance.machine(op / numTasks, op % numTasks);
+                    int pos = position[op];
+                    int machinePred = pos > 0 ? sequences[machine][pos - 1] : -1;
+                    int pred = -1;
+                    boolean onMachine = false;
+                    if (op % numTasks > 0 && start[op - 1] + graph.duration(op - 1) == start[op]) {
+                        pred = op - 1;
+                    } else if (machinePred >= 0 && start[machinePred] + graph.duration(machinePred) == start[op]) {
+                        pred = machinePred;
+                        onMachine = true;
+                    }
+                    if (onMachine && blockEnd < 0) {
+                        blockEnd = pos;
+                    } else if (!onMachine && blockEnd >= 0) {
+                        blocks.add(new Nowicki.Block(machine, pos, blockEnd));
+                        blockEnd = -1;
+                    }
+                    op = pred;
+                }
+                return blocks;
+            }
+        }
+    }
+}
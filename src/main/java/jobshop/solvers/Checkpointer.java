@@ -0,0 +1,160 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/** Periodic snapshots of the state of a search, so that a long run can be resumed after a crash or a preemption.
+ *
+ * The search copies its state at the end of an iteration when a snapshot is due(), and hands the copy to save().
+ * The copy is written to disk by a background thread, so that the search is not paused by the I/O: if the writer
+ * is still busy when a new snapshot arrives, only the most recent one waits to be written. Each file is written
+ * to a temporary file and moved atomically, so a crash leaves either the previous snapshot or the new one.
+ *
+ * There is one file per instance in the directory of the checkpointer (named after the instance, with the .ckpt
+ * extension), that starts with a fingerprint of the instance and the kind of search that wrote it. A checkpointer
+ * should only be used by one solver at a time.
+ */
+public final class Checkpointer implements AutoCloseable {
+
+    /** Magic number and version at the start of each file. */
+    private static final int MAGIC = 0x4a53434b; // "JSCK"
+    private static final int VERSION = 2;
+
+    /** Copy of the state of a search, that can be written from another thread. */
+    public interface State {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /** Reads the state of a search from a checkpoint. */
+    public interface StateReader<S> {
+        S read(DataInputStream in) throws IOException;
+    }
+
+    /** Directory of the checkpoints. */
+    public final Path directory;
+    /** Minimum time between two snapshots, in milliseconds. */
+    public final long intervalMs;
+    /** Whether searches should continue from the existing checkpoints. */
+    public final boolean resume;
+
+    /** Single background writer, whose queue only holds the latest snapshot. */
+    private final ThreadPoolExecutor writer;
+    private long nextSnapshot;
+
+    /** Creates a checkpointer that writes in the given directory, that is created if needed.
+     *
+     * @param directory Directory of the checkpoints.
+     * @param intervalMs Minimum time between two snapshots, in milliseconds.
+     * @param resume If true, load() returns the existing checkpoints; otherwise they are ignored (and overwritten).
+     */
+    public Checkpointer(Path directory, long intervalMs, boolean resume) throws IOException {
+        this.directory = directory;
+        this.intervalMs = intervalMs;
+        this.resume = resume;
+        Files.createDirectories(directory);
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "checkpoint-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardOldestPolicy());
+        this.nextSnapshot = System.currentTimeMillis() + intervalMs;
+    }
+
+    private Path file(Instance instance) {
+        return directory.resolve(instance.name + ".ckpt");
+    }
+
+    /** True if the interval since the last snapshot has elapsed. */
+    public boolean due() {
+        return System.currentTimeMillis() >= nextSnapshot;
+    }
+
+    /** Writes a snapshot in the background. The state must not be modified afterwards.
+     *
+     * @param kind Kind of search that produced the state (e.g. "taboo"), checked when loading it.
+     */
+    public void save(Instance instance, String kind, State state) {
+        nextSnapshot = System.currentTimeMillis() + intervalMs;
+        writer.execute(() -> write(instance, kind, state));
+    }
+
+    /** Writes a snapshot and waits until it is on disk, e.g. at the end of a search. */
+    public void saveNow(Instance instance, String kind, State state) {
+        nextSnapshot = System.currentTimeMillis() + intervalMs;
+        // going through the writer ensures that an older snapshot is not written afterwards
+        Future<?> done = writer.submit(() -> write(instance, kind, state));
+        try {
+            done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while writing a checkpoint", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Could not write a checkpoint", e.getCause());
+        }
+    }
+
+    /** Returns the state saved for the instance, if resuming and if there is one written by the same kind of search.
+     *  Files that are corrupted or that were written for a different instance are ignored. */
+    public <S> Optional<S> load(Instance instance, String kind, StateReader<S> reader) {
+        Path path = file(instance);
+        if (!resume || !Files.isRegularFile(path))
+            return Optional.empty();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != instance.fingerprint()
+                    || !in.readUTF().equals(kind))
+                return Optional.empty();
+            return Optional.of(reader.read(in));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("WARNING: ignoring invalid checkpoint " + path + ": " + e);
+            return Optional.empty();
+        }
+    }
+
+    private void write(Instance instance, String kind, State state) {
+        try {
+            Path tmp = Files.createTempFile(directory, instance.name, ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeLong(instance.fingerprint());
+                    out.writeUTF(kind);
+                    state.write(out);
+                }
+                Files.move(tmp, file(instance), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            // the search goes on, the previous checkpoint is still there
+            System.err.println("WARNING: could not write checkpoint for " + instance.name + ": " + e);
+        }
+    }
+
+    /** Waits for the pending snapshot to be written and stops the background writer. */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,70 +1,323 @@
 package jobshop.solvers;
 
 import jobshop.Instance;
+import jobshop.LowerBound;
 import jobshop.encodings.ResourceOrder;
 import jobshop.encodings.Schedule;
+import jobshop.encodings.Task;
+import jobshop.events.SolverEvents;
+import jobshop.solvers.cache.EvaluationCache;
+import jobshop.solvers.cache.VisitedSet;
+import jobshop.solvers.neighborhood.Move;
 import jobshop.solvers.neighborhood.Neighborhood;
+import jobshop.solvers.neighborhood.Nowicki;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 
-/** An empty shell to implement a descent solver. */
+/** Descent (hill climbing) on a neighborhood of the ResourceOrder encoding.
+ *
+ * Four strategies are available:
+ *  - BEST_IMPROVEMENT evaluates all neighbors and moves to the best one, as long as it improves on the current solution,
+ *  - FIRST_IMPROVEMENT evaluates neighbors in a random order and moves to the first one that improves,
+ *  - RANDOM_RESTART runs first improvement descents, from the solution of the base solver and then from random
+ *    active schedules, until the budget is exhausted, and returns the best local optimum,
+ *  - ITERATED_LOCAL_SEARCH perturbs the last accepted local optimum and runs a first improvement descent from it,
+ *    until the budget is exhausted. The new local optimum is accepted if it is not worse, or with the probability of simulated
+ *    annealing at a fixed temperature, so that the search can leave a plateau.
+ */
 public class DescentSolver implements Solver {
 
+    /** Number of decoded neighbors remembered. */
+    static final int VISITED_CAPACITY = 1 << 16;
+
+    /** Noise of the random Giffler-Thompson construction of the restarts of RANDOM_RESTART. */
+    static final double RESTART_NOISE = 0.5;
+
+    /** How to choose the next solution among the neighbors of the current one. */
+    public enum Strategy {
+        BEST_IMPROVEMENT,
+        FIRST_IMPROVEMENT,
+        RANDOM_RESTART,
+        ITERATED_LOCAL_SEARCH
+    }
+
+    /** How a local optimum is perturbed by the iterated local search. */
+    public enum Perturbation {
+        /** Random moves of the neighborhood, i.e. swaps in critical blocks for Nowicki's neighborhood. */
+        CRITICAL_SWAPS,
+        /** Random swaps of consecutive tasks on the machine with the most tasks on the critical path. */
+        BOTTLENECK_SHUFFLE
+    }
+
+    /** Which local optima the iterated local search continues from. */
+    public enum Acceptance {
+        /** Local optima that are not worse than the current one. */
+        BETTER_OR_EQUAL,
+        /** Also worse local optima, with probability exp(-delta / T), T being a fraction of the best makespan. */
+        ANNEALING
+    }
+
+    /** Number of random swaps of a perturbation, by default. */
+    public static final int DEFAULT_STRENGTH = 3;
+
+    /** Temperature of the ANNEALING acceptance, relative to the best makespan. */
+    static final double TEMPERATURE = 0.002;
+
     final Neighborhood neighborhood;
     final Solver baseSolver;
+    final Strategy strategy;
+    final Random random;
+    final Perturbation perturbation;
+    final int strength;
+    final Acceptance acceptance;
 
-    /** Creates a new descent solver with a given neighborhood and a solver for the initial solution.
+    /** Counters of the last run. */
+    private final SearchStatistics statistics = new SearchStatistics();
+
+    /** Creates a new best improvement descent solver with a given neighborhood and a solver for the initial solution.
      *
      * @param neighborhood Neighborhood object that should be used to generates neighbor solutions to the current candidate.
      * @param baseSolver A solver to provide the initial solution.
      */
     public DescentSolver(Neighborhood neighborhood, Solver baseSolver) {
+        this(neighborhood, baseSolver, Strategy.BEST_IMPROVEMENT, new Random());
+    }
+
+    /** Creates a new descent solver.
+     *
+     * @param neighborhood Neighborhood object that should be used to generates neighbor solutions to the current candidate.
+     * @param baseSolver A solver to provide the initial solution.
+     * @param strategy How to select the next solution.
+     * @param random Source of randomness for the order of neighbors and the restarts.
+     */
+    public DescentSolver(Neighborhood neighborhood, Solver baseSolver, Strategy strategy, Random random) {
         this.neighborhood = neighborhood;
         this.baseSolver = baseSolver;
+        this.strategy = strategy;
+        this.random = random;
+        this.perturbation = Perturbation.CRITICAL_SWAPS;
+        this.strength = DEFAULT_STRENGTH;
+        this.acceptance = Acceptance.BETTER_OR_EQUAL;
+    }
+
+    /** Creates a new iterated local search solver.
+     *
+     * @param neighborhood Neighborhood object that should be used to generates neighbor solutions to the current candidate.
+     * @param baseSolver A solver to provide the initial solution.
+     * @param perturbation How to perturb local optima.
+     * @param strength Number of random swaps of a perturbation.
+     * @param acceptance Which local optima to continue from.
+     * @param random Source of randomness for the order of neighbors, the perturbations and the acceptance.
+     */
+    public DescentSolver(Neighborhood neighborhood, Solver baseSolver, Perturbation perturbation, int strength,
+                         Acceptance acceptance, Random random) {
+        if (strength < 1)
+            throw new RuntimeException("The strength of perturbations must be positive");
+        this.neighborhood = neighborhood;
+        this.baseSolver = baseSolver;
+        this.strategy = Strategy.ITERATED_LOCAL_SEARCH;
+        this.random = random;
+        this.perturbation = perturbation;
+        this.strength = strength;
+        this.acceptance = acceptance;
     }
 
     @Override
-    public Optional<Schedule> solve(Instance instance, long deadline, int maxIter) {
+    public Optional<Schedule> solve(Instance instance, SolveBudget budget) {
 
 
-        Optional<Schedule> os = this.baseSolver.solve(instance, deadline, maxIter);
-        Schedule s;
-        ResourceOrder sol = null;
-        if (os.isPresent()) {
-            s = os.get();
+        Optional<Schedule> os = this.baseSolver.solve(instance, budget);
+        if (os.isEmpty()) {
+            throw new UnsupportedOperationException();
         }
+        statistics.clear();
+        neighborhood.cache().clear();
 
-        else {
-            throw new UnsupportedOperationException();
+        // a solution whose makespan equals the lower bound is optimal, there is no need to look further
+        int lowerBound = LowerBound.of(instance);
+
+        // neighbors already evaluated are at least as long as the current solution, there is no need to evaluate them again
+        VisitedSet decoded = new VisitedSet(VISITED_CAPACITY);
+
+        ResourceOrder current = new ResourceOrder(os.get());
+        int makespan = descent(current, os.get().makespan(), lowerBound, budget, decoded);
+        Schedule best = current.toSchedule().get();
+        newBest(instance, makespan);
+        if (strategy == Strategy.ITERATED_LOCAL_SEARCH)
+            return Optional.of(iterate(current, makespan, best, lowerBound, budget, decoded));
+        if (strategy != Strategy.RANDOM_RESTART)
+            return Optional.of(best);
+
+        GifflerThompsonSolver.Engine engine = new GifflerThompsonSolver.Engine(instance);
+        while (makespan > lowerBound && !budget.exhausted()) {
+            statistics.restarts++;
+            engine.construct(GreedySolver.Priority.EST_LRPT, GifflerThompsonSolver.Mode.ACTIVE, RESTART_NOISE, random);
+            Schedule start = engine.toSchedule();
+            current = new ResourceOrder(start);
+            // the makespans of the previous descents are no longer an upper bound for the new one
+            decoded.clear();
+            int localOptimum = descent(current, start.makespan(), lowerBound, budget, decoded);
+            if (localOptimum < makespan) {
+                makespan = localOptimum;
+                best = current.toSchedule().get();
+                newBest(instance, makespan);
+            }
         }
+        return Optional.of(best);
+    }
 
-        int makespan = Integer.MAX_VALUE;
-        boolean changed = true;
-        List<ResourceOrder> neighbours = this.neighborhood.generateNeighbors(new ResourceOrder(s));
+    /** Iterated local search from a local optimum, until the budget is exhausted.
+     *
+     * @return The best local optimum.
+     */
+    private Schedule iterate(ResourceOrder current, int makespan, Schedule best, int lowerBound, SolveBudget budget,
+                             VisitedSet decoded) {
+        int bestMakespan = makespan;
+        while (bestMakespan > lowerBound && !budget.exhausted()) {
+            ResourceOrder candidate = current.copy();
+            int perturbed = perturb(candidate, makespan, budget);
+            // the perturbed solution may be worse than the neighbors decoded before
+            decoded.clear();
+            int localOptimum = descent(candidate, perturbed, lowerBound, budget, decoded);
+            if (localOptimum < bestMakespan) {
+                bestMakespan = localOptimum;
+                best = candidate.toSchedule().get();
+                newBest(current.instance, bestMakespan);
+            }
+            if (localOptimum <= makespan || (acceptance == Acceptance.ANNEALING
+                    && random.nextDouble() < Math.exp((makespan - localOptimum) / (TEMPERATURE * bestMakespan)))) {
+                current = candidate;
+                makespan = localOptimum;
+            }
+        }
+        return best;
+    }
 
-        while (changed && System.currentTimeMillis()<deadline) {
+    /** Applies strength random swaps to a solution, skipping those that would make it infeasible.
+     *
+     * @param makespan Makespan of the solution before the perturbation.
+     * @return The makespan of the perturbed solution.
+     */
+    private int perturb(ResourceOrder order, int makespan, SolveBudget budget) {
+        if (order.instance.numJobs < 2)
+            return makespan;
+        int machine = perturbation == Perturbation.BOTTLENECK_SHUFFLE ? bottleneck(order) : -1;
+        for (int k = 0; k < strength; k++) {
+            Move move;
+            if (perturbation == Perturbation.CRITICAL_SWAPS) {
+                List<? extends Move> moves = neighborhood.moves(order);
+                if (moves.isEmpty())
+                    return makespan;
+                move = moves.get(random.nextInt(moves.size()));
+            } else {
+                int position = random.nextInt(order.instance.numJobs - 1);
+                move = new Nowicki.Swap(machine, position, position + 1);
+            }
+            move.apply(order);
+            statistics.evaluations++;
+            budget.evaluated(1);
+            int perturbed = neighborhood.makespan(order);
+            if (perturbed == ResourceOrder.INFEASIBLE)
+                move.undo(order);
+            else
+                makespan = perturbed;
+        }
+        return makespan;
+    }
 
-            changed = false;
-            //int min_makespan = Integer.MAX_VALUE;
-            neighbours = this.neighborhood.generateNeighbors(new ResourceOrder(s));
-            for (ResourceOrder r : neighbours) {
-                if (r.toSchedule().isPresent()) {
+    /** Machine with the most tasks on the critical path of a solution. */
+    private static int bottleneck(ResourceOrder order) {
+        int[] critical = new int[order.instance.numMachines];
+        for (Task task : order.toSchedule().get().criticalPath())
+            critical[order.instance.machine(task)]++;
+        int machine = 0;
+        for (int m = 1; m < critical.length; m++) {
+            if (critical[m] > critical[machine])
+                machine = m;
+        }
+        return machine;
+    }
+
+    /** Records the best solution at the end of a descent that improved on the previous ones. */
+    private void newBest(Instance instance, int makespan) {
+        SolverEvents.NewBest event = new SolverEvents.NewBest();
+        if (event.shouldCommit()) {
+            event.instance = instance.name;
+            event.iteration = statistics.iterations;
+            event.makespan = makespan;
+            event.solver = "descent " + strategy;
+            event.commit();
+        }
+    }
 
-                    int new_makespan = r.toSchedule().get().makespan();
+    /** Runs a descent from the given solution, that is modified in place until it is a local optimum.
+     *
+     * @return The makespan of the local optimum.
+     */
+    private int descent(ResourceOrder current, int makespan, int lowerBound, SolveBudget budget, VisitedSet decoded) {
+        boolean changed = true;
+        while (changed && !budget.exhausted() && makespan > lowerBound) {
 
+            changed = false;
+            statistics.iterations++;
+            Move selected = null;
+            SolverEvents.Neighborhood generation = new SolverEvents.Neighborhood();
+            generation.begin();
+            List<? extends Move> moves = this.neighborhood.moves(current);
+            if (generation.shouldCommit()) {
+                generation.instance = current.instance.name;
+                generation.iteration = statistics.iterations;
+                generation.makespan = makespan;
+                generation.neighbors = moves.size();
+                generation.commit();
+            }
+            SolverEvents.MoveAccepted acceptance = new SolverEvents.MoveAccepted();
+            acceptance.begin();
+            if (strategy != Strategy.BEST_IMPROVEMENT)
+                Collections.shuffle(moves, random);
+            for (Move move : moves) {
+                move.apply(current);
+                if (decoded.add(current.fingerprint())) {
+                    statistics.evaluations++;
+                    budget.evaluated(1);
+                    int new_makespan = neighborhood.makespan(current);
                     if (new_makespan < makespan) {
                         makespan = new_makespan;
-                        sol = r;
+                        selected = move;
                     }
                 }
+                move.undo(current);
+                if (selected != null && strategy != Strategy.BEST_IMPROVEMENT)
+                    break;
             }
-            if(makespan < s.makespan()){
-                s = sol.toSchedule().get();
+            if (selected != null) {
+                selected.apply(current);
+                statistics.improvements++;
                 changed = true;
+                if (acceptance.shouldCommit()) {
+                    acceptance.instance = current.instance.name;
+                    acceptance.iteration = statistics.iterations;
+                    acceptance.makespan = makespan;
+                    acceptance.move = selected.toString();
+                    acceptance.commit();
+                }
+            } else {
+                statistics.localOptima++;
             }
         }
-        return Optional.of(s);
+        return makespan;
+    }
 
+    @Override
+    public Optional<SearchStatistics> statistics() {
+        return Optional.of(statistics);
+    }
+
+    @Override
+    public Optional<EvaluationCache> evaluationCache() {
+        return Optional.of(neighborhood.cache());
     }
 }
\ No newline at end of file
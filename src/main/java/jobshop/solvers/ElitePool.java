@@ -0,0 +1,154 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.ResourceOrder;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** Pool of good and diverse solutions found by a search, between which paths can be relinked.
+ *
+ * The distance between two solutions is the number of pairs of jobs that are in a different order on a machine
+ * (the sum over machines of the Kendall distances between the two orders). It is computed from the position of each
+ * job on each machine, and swapping two consecutive tasks changes it by exactly one.
+ *
+ * A solution enters the pool if it is not already in it and the pool is not full, or if it is better than the worst
+ * solution of the pool: it then replaces the most similar solution among the ones it is better than, so that the
+ * pool keeps solutions from different regions of the search space.
+ */
+public final class ElitePool {
+
+    /** A solution of the pool. */
+    public static final class Elite {
+        public final ResourceOrder order;
+        public final int makespan;
+        /** positions[m][job] is the position of the job on the machine m. */
+        final int[][] positions;
+
+        Elite(ResourceOrder order, int makespan) {
+            this.order = order;
+            this.makespan = makespan;
+            this.positions = positions(order);
+        }
+    }
+
+    private final int capacity;
+    private final List<Elite> elites = new ArrayList<>();
+
+    /** Creates an empty pool that keeps up to capacity solutions. */
+    public ElitePool(int capacity) {
+        if (capacity < 1)
+            throw new RuntimeException("The capacity of the pool must be positive");
+        this.capacity = capacity;
+    }
+
+    /** Position of each job on each machine, indexed by machine then job. */
+    public static int[][] positions(ResourceOrder order) {
+        int[][] positions = new int[order.instance.numMachines][order.instance.numJobs];
+        for (int m = 0; m < positions.length; m++) {
+            for (int p = 0; p < order.instance.numJobs; p++)
+                positions[m][order.getTaskOfMachine(m, p).job] = p;
+        }
+        return positions;
+    }
+
+    /** Number of pairs of jobs in a different order on a machine, given the positions of the jobs. */
+    public static int distance(int[][] a, int[][] b) {
+        int distance = 0;
+        for (int m = 0; m < a.length; m++) {
+            int[] pa = a[m];
+            int[] pb = b[m];
+            for (int i = 0; i < pa.length; i++) {
+                for (int j = i + 1; j < pa.length; j++) {
+                    // the differences of positions have opposite signs when the orders differ
+                    distance += ((pa[i] - pa[j]) ^ (pb[i] - pb[j])) >>> 31;
+                }
+            }
+        }
+        return distance;
+    }
+
+    /** Number of pairs of jobs in a different order on a machine. */
+    public static int distance(ResourceOrder a, ResourceOrder b) {
+        return distance(positions(a), positions(b));
+    }
+
+    /** Offers a solution to the pool, which keeps a copy of it if it is accepted.
+     *
+     * @return True if the solution entered the pool.
+     */
+    public boolean offer(ResourceOrder order, int makespan) {
+        int[][] positions = positions(order);
+        int[] distances = new int[elites.size()];
+        for (int i = 0; i < elites.size(); i++) {
+            distances[i] = distance(positions, elites.get(i).positions);
+            if (distances[i] == 0)
+                return false;
+        }
+        if (elites.size() < capacity) {
+            add(new Elite(order.copy(), makespan));
+            return true;
+        }
+        int replaced = -1;
+        for (int i = 0; i < elites.size(); i++) {
+            if (elites.get(i).makespan > makespan && (replaced < 0 || distances[i] < distances[replaced]))
+                replaced = i;
+        }
+        if (replaced < 0)
+            return false;
+        elites.remove(replaced);
+        add(new Elite(order.copy(), makespan));
+        return true;
+    }
+
+    /** Adds an elite, the pool being kept sorted by increasing makespan. */
+    private void add(Elite elite) {
+        int i = 0;
+        while (i < elites.size() && elites.get(i).makespan <= elite.makespan)
+            i++;
+        elites.add(i, elite);
+    }
+
+    /** Solutions of the pool, from the best to the worst. */
+    public List<Elite> elites() {
+        return Collections.unmodifiableList(elites);
+    }
+
+    public int size() {
+        return elites.size();
+    }
+
+    /** Copy of the pool, that shares its solutions (they are never modified). */
+    public ElitePool copy() {
+        ElitePool copy = new ElitePool(capacity);
+        copy.elites.addAll(elites);
+        return copy;
+    }
+
+    /** Removes all solutions. */
+    public void clear() {
+        elites.clear();
+    }
+
+    /** Writes the solutions of the pool. */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(elites.size());
+        for (Elite elite : elites) {
+            out.writeInt(elite.makespan);
+            elite.order.write(out);
+        }
+    }
+
+    /** Replaces the solutions of the pool by the ones written by write. */
+    public void read(DataInput in, Instance instance) throws IOException {
+        elites.clear();
+        for (int count = in.readInt(); count > 0; count--) {
+            int makespan = in.readInt();
+            add(new Elite(ResourceOrder.read(in, instance), makespan));
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.encodings.Schedule;
+import jobshop.events.SolverEvents;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+
+/** Giffler-Thompson schedule generation scheme.
+ *
+ * At each step, the engine computes the earliest start and earliest completion time of the next task of every job,
+ * using the release time of its job and of its machine. Those values are maintained in primitive arrays and are
+ * recomputed every time a task is scheduled, so the candidate set always reflects the machines' current state.
+ *
+ * - In ACTIVE mode, the conflict set contains the tasks competing for the machine of the task that can complete
+ *   first and that could start before this completion time.
+ * - In NON_DELAY mode, the conflict set contains the tasks competing for the machine of the task that can start
+ *   first and that can start at this earliest start time.
+ *
+ * A task is then selected in the conflict set with the given priority rule. When a noise is given, a uniformly random
+ * task of the conflict set is selected instead with this probability, which makes the solver usable as a source of
+ * diverse solutions for restarts or seeding.
+ */
+public class GifflerThompsonSolver implements Solver {
+
+    /** Kind of schedules to generate. */
+    public enum Mode {
+        ACTIVE, NON_DELAY
+    }
+
+    /** Priority used to select a task in the conflict set. */
+    final GreedySolver.Priority priority;
+
+    /** Kind of schedules generated by this solver. */
+    final Mode mode;
+
+    /** Probability of choosing a random task of the conflict set instead of following the priority. */
+    final double noise;
+
+    /** Number of constructions performed for each call to solve (the best one is kept). */
+    final int restarts;
+
+    /** Source of randomness for noise and tie breaking. */
+    final Random random;
+
+    /** Creates a deterministic solver performing a single construction. */
+    public GifflerThompsonSolver(GreedySolver.Priority priority, Mode mode) {
+        this(priority, mode, 0, 1, new Random(0));
+    }
+
+    /** Creates a new Giffler-Thompson solver.
+     *
+     * @param priority Priority rule used to select a task in the conflict set.
+     * @param mode Whether the generated schedules should be active or non-delay.
+     * @param noise Probability, in [0,1], to select a random task of the conflict set.
+     * @param restarts Number of randomized constructions to perform, the best one being returned.
+     * @param random Source of randomness.
+     */
+    public GifflerThompsonSolver(GreedySolver.Priority priority, Mode mode, double noise, int restarts, Random random) {
+        this.priority = priority;
+        this.mode = mode;
+        this.noise = noise;
+        this.restarts = Math.max(1, restarts);
+        this.random = random;
+    }
+
+    @Override
+    public Optional<Schedule> solve(Instance instance, SolveBudget budget) {
+        Engine engine = new Engine(instance);
+        Schedule best = null;
+        int bestMakespan = Integer.MAX_VALUE;
+        int lowerBound = LowerBound.of(instance);
+
+        // stop as soon as a construction reaches the lower bound, it is optimal
+        for (int i = 0; i < restarts && bestMakespan > lowerBound; i++) {
+            // always do at least one construction, even if the budget is already exhausted
+            if (i > 0 && budget.exhausted())
+                break;
+            SolverEvents.Construction event = new SolverEvents.Construction();
+            event.begin();
+            int makespan = engine.construct(priority, mode, noise, random);
+            if (event.shouldCommit()) {
+                event.instance = instance.name;
+                event.iteration = i;
+                event.makespan = makespan;
+                event.heuristic = "GT " + mode + " " + priority;
+                event.commit();
+            }
+            if (makespan < bestMakespan) {
+                bestMakespan = makespan;
+                best = engine.toSchedule();
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /** Reusable construction engine for a given instance.
+     *
+     * All working memory is allocated once, so that thousands of constructions can be performed without
+     * any allocation.
+     */
+    public static final class Engine {
+
+        final Instance instance;
+
+        /** Durations of all tasks, indexed by job * numTasks + task */
+        final int[] duration;
+
+        /** Machine of all tasks, indexed by job * numTasks + task */
+        final int[] machine;
+
+        /** Remaining processing time of the job, including the task, indexed by job * numTasks + task */
+        final int[] remaining;
+
+        /** For each job, index of the next task to schedule. */
+        final int[] nextTask;
+
+        /** For each job, time at which its last scheduled task completes. */
+        final int[] jobReady;
+
+        /** For each machine, time at which its last scheduled task completes. */
+        final int[] machineReady;
+
+        /** Start time of all scheduled tasks, indexed by job * numTasks + task */
+        final int[] start;
+
+        /** Jobs of the conflict set. */
+        private final int[] conflict;
+
+        /** Creates a new engine for the given instance. */
+        public Engine(Instance instance) {
+            this.instance = instance;
+            int numOps = instance.numJobs * instance.numTasks;
+            this.duration = new int[numOps];
+            this.machine = new int[numOps];
+            this.remaining = new int[numOps];
+            for (int j = 0; j < instance.numJobs; j++) {
+                int rem = 0;
+                for (int t = instance.numTasks - 1; t >= 0; t--) {
+                    int op = j * instance.numTasks + t;
+                    duration[op] = instance.duration(j, t);
+                    machine[op] = instance.machine(j, t);
+                    rem += duration[op];
+                    remaining[op] = rem;
+                }
+            }
+            this.nextTask = new int[instance.numJobs];
+            this.jobReady = new int[instance.numJobs];
+            this.machineReady = new int[instance.numMachines];
+            this.start = new int[numOps];
+            this.conflict = new int[instance.numJobs];
+        }
+
+        /** Builds a new schedule, whose start times are stored in the engine until the next construction.
+         *
+         * @return The makespan of the constructed schedule.
+         */
+        public int construct(GreedySolver.Priority priority, Mode mode, double noise, Random random) {
+            final int numJobs = instance.numJobs;
+            final int numTasks = instance.numTasks;
+            Arrays.fill(nextTask, 0);
+            Arrays.fill(jobReady, 0);
+            Arrays.fill(machineReady, 0);
+            int makespan = 0;
+
+            for (int step = numJobs * numTasks; step > 0; step--) {
+                // find the minimal earliest completion time (active) or earliest start time (non-delay)
+                int bestTime = Integer.MAX_VALUE;
+                int bestMachine = -1;
+                for (int j = 0; j < numJobs; j++) {
+                    if (nextTask[j] == numTasks)
+                        continue;
+                    int op = j * numTasks + nextTask[j];
+                    int est = Math.max(jobReady[j], machineReady[machine[op]]);
+                    int time = mode == Mode.ACTIVE ? est + duration[op] : est;
+                    if (time < bestTime) {
+                        bestTime = time;
+                        bestMachine = machine[op];
+                    }
+                }
+
+                // gather the conflict set on the selected machine
+                int size = 0;
+                int minStart = Integer.MAX_VALUE;
+                for (int j = 0; j < numJobs; j++) {
+                    if (nextTask[j] == numTasks)
+                        continue;
+                    int op = j * numTasks + nextTask[j];
+                    if (machine[op] != bestMachine)
+                        continue;
+                    int est = Math.max(jobReady[j], machineReady[bestMachine]);
+                    // in active mode, the task completing first is also in the conflict set (even with a null duration)
+                    boolean inConflict = mode == Mode.ACTIVE ? est < bestTime || est + duration[op] == bestTime
+                                                             : est == bestTime;
+                    if (inConflict) {
+                        conflict[size++] = j;
+                        minStart = Math.min(minStart, est);
+                    }
+                }
+
+                int job;
+                if (noise > 0 && random.nextDouble() < noise) {
+                    job = conflict[random.nextInt(size)];
+                } else {
+                    job = select(priority, size, minStart, random);
+                }
+
+                int op = job * numTasks + nextTask[job];
+                int est = Math.max(jobReady[job], machineReady[bestMachine]);
+                start[op] = est;
+                jobReady[job] = est + duration[op];
+                machineReady[bestMachine] = est + duration[op];
+                nextTask[job]++;
+                makespan = Math.max(makespan, est + duration[op]);
+            }
+            return makespan;
+        }
+
+        /** Selects a job of the conflict set according to the priority, breaking ties at random. */
+        private int select(GreedySolver.Priority priority, int size, int minStart, Random random) {
+            final int numTasks = instance.numTasks;
+            final boolean estFirst = priority.name().startsWith("EST_");
+            int selected = -1;
+            int bestValue = 0;
+            int ties = 0;
+            for (int i = 0; i < size; i++) {
+                int j = conflict[i];
+                int op = j * numTasks + nextTask[j];
+                int est = Math.max(jobReady[j], machineReady[machine[op]]);
+                // with an EST priority, only tasks that can start the earliest are considered
+                if (estFirst && est != minStart)
+                    continue;
+                int value;
+                switch (priority) {
+                    case SPT: case EST_SPT: value = -duration[op]; break;
+                    case LPT: case EST_LPT: value = duration[op]; break;
+                    case SRPT: case EST_SRPT: value = -remaining[op]; break;
+                    case LRPT: case EST_LRPT: value = remaining[op]; break;
+                    default: throw new RuntimeException("Unknown priority: " + priority);
+                }
+                if (selected == -1 || value > bestValue) {
+                    selected = j;
+                    bestValue = value;
+                    ties = 1;
+                } else if (value == bestValue && random.nextInt(++ties) == 0) {
+                    // reservoir sampling among equivalent tasks
+                    selected = j;
+                }
+            }
+            return selected;
+        }
+
+        /** Start time of the given task in the last constructed schedule. */
+        public int startTime(int job, int task) {
+            return start[job * instance.numTasks + task];
+        }
+
+        /** Returns the last constructed schedule. */
+        public Schedule toSchedule() {
+            Schedule schedule = new Schedule(instance);
+            for (int j = 0; j < instance.numJobs; j++) {
+                for (int t = 0; t < instance.numTasks; t++) {
+                    schedule.setStartTime(j, t, start[j * instance.numTasks + t]);
+                }
+            }
+            return schedule;
+        }
+    }
+}
@@ -1,15 +1,17 @@
 package jobshop.solvers;
 
 import jobshop.Instance;
+import jobshop.LowerBound;
 import jobshop.encodings.ResourceOrder;
 import jobshop.encodings.Schedule;
 import jobshop.encodings.Task;
+import jobshop.events.SolverEvents;
 import jobshop.solvers.neighborhood.Nowicki;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.lang.Math;
+import java.util.Random;
 
 /** An empty shell to implement a greedy solver. */
 public class GreedySolver implements Solver {
@@ -22,17 +24,23 @@ public class GreedySolver implements Solver {
     /** Priority that the solver should use. */
     final Priority priority;
     private final boolean random;
-    private int n_iter;
-    private final ArrayList<Schedule> solutions;
+    private final int n_iter;
+    /** Source of randomness, when random is true. */
+    private final Random generator;
 
 
     /** Creates a new greedy solver that will use the given priority. */
     public GreedySolver(Priority p, boolean random, int n_iter) {
+        this(p, random, n_iter, new Random());
+    }
+
+    /** Creates a new greedy solver that will use the given priority and source of randomness. */
+    public GreedySolver(Priority p, boolean random, int n_iter, Random generator) {
 
         this.priority = p;
         this.n_iter = n_iter;
         this.random = random;
-        this.solutions = new ArrayList<>();
+        this.generator = generator;
 
     }
 
@@ -129,7 +137,47 @@ public class GreedySolver implements Solver {
     }
 
 
-    public Optional<Schedule> solve(Instance instance, long deadline, int maxIter) {
+    public Optional<Schedule> solve(Instance instance, SolveBudget budget) {
+
+        Optional<Schedule> best = this.construct(instance, 0);
+
+        // Only one test to do
+        if (!random) {
+            return best;
+        }
+
+        // We must do more tests and keep the best outcome.
+        // There is no need to go on once a solution reaches the lower bound: it is optimal.
+        int lowerBound = LowerBound.of(instance);
+        for (int i = 0; i < n_iter && best.isPresent() && best.get().makespan() > lowerBound && !budget.exhausted(); i++) {
+            Optional<Schedule> s = this.construct(instance, i + 1);
+            if (s.isPresent() && s.get().makespan() < best.get().makespan()) {
+                best = s;
+            }
+        }
+        return best;
+    }
+
+    /** Builds a single solution, recording a Construction event.
+     *
+     * @param number Number of the construction among the restarts of the solver.
+     */
+    private Optional<Schedule> construct(Instance instance, int number) {
+        SolverEvents.Construction event = new SolverEvents.Construction();
+        event.begin();
+        Optional<Schedule> schedule = construct(instance);
+        if (event.shouldCommit()) {
+            event.instance = instance.name;
+            event.iteration = number;
+            event.makespan = schedule.isPresent() ? schedule.get().makespan() : -1;
+            event.heuristic = priority.name();
+            event.commit();
+        }
+        return schedule;
+    }
+
+    /** Builds a single solution with the priority of the solver (and some randomness if enabled). */
+    private Optional<Schedule> construct(Instance instance) {
 
         int index;
         Task highest_prio;
@@ -147,7 +195,7 @@ public class GreedySolver implements Solver {
             ArrayList<Task> possible_tasks = new ArrayList<>();
 
             highest_prio = null;
-            index = (int)(Math.random() * 100);
+            index = generator.nextInt(100);
 
             if (this.random && index > 95) {
                 // WITH RANDOM
@@ -156,7 +204,7 @@ public class GreedySolver implements Solver {
                         possible_tasks.add(t);
                     }
                 }
-                index = (int)(Math.random() * (possible_tasks.size()));
+                index = generator.nextInt(possible_tasks.size());
                 highest_prio = possible_tasks.get(index);
             }
 
@@ -193,31 +241,7 @@ public class GreedySolver implements Solver {
         //System.out.println(n.neighbors(blocks.get(0)));
 
 
-        // We must do more tests
-        if (random && n_iter > 0) {
-            assert sol.toSchedule().isPresent();
-            this.solutions.add(sol.toSchedule().get());
-            n_iter--;
-            return this.solve(instance, deadline, maxIter);
-
-        }
-        // We did every test, we need to choose the best outcome
-        else if (random) {
-            int min = Integer.MAX_VALUE;
-            Schedule best = null;
-            for (Schedule s : this.solutions) {
-                int m = s.makespan();
-                if (m < min) {
-                    min = m;
-                    best = s;
-                }
-            }
-            return Optional.ofNullable(best);
-        }
-        // Only one test to do
-        else {
-            // Convert the resource order into a schedule and return it
-            return sol.toSchedule();
-        }
+        // Convert the resource order into a schedule and return it
+        return sol.toSchedule();
     }
 }
\ No newline at end of file
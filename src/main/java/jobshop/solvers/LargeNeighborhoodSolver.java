@@ -0,0 +1,283 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+
+/** Large neighborhood search on the machine sequences of a solution.
+ *
+ * At each iteration, a part of the current solution is relaxed, either:
+ *  - all tasks starting in a random time window, or
+ *  - all tasks of a random subset of machines.
+ * The relative order of all other tasks on their machine is kept, and a new solution is rebuilt with a randomized
+ * Giffler-Thompson scheme in which relaxed tasks can be placed anywhere on their machine. The new solution replaces
+ * the current one if it is not worse.
+ *
+ * The number of relaxed tasks is bounded by a parameter, and each rebuild is a single list scheduling pass,
+ * so that every iteration does a bounded amount of work even on the largest instances.
+ */
+public class LargeNeighborhoodSolver implements Solver {
+
+    /** Solver providing the initial solution. */
+    final Solver baseSolver;
+
+    /** Average number of tasks relaxed at each iteration. */
+    final int relaxedTasks;
+
+    /** Probability of selecting a random task in the conflict set when rebuilding (instead of the earliest one). */
+    final double noise;
+
+    /** Source of randomness. */
+    final Random random;
+
+    /** Creates a new LNS solver.
+     *
+     * @param baseSolver Solver providing the initial solution.
+     * @param relaxedTasks Average number of tasks whose order is relaxed at each iteration.
+     * @param noise Probability of choosing a random task of the conflict set when rebuilding.
+     * @param random Source of randomness.
+     */
+    public LargeNeighborhoodSolver(Solver baseSolver, int relaxedTasks, double noise, Random random) {
+        this.baseSolver = baseSolver;
+        this.relaxedTasks = relaxedTasks;
+        this.noise = noise;
+        this.random = random;
+    }
+
+    @Override
+    public Optional<Schedule> solve(Instance instance, SolveBudget budget) {
+        Optional<Schedule> initial = baseSolver.solve(instance, budget);
+        if (initial.isEmpty())
+            return initial;
+
+        Rebuilder current = new Rebuilder(instance);
+        current.load(new ResourceOrder(initial.get()), initial.get());
+        Rebuilder candidate = new Rebuilder(instance);
+
+        Schedule best = initial.get();
+        int bestMakespan = best.makespan();
+        int currentMakespan = bestMakespan;
+        int lowerBound = LowerBound.of(instance);
+
+        while (bestMakespan > lowerBound && !budget.exhausted()) {
+            current.relax(relaxedTasks, currentMakespan, random);
+            int makespan = candidate.rebuildFrom(current, noise, random);
+            // each rebuild evaluates one neighbor of the current solution
+            budget.evaluated(1);
+            if (makespan <= currentMakespan) {
+                // accept the candidate: swap the roles of the two rebuilders
+                Rebuilder tmp = current;
+                current = candidate;
+                candidate = tmp;
+                currentMakespan = makespan;
+                if (makespan < bestMakespan) {
+                    bestMakespan = makespan;
+                    best = current.toSchedule();
+                }
+            }
+        }
+        return Optional.of(best);
+    }
+
+    /** Machine sequences and start times of a solution, with the machinery to rebuild a partially relaxed copy. */
+    static final class Rebuilder {
+        final Instance instance;
+        final int numJobs;
+        final int numTasks;
+        final int numMachines;
+
+        /** sequence[m][i] is the job of the i-th task on machine m. */
+        final int[][] sequence;
+
+        /** Start time of each task, indexed by job * numTasks + task */
+        final int[] start;
+
+        /** Whether each task is relaxed (indexed by job * numTasks + task) */
+        final boolean[] relaxed;
+
+        /** Relaxed tasks can only be placed after the non relaxed tasks that start before this time. */
+        int windowStart;
+
+        /** taskOnMachine[j][m] is the task number of job j that executes on machine m. */
+        private final int[][] taskOnMachine;
+
+        /** Working memory for the rebuild: non relaxed jobs of each machine, in the order of the source solution. */
+        private final int[][] fixedSequence;
+        private final int[] fixedSize;
+        private final int[] fixedNext;
+        private final int[] prefixSize;
+        private final int[] nextTask;
+        private final int[] jobReady;
+        private final int[] machineReady;
+        private final int[] machineSize;
+        private final int[] conflict;
+
+        Rebuilder(Instance instance) {
+            this.instance = instance;
+            this.numJobs = instance.numJobs;
+            this.numTasks = instance.numTasks;
+            this.numMachines = instance.numMachines;
+            this.sequence = new int[numMachines][numJobs];
+            this.start = new int[numJobs * numTasks];
+            this.relaxed = new boolean[numJobs * numTasks];
+            this.taskOnMachine = new int[numJobs][numMachines];
+            for (int j = 0; j < numJobs; j++) {
+                for (int t = 0; t < numTasks; t++) {
+                    taskOnMachine[j][instance.machine(j, t)] = t;
+                }
+            }
+            this.fixedSequence = new int[numMachines][numJobs];
+            this.fixedSize = new int[numMachines];
+            this.fixedNext = new int[numMachines];
+            this.prefixSize = new int[numMachines];
+            this.nextTask = new int[numJobs];
+            this.jobReady = new int[numJobs];
+            this.machineReady = new int[numMachines];
+            this.machineSize = new int[numMachines];
+            this.conflict = new int[numJobs];
+        }
+
+        /** Initializes the sequences and start times from a solution. */
+        void load(ResourceOrder order, Schedule schedule) {
+            for (int m = 0; m < numMachines; m++) {
+                for (int i = 0; i < numJobs; i++) {
+                    sequence[m][i] = order.getTaskOfMachine(m, i).job;
+                }
+            }
+            for (int j = 0; j < numJobs; j++) {
+                for (int t = 0; t < numTasks; t++) {
+                    start[j * numTasks + t] = schedule.startTime(j, t);
+                }
+            }
+        }
+
+        /** Selects the tasks to relax: a time window or a subset of machines, with about relaxedTasks tasks. */
+        void relax(int relaxedTasks, int makespan, Random random) {
+            Arrays.fill(relaxed, false);
+            int numOps = numJobs * numTasks;
+            if (random.nextBoolean()) {
+                // time window whose width is chosen so that it contains relaxedTasks tasks on average
+                long width = Math.max(1, (long) makespan * relaxedTasks / numOps);
+                int from = random.nextInt(Math.max(1, makespan - (int) width + 1));
+                windowStart = from;
+                for (int op = 0; op < numOps; op++) {
+                    relaxed[op] = start[op] >= from && start[op] < from + width;
+                }
+            } else {
+                // subset of machines, whose tasks can be placed anywhere
+                windowStart = 0;
+                int numRelaxed = Math.max(1, Math.min(numMachines, relaxedTasks / numJobs));
+                for (int k = 0; k < numRelaxed; k++) {
+                    int machine = random.nextInt(numMachines);
+                    for (int j = 0; j < numJobs; j++) {
+                        relaxed[j * numTasks + taskOnMachine[j][machine]] = true;
+                    }
+                }
+            }
+        }
+
+        /** Rebuilds this solution from the relaxed solution of another rebuilder.
+         *  Non relaxed tasks keep their relative order on each machine, and tasks are otherwise selected in the order
+         *  of their start time in the source solution, unless a random task is selected (with probability noise).
+         *
+         * @return The makespan of the new solution.
+         */
+        int rebuildFrom(Rebuilder source, double noise, Random random) {
+            for (int m = 0; m < numMachines; m++) {
+                fixedSize[m] = 0;
+                prefixSize[m] = 0;
+                for (int job : source.sequence[m]) {
+                    int op = job * numTasks + taskOnMachine[job][m];
+                    if (!source.relaxed[op]) {
+                        fixedSequence[m][fixedSize[m]++] = job;
+                        if (source.start[op] < source.windowStart)
+                            prefixSize[m] = fixedSize[m];
+                    }
+                }
+            }
+            Arrays.fill(fixedNext, 0);
+            Arrays.fill(nextTask, 0);
+            Arrays.fill(jobReady, 0);
+            Arrays.fill(machineReady, 0);
+            Arrays.fill(machineSize, 0);
+            int makespan = 0;
+
+            for (int step = numJobs * numTasks; step > 0; step--) {
+                // earliest completion time among schedulable tasks
+                int bestEnd = Integer.MAX_VALUE;
+                int bestMachine = -1;
+                for (int j = 0; j < numJobs; j++) {
+                    if (isSchedulable(source, j)) {
+                        int m = instance.machine(j, nextTask[j]);
+                        int end = Math.max(jobReady[j], machineReady[m]) + instance.duration(j, nextTask[j]);
+                        if (end < bestEnd) {
+                            bestEnd = end;
+                            bestMachine = m;
+                        }
+                    }
+                }
+
+                // conflict set on this machine: task starting first in the source solution, or a random one
+                int size = 0;
+                int selected = -1;
+                int selectedStart = Integer.MAX_VALUE;
+                for (int j = 0; j < numJobs; j++) {
+                    if (!isSchedulable(source, j) || instance.machine(j, nextTask[j]) != bestMachine)
+                        continue;
+                    int est = Math.max(jobReady[j], machineReady[bestMachine]);
+                    if (est < bestEnd || est + instance.duration(j, nextTask[j]) == bestEnd) {
+                        conflict[size++] = j;
+                        int sourceStart = source.start[j * numTasks + nextTask[j]];
+                        if (sourceStart < selectedStart) {
+                            selectedStart = sourceStart;
+                            selected = j;
+                        }
+                    }
+                }
+                if (noise > 0 && random.nextDouble() < noise)
+                    selected = conflict[random.nextInt(size)];
+
+                int op = selected * numTasks + nextTask[selected];
+                int est = Math.max(jobReady[selected], machineReady[bestMachine]);
+                start[op] = est;
+                jobReady[selected] = est + instance.duration(selected, nextTask[selected]);
+                machineReady[bestMachine] = jobReady[selected];
+                makespan = Math.max(makespan, jobReady[selected]);
+                sequence[bestMachine][machineSize[bestMachine]++] = selected;
+                if (!source.relaxed[op]) {
+                    fixedNext[bestMachine]++;
+                }
+                nextTask[selected]++;
+            }
+            return makespan;
+        }
+
+        /** Returns true if the next task of the job can be scheduled: it is relaxed and all tasks before the relaxed
+         *  window on its machine are scheduled, or it is the next non relaxed task on its machine in the source solution. */
+        private boolean isSchedulable(Rebuilder source, int job) {
+            if (nextTask[job] == numTasks)
+                return false;
+            int op = job * numTasks + nextTask[job];
+            int m = instance.machine(job, nextTask[job]);
+            if (source.relaxed[op])
+                return fixedNext[m] >= prefixSize[m];
+            return fixedNext[m] < fixedSize[m] && fixedSequence[m][fixedNext[m]] == job;
+        }
+
+        /** Schedule of the current solution. */
+        Schedule toSchedule() {
+            Schedule schedule = new Schedule(instance);
+            for (int j = 0; j < numJobs; j++) {
+                for (int t = 0; t < numTasks; t++) {
+                    schedule.setStartTime(j, t, start[j * numTasks + t]);
+                }
+            }
+            return schedule;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package jobshop.solvers;
+
+import jobshop.encodings.ResourceOrder;
+import jobshop.solvers.neighborhood.BatchEvaluator;
+import jobshop.solvers.neighborhood.Nowicki;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/** Path relinking between two solutions: the initiating solution is transformed step by step into the guiding one,
+ *  to find good solutions between them, that combine the orders of both.
+ *
+ * Each step swaps two consecutive tasks of a machine that are in the other order in the guiding solution, which
+ * decreases the distance between the two solutions by one. Swaps of critical blocks are preferred, as the others
+ * cannot improve the makespan, and the best of them is chosen, all candidates being evaluated together. As in the
+ * i-TSAB algorithm of Nowicki and Smutnicki, the walk stops halfway, and the best solution found after a quarter of
+ * the distance is returned, so that it is neither too close to the initiating solution nor to the guiding one.
+ */
+public final class PathRelinking {
+
+    /** Maximal number of steps of a path. */
+    static final int MAX_STEPS = 1000;
+
+    private final Nowicki neighborhood;
+
+    /** Creates a path relinking that uses the given neighborhood to find the critical swaps. */
+    public PathRelinking(Nowicki neighborhood) {
+        this.neighborhood = neighborhood;
+    }
+
+    /** Relinks two solutions, that are not modified.
+     *
+     * @return The best solution of the second quarter of the path, if the walk reached it.
+     */
+    public Optional<ResourceOrder> relink(ResourceOrder from, ResourceOrder to) {
+        return relink(from, to, SolveBudget.unlimited());
+    }
+
+    /** Relinks two solutions, that are not modified, recording the evaluated candidates in the budget. The walk
+     *  stops early when the budget is exhausted.
+     *
+     * @return The best solution of the second quarter of the path, if the walk reached it.
+     */
+    public Optional<ResourceOrder> relink(ResourceOrder from, ResourceOrder to, SolveBudget budget) {
+        int[][] guide = ElitePool.positions(to);
+        ResourceOrder current = from.copy();
+        int total = ElitePool.distance(ElitePool.positions(from), guide);
+        int distance = total;
+
+        ResourceOrder best = null;
+        int bestMakespan = ResourceOrder.INFEASIBLE;
+        for (int step = 1; distance > total / 2 && step <= MAX_STEPS && !budget.exhausted(); step++) {
+            List<Nowicki.Swap> candidates = new ArrayList<>();
+            for (Nowicki.Swap swap : neighborhood.allSwaps(current)) {
+                if (towardGuide(current, swap, guide))
+                    candidates.add(swap);
+            }
+            if (candidates.isEmpty()) {
+                // no critical swap goes toward the guiding solution, any swap that does is taken
+                for (int m = 0; m < current.instance.numMachines && candidates.size() < BatchEvaluator.DEFAULT_LANES; m++) {
+                    for (int p = 0; p + 1 < current.instance.numJobs && candidates.size() < BatchEvaluator.DEFAULT_LANES; p++) {
+                        Nowicki.Swap swap = new Nowicki.Swap(m, p, p + 1);
+                        if (towardGuide(current, swap, guide))
+                            candidates.add(swap);
+                    }
+                }
+            }
+            int[] makespans = neighborhood.makespans(current, candidates);
+            budget.evaluated(candidates.size());
+            int selected = -1;
+            for (int i = 0; i < candidates.size(); i++) {
+                if (makespans[i] != ResourceOrder.INFEASIBLE && (selected < 0 || makespans[i] < makespans[selected]))
+                    selected = i;
+            }
+            if (selected < 0)
+                break;
+            candidates.get(selected).apply(current);
+            distance--;
+            if (step >= total / 4 && makespans[selected] < bestMakespan) {
+                bestMakespan = makespans[selected];
+                best = current.copy();
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /** True if the swap puts the two tasks in the order of the guiding solution. */
+    private static boolean towardGuide(ResourceOrder current, Nowicki.Swap swap, int[][] guide) {
+        int first = current.getTaskOfMachine(swap.machine, swap.t1).job;
+        int second = current.getTaskOfMachine(swap.machine, swap.t2).job;
+        return guide[swap.machine][second] < guide[swap.machine][first];
+    }
+}
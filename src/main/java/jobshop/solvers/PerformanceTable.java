@@ -0,0 +1,202 @@
+package jobshop.solvers;
+
+import jobshop.InstanceFeatures;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Set;
+
+/** Results of past runs of solvers, described by the features of the instance, the time given to the solver and
+ *  the gap of the makespan found to the lower bound, used to predict how a solver will perform on a new instance.
+ *
+ * The table is kept in a CSV file, to which each new result is appended, so that it grows with every run, or only
+ * in memory.
+ * As gaps mostly depend on the difficulty of the instance, solvers are compared by their regret: the difference
+ * between their gap and the best gap recorded on the same instance with a similar time. The regret of a solver on
+ * a new instance is predicted from its regrets in the most similar runs.
+ */
+public final class PerformanceTable {
+
+    /** File of the table learned by the main program (option --learn). */
+    public static final Path DEFAULT_FILE = Paths.get("portfolio.csv");
+
+    static final String HEADER = "instance,ratio,duration_variation,load_imbalance,lb_gap,solver,time_ms,gap";
+
+    /** Number of runs from which a gap is predicted. */
+    static final int NEIGHBORS = 5;
+
+    /** Weight of the time given to the solvers in the distance between runs: running for 10 times longer is as
+     *  different as going from a square instance to one with twice more jobs than machines. */
+    static final double TIME_WEIGHT = 1;
+
+    /** Result of a run of a solver. */
+    public static final class Record {
+        public final String instance;
+        public final InstanceFeatures features;
+        public final String solver;
+        /** Time given to the solver, in milliseconds. */
+        public final long timeMs;
+        /** Relative distance between the makespan found and the lower bound of the instance. */
+        public final double gap;
+
+        public Record(String instance, InstanceFeatures features, String solver, long timeMs, double gap) {
+            this.instance = instance;
+            this.features = features;
+            this.solver = solver;
+            this.timeMs = timeMs;
+            this.gap = gap;
+        }
+
+        /** Distance between this run and a run of the given duration on an instance with the given features. */
+        double distance(InstanceFeatures features, long timeMs) {
+            double dt = TIME_WEIGHT * Math.log10(Math.max(1, this.timeMs) / (double) Math.max(1, timeMs));
+            double df = this.features.distance(features);
+            return Math.sqrt(df * df + dt * dt);
+        }
+
+        String toCsv() {
+            return String.format(Locale.ROOT, "%s,%.4f,%.4f,%.4f,%.4f,%s,%d,%.5f", instance, features.ratio,
+                    features.durationVariation, features.loadImbalance, features.lowerBoundGap, solver, timeMs, gap);
+        }
+
+        static Record fromCsv(String line) {
+            String[] fields = line.split(",");
+            if (fields.length != 8)
+                throw new RuntimeException("Malformed line: " + line);
+            InstanceFeatures features = new InstanceFeatures(Double.parseDouble(fields[1]),
+                    Double.parseDouble(fields[2]), Double.parseDouble(fields[3]), Double.parseDouble(fields[4]));
+            return new Record(fields[0], features, fields[5], Long.parseLong(fields[6]), Double.parseDouble(fields[7]));
+        }
+    }
+
+    /** File in which results are stored, or null for a table that is only kept in memory. */
+    private final Path file;
+
+    private final List<Record> records = new ArrayList<>();
+
+    /** Opens the table stored in the given file, which is created by the first record if it does not exist.
+     *  Malformed lines are ignored. */
+    public PerformanceTable(Path file) {
+        this(file, file);
+    }
+
+    private PerformanceTable(Path source, Path file) {
+        this.file = file;
+        if (source != null && Files.isRegularFile(source)) {
+            try {
+                for (String line : Files.readAllLines(source, StandardCharsets.UTF_8)) {
+                    if (line.isBlank() || line.equals(HEADER))
+                        continue;
+                    try {
+                        records.add(Record.fromCsv(line));
+                    } catch (RuntimeException e) {
+                        // e.g. a line truncated by an interrupted run
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read the performance table " + source, e);
+            }
+        }
+    }
+
+    /** Creates a table that is not stored. */
+    public static PerformanceTable inMemory() {
+        return new PerformanceTable(null);
+    }
+
+    /** Creates a table that starts with the results stored in the given file, if it exists, but is not stored. */
+    public static PerformanceTable readOnly(Path file) {
+        return new PerformanceTable(file, null);
+    }
+
+    /** Adds the result of a run to the table, and appends it to its file. */
+    public synchronized void record(Record record) {
+        records.add(record);
+        if (file == null)
+            return;
+        try {
+            String line = record.toCsv() + "\n";
+            if (!Files.exists(file))
+                line = HEADER + "\n" + line;
+            else if (!endsWithNewline(file))
+                line = "\n" + line; // ends the line truncated by an interrupted run, which is then ignored
+            Files.write(file, line.getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write the performance table " + file, e);
+        }
+    }
+
+    private static boolean endsWithNewline(Path file) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(file, StandardOpenOption.READ)) {
+            if (channel.size() == 0)
+                return true;
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.position(channel.size() - 1).read(last);
+            return last.get(0) == '\n';
+        }
+    }
+
+    /** All results, in the order in which they were recorded. */
+    public synchronized List<Record> records() {
+        return Collections.unmodifiableList(new ArrayList<>(records));
+    }
+
+    /** Predicts the regret of a solver on an instance with the given features in the given time: average of its
+     *  regrets in the nearest runs, weighted by the inverse of their distance.
+     *
+     * The regret of a run is only measured against runs of other solvers on the same instance that were given a
+     * similar time (see timeBucket), so that a solver is not charged for having been given less time. Runs that
+     * no other solver can be compared with have no regret, and are ignored.
+     *
+     * @return Nothing if the solver never ran, or never ran in conditions comparable to another solver.
+     */
+    public synchronized OptionalDouble predictRegret(String solver, InstanceFeatures features, long timeMs) {
+        Map<String, Double> bestGaps = new HashMap<>();
+        Map<String, Set<String>> solvers = new HashMap<>();
+        for (Record r : records) {
+            bestGaps.merge(comparableKey(r), r.gap, Math::min);
+            solvers.computeIfAbsent(comparableKey(r), key -> new HashSet<>()).add(r.solver);
+        }
+        Record[] runs = records.stream()
+                .filter(r -> r.solver.equals(solver) && solvers.get(comparableKey(r)).size() > 1)
+                .toArray(Record[]::new);
+        if (runs.length == 0)
+            return OptionalDouble.empty();
+        Arrays.sort(runs, Comparator.comparingDouble(r -> r.distance(features, timeMs)));
+        double weights = 0;
+        double sum = 0;
+        for (int i = 0; i < Math.min(NEIGHBORS, runs.length); i++) {
+            double weight = 1 / (runs[i].distance(features, timeMs) + 1e-3);
+            weights += weight;
+            sum += weight * (runs[i].gap - bestGaps.get(comparableKey(runs[i])));
+        }
+        return OptionalDouble.of(sum / weights);
+    }
+
+    /** Runs whose times are in the same bucket are compared with each other: a bucket spans a factor of 2. */
+    static int timeBucket(long timeMs) {
+        return 63 - Long.numberOfLeadingZeros(Math.max(1, timeMs));
+    }
+
+    /** Runs with the same key are on the same instance with a similar time. */
+    private static String comparableKey(Record record) {
+        return record.instance + "/" + timeBucket(record.timeMs);
+    }
+}
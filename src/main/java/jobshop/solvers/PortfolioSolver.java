@@ -0,0 +1,197 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.InstanceFeatures;
+import jobshop.LowerBound;
+import jobshop.SolutionArchive;
+import jobshop.encodings.Schedule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Random;
+
+/** Solver that chooses, for each instance, which solvers to run and for how long.
+ *
+ * The features of the instance (see InstanceFeatures) are compared to those of past runs in a PerformanceTable,
+ * to predict how far each candidate solver is from the best one (its regret). The time is then either given entirely
+ * to the solver with the best prediction (SELECT), or split between the solvers whose predictions are close to the
+ * best one, in proportion of their predicted quality (SPLIT). The limits on CPU time and evaluations of the budget
+ * are split in the same way. Candidates that never ran are given a share of the time in SPLIT mode, so that the
+ * table eventually covers all of them. The result of each solver is recorded in the table, so that the predictions
+ * improve with each run.
+ */
+public class PortfolioSolver implements Solver {
+
+    /** How the time is allocated to the candidates. */
+    public enum Mode {
+        /** All the time is given to the solver with the best prediction. */
+        SELECT,
+        /** The time is split between the best solvers and the ones that never ran. */
+        SPLIT
+    }
+
+    /** Solvers among which the "portfolio" solver chooses. */
+    public static final List<String> DEFAULT_CANDIDATES = List.of(
+            "taboo_sb", "taboo_est_lrpt", "descent_restart", "lns", "lns_gt");
+
+    /** Maximal number of solvers run on an instance. */
+    static final int MAX_SOLVERS = 3;
+
+    /** Solvers whose predicted regret is within this distance of the best one share the time in SPLIT mode. */
+    static final double SPLIT_MARGIN = 0.02;
+
+    /** Share of the time given to a solver. */
+    public static final class Allocation {
+        public final String solver;
+        /** Fraction of the total time, the shares of all solvers summing to 1. */
+        public final double share;
+
+        Allocation(String solver, double share) {
+            this.solver = solver;
+            this.share = share;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s:%.0f%%", solver, 100 * share);
+        }
+    }
+
+    final List<String> candidates;
+    final PerformanceTable table;
+    final Mode mode;
+    final Random seeds;
+    final SolutionArchive archive;
+
+    /** Allocation of the last call to solve. */
+    private List<Allocation> lastAllocation = List.of();
+
+    /** Creates a portfolio of solvers.
+     *
+     * @param candidates Names of the solvers (as given to Solver.getSolver) among which to choose.
+     * @param table Results of past runs, in which the results of this solver are recorded.
+     * @param mode How the time is allocated to the candidates.
+     * @param seed Seed from which the seeds of the solvers are drawn.
+     * @param archive Archive given to the solvers (may be null).
+     */
+    public PortfolioSolver(List<String> candidates, PerformanceTable table, Mode mode, long seed, SolutionArchive archive) {
+        if (candidates.isEmpty())
+            throw new RuntimeException("A portfolio needs at least one solver");
+        this.candidates = List.copyOf(candidates);
+        this.table = table;
+        this.mode = mode;
+        this.seeds = new Random(seed);
+        this.archive = archive;
+    }
+
+    /** Chooses the solvers to run on an instance with the given features, in the order in which to run them. */
+    public List<Allocation> allocate(InstanceFeatures features, long timeMs) {
+        List<String> tried = new ArrayList<>();
+        List<String> untried = new ArrayList<>();
+        List<Double> regrets = new ArrayList<>();
+        for (String candidate : candidates) {
+            OptionalDouble regret = table.predictRegret(candidate, features, timeMs);
+            if (regret.isPresent()) {
+                tried.add(candidate);
+                regrets.add(regret.getAsDouble());
+            } else {
+                untried.add(candidate);
+            }
+        }
+        if (tried.isEmpty()) {
+            // nothing is known, all solvers get the same time
+            List<Allocation> allocation = new ArrayList<>();
+            int count = Math.min(MAX_SOLVERS, untried.size());
+            for (int i = 0; i < count; i++)
+                allocation.add(new Allocation(untried.get(i), 1.0 / count));
+            return allocation;
+        }
+
+        List<Integer> ranking = new ArrayList<>();
+        for (int i = 0; i < tried.size(); i++)
+            ranking.add(i);
+        ranking.sort(Comparator.comparingDouble(regrets::get));
+        double best = regrets.get(ranking.get(0));
+        if (mode == Mode.SELECT)
+            return List.of(new Allocation(tried.get(ranking.get(0)), 1));
+
+        // the weight of a solver is the inverse of its predicted regret, solvers that never ran get half of the best one
+        List<String> chosen = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        for (int i : ranking) {
+            if (chosen.size() == MAX_SOLVERS || regrets.get(i) > best + SPLIT_MARGIN)
+                break;
+            chosen.add(tried.get(i));
+            weights.add(1 / (regrets.get(i) + 0.01));
+        }
+        double bestWeight = weights.get(0);
+        for (String candidate : untried) {
+            if (chosen.size() == MAX_SOLVERS)
+                break;
+            chosen.add(candidate);
+            weights.add(bestWeight / 2);
+        }
+        double total = weights.stream().mapToDouble(Double::doubleValue).sum();
+        List<Allocation> allocation = new ArrayList<>();
+        for (int i = 0; i < chosen.size(); i++)
+            allocation.add(new Allocation(chosen.get(i), weights.get(i) / total));
+        return allocation;
+    }
+
+    @Override
+    public Optional<Schedule> solve(Instance instance, SolveBudget budget) {
+        long start = System.currentTimeMillis();
+        long deadline = budget.deadline();
+        long timeMs = deadline == SolveBudget.UNLIMITED ? Long.MAX_VALUE : Math.max(1, deadline - start);
+        InstanceFeatures features = InstanceFeatures.of(instance);
+        int lowerBound = LowerBound.of(instance);
+        List<Allocation> allocation = allocate(features, timeMs);
+        lastAllocation = Collections.unmodifiableList(allocation);
+
+        Schedule best = null;
+        double elapsedShare = 0;
+        for (Allocation a : allocation) {
+            elapsedShare += a.share;
+            // time not used by a solver is given to the next ones
+            long solverDeadline = timeMs == Long.MAX_VALUE ? deadline
+                    : Math.min(deadline, start + Math.round(elapsedShare * timeMs));
+            // the CPU time and the evaluations are split in the same way
+            SolveBudget solverBudget = budget.withDeadline(solverDeadline);
+            if (budget.cpuTimeMs() != SolveBudget.UNLIMITED)
+                solverBudget = solverBudget.withCpuTime(Math.round(elapsedShare * budget.cpuTimeMs()));
+            if (budget.maxEvaluations() != SolveBudget.UNLIMITED)
+                solverBudget = solverBudget.withEvaluations(Math.round(elapsedShare * budget.maxEvaluations()));
+            // a solver whose share was used by the previous ones only runs if there is no solution yet
+            boolean funded = !solverBudget.exhausted();
+            if (!funded && best != null)
+                continue;
+            Solver solver = Solver.getSolver(a.solver, seeds.nextLong(), archive);
+            // the table records the time given to the solver, which may stop before its deadline
+            long solverStart = System.currentTimeMillis();
+            long solverTimeMs = timeMs == Long.MAX_VALUE ? timeMs : Math.max(1, solverDeadline - solverStart);
+            Optional<Schedule> result = solver.solve(instance, solverBudget);
+            if (result.isPresent() && result.get().isValid()) {
+                Schedule schedule = result.get();
+                double gap = lowerBound > 0 ? (schedule.makespan() - lowerBound) / (double) lowerBound : 0;
+                if (funded)
+                    table.record(new PerformanceTable.Record(instance.name, features, a.solver, solverTimeMs, gap));
+                if (best == null || schedule.makespan() < best.makespan())
+                    best = schedule;
+                if (schedule.makespan() == lowerBound)
+                    break;
+            }
+            if (budget.exhausted())
+                break;
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /** Solvers run by the last call to solve, with their share of the time. */
+    public List<Allocation> lastAllocation() {
+        return lastAllocation;
+    }
+}
@@ -0,0 +1,231 @@
+package jobshop.solvers;
+
+import jobshop.Disruption;
+import jobshop.Instance;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+import jobshop.encodings.Task;
+import jobshop.solvers.neighborhood.BatchEvaluator;
+import jobshop.solvers.neighborhood.Nowicki;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Incremental rescheduling of a schedule that is being executed, after a disruption (see Disruption).
+ *
+ * Instead of solving the modified instance from scratch, the current schedule is repaired:
+ *  - tasks that started before the time of the disruption keep their start time,
+ *  - the other tasks keep their order on each machine, but cannot start before the time of the disruption,
+ *  - the tasks of new jobs are inserted one by one, each at the position of its machine that minimizes the makespan,
+ * and the result is improved by a short taboo search whose moves (swaps of the Nowicki and Smutnicki neighborhood)
+ * only involve tasks that did not start yet.
+ */
+public class Rescheduler {
+
+    final int maxIter;
+    final int tabooSize;
+
+    /** Counters of the last call to reschedule. */
+    private final SearchStatistics statistics = new SearchStatistics();
+
+    /** Evaluator of the neighbors of the taboo search. */
+    private final BatchEvaluator batch = new BatchEvaluator();
+
+    /** Creates a new rescheduler.
+     *
+     * @param maxIter Maximum number of iterations of the taboo search.
+     * @param tabooSize Number of iterations during which a swap cannot be undone.
+     */
+    public Rescheduler(int maxIter, int tabooSize) {
+        this.maxIter = maxIter;
+        this.tabooSize = tabooSize;
+    }
+
+    /** Reschedules a resource order after a disruption. */
+    public Schedule reschedule(ResourceOrder current, Disruption disruption, long deadline) {
+        return reschedule(current.toSchedule().get(), disruption, deadline);
+    }
+
+    /** Reschedules a schedule after a disruption.
+     *
+     * @param current Schedule being executed.
+     * @param disruption Changes to take into account.
+     * @param deadline Absolute time (in milliseconds) at which the rescheduling should be done.
+     * @return A schedule of the instance modified by the disruption (new jobs are numbered after the existing ones).
+     */
+    public Schedule reschedule(Schedule current, Disruption disruption, long deadline) {
+        Instance previous = current.instance;
+        Instance instance = disruption.apply(previous);
+        int now = disruption.time();
+        int numTasks = instance.numTasks;
+
+        // tasks that started before the disruption are frozen
+        boolean[] frozen = new boolean[instance.numJobs * numTasks];
+        for (int j = 0; j < previous.numJobs; j++) {
+            for (int t = 0; t < numTasks; t++) {
+                if (current.startTime(j, t) >= now)
+                    continue;
+                if (current.endTime(j, t) <= now && instance.duration(j, t) != previous.duration(j, t))
+                    throw new RuntimeException("Task (" + j + ", " + t + ") is completed, its duration cannot change");
+                frozen[j * numTasks + t] = true;
+            }
+        }
+
+        // same order as the current schedule on each machine, with the frozen tasks first, then the new jobs
+        ResourceOrder previousOrder = new ResourceOrder(current);
+        ResourceOrder order = new ResourceOrder(instance);
+        int[] firstMovable = new int[instance.numMachines];
+        for (int m = 0; m < instance.numMachines; m++) {
+            for (int i = 0; i < previous.numJobs; i++) {
+                Task task = previousOrder.getTaskOfMachine(m, i);
+                order.addTaskToMachine(m, new Task(task.job, task.task));
+                if (frozen[task.job * numTasks + task.task])
+                    firstMovable[m] = i + 1;
+            }
+            for (int j = previous.numJobs; j < instance.numJobs; j++) {
+                order.addTaskToMachine(m, new Task(j, instance.task_with_machine(j, m)));
+            }
+        }
+        for (int j = 0; j < instance.numJobs; j++) {
+            for (int t = 0; t < numTasks; t++) {
+                order.setReleaseTime(j, t, frozen[j * numTasks + t] ? current.startTime(j, t) : now);
+            }
+        }
+
+        statistics.clear();
+        // local repair: insert each task of the new jobs at its best position
+        for (int j = previous.numJobs; j < instance.numJobs; j++) {
+            for (int t = 0; t < numTasks; t++) {
+                insertAtBestPosition(order, new Task(j, t), firstMovable[instance.machine(j, t)]);
+            }
+        }
+
+        return search(order, firstMovable, deadline).toSchedule().get();
+    }
+
+    /** Moves a task backward on its machine, down to the given position, and leaves it where the makespan is minimal
+     *  (the latest such position, to disturb the rest of the schedule as little as possible). */
+    private void insertAtBestPosition(ResourceOrder order, Task task, int firstMovable) {
+        int machine = order.instance.machine(task);
+        int position = order.getPositionForMachine(machine, task);
+        int bestPosition = position;
+        int bestMakespan = order.evaluate();
+        for (int p = position - 1; p >= firstMovable; p--) {
+            order.swapTasks(machine, p, p + 1);
+            statistics.evaluations++;
+            int makespan = order.evaluate();
+            if (makespan < bestMakespan) {
+                bestMakespan = makespan;
+                bestPosition = p;
+            }
+        }
+        for (int p = firstMovable; p < bestPosition; p++) {
+            order.swapTasks(machine, p, p + 1);
+        }
+    }
+
+    /** Taboo search on the tasks that are not frozen, starting from the given order. Returns the best order found. */
+    private ResourceOrder search(ResourceOrder current, int[] firstMovable, long deadline) {
+        int numJobs = current.instance.numJobs;
+        ResourceOrder best = current.copy();
+        int bestMakespan = current.evaluate();
+        int[][] tabooUntil = new int[current.instance.numMachines][numJobs * numJobs];
+
+        for (int iteration = 1; iteration <= maxIter && System.currentTimeMillis() < deadline; iteration++) {
+            statistics.iterations++;
+            Nowicki.Swap selected = null;
+            int makespan = Integer.MAX_VALUE;
+            List<Nowicki.Swap> swaps = movableSwaps(current, firstMovable);
+            int[] makespans = batch.makespans(current, swaps);
+            statistics.evaluations += swaps.size();
+            for (int i = 0; i < swaps.size(); i++) {
+                Nowicki.Swap swap = swaps.get(i);
+                int first = current.getTaskOfMachine(swap.machine, swap.t1).job;
+                int second = current.getTaskOfMachine(swap.machine, swap.t2).job;
+                int newMakespan = makespans[i];
+                boolean taboo = tabooUntil[swap.machine][second * numJobs + first] >= iteration;
+                // aspiration: a taboo neighbor is accepted if it improves on the best solution
+                if (newMakespan < makespan && (!taboo || newMakespan < bestMakespan)) {
+                    makespan = newMakespan;
+                    selected = swap;
+                }
+            }
+            if (selected == null)
+                break;
+            int first = current.getTaskOfMachine(selected.machine, selected.t1).job;
+            int second = current.getTaskOfMachine(selected.machine, selected.t2).job;
+            tabooUntil[selected.machine][first * numJobs + second] = iteration + tabooSize;
+            selected.apply(current);
+            if (makespan < bestMakespan) {
+                bestMakespan = makespan;
+                statistics.improvements++;
+                best = current.copy();
+            }
+        }
+        return best;
+    }
+
+    /** Swaps of the first and last two tasks of each block of a critical path, restricted to movable tasks.
+     *
+     * The critical path is built backward from the task that ends last, going from a task to the task of its job or
+     * of its machine that ends exactly when it starts, until a task that starts at its release time.
+     */
+    static List<Nowicki.Swap> movableSwaps(ResourceOrder order, int[] firstMovable) {
+        Instance instance = order.instance;
+        Schedule schedule = order.toSchedule().get();
+        int[] position = new int[instance.numJobs * instance.numTasks];
+        for (int m = 0; m < instance.numMachines; m++) {
+            for (int i = 0; i < instance.numJobs; i++) {
+                Task task = order.getTaskOfMachine(m, i);
+                position[task.job * instance.numTasks + task.task] = i;
+            }
+        }
+
+        // critical path, from the end
+        List<Task> path = new ArrayList<>();
+        Task current = null;
+        for (int j = 0; j < instance.numJobs; j++) {
+            Task last = new Task(j, instance.numTasks - 1);
+            if (current == null || schedule.endTime(last) > schedule.endTime(current))
+                current = last;
+        }
+        while (current != null) {
+            path.add(current);
+            int start = schedule.startTime(current);
+            int machine = instance.machine(current);
+            int pos = position[current.job * instance.numTasks + current.task];
+            Task predecessor = null;
+            if (current.task > 0 && schedule.endTime(current.job, current.task - 1) == start) {
+                predecessor = new Task(current.job, current.task - 1);
+            } else if (pos > 0 && schedule.endTime(order.getTaskOfMachine(machine, pos - 1)) == start) {
+                predecessor = order.getTaskOfMachine(machine, pos - 1);
+            }
+            current = predecessor;
+        }
+
+        // blocks of consecutive tasks on the same machine (the path is in reverse order)
+        List<Nowicki.Swap> swaps = new ArrayList<>();
+        int blockEnd = 0;
+        for (int i = 1; i <= path.size(); i++) {
+            int machine = instance.machine(path.get(i - 1));
+            if (i < path.size() && instance.machine(path.get(i)) == machine)
+                continue;
+            Task firstTask = path.get(i - 1);
+            Task lastTask = path.get(blockEnd);
+            int first = Math.max(position[firstTask.job * instance.numTasks + firstTask.task], firstMovable[machine]);
+            int last = position[lastTask.job * instance.numTasks + lastTask.task];
+            if (last - first >= 1) {
+                swaps.add(new Nowicki.Swap(machine, first, first + 1));
+                if (last - first >= 2)
+                    swaps.add(new Nowicki.Swap(machine, last - 1, last));
+            }
+            blockEnd = i;
+        }
+        return swaps;
+    }
+
+    /** Statistics of the last call to reschedule. */
+    public SearchStatistics statistics() {
+        return statistics;
+    }
+}
@@ -0,0 +1,40 @@
+package jobshop.solvers;
+
+/** Counters describing the work done by a local search during its last run. */
+public final class SearchStatistics {
+
+    /** Number of iterations of the search, i.e. of neighborhoods explored. */
+    public long iterations;
+
+    /** Number of neighbors evaluated (including those whose makespan was found in the cache). */
+    public long evaluations;
+
+    /** Number of moves that improved the current solution (the best solution for searches that accept worse moves). */
+    public long improvements;
+
+    /** Number of local optima reached, i.e. of descents that ran until no neighbor was improving. */
+    public long localOptima;
+
+    /** Number of times the search restarted from a new initial solution. */
+    public long restarts;
+
+    /** Resets all counters to zero. */
+    public void clear() {
+        iterations = 0;
+        evaluations = 0;
+        improvements = 0;
+        localOptima = 0;
+        restarts = 0;
+    }
+
+    /** Average number of neighbors evaluated to find an improving move (all evaluations if there was no improvement). */
+    public double evaluationsPerImprovement() {
+        return improvements == 0 ? evaluations : (double) evaluations / improvements;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("iterations=%d evaluations=%d improvements=%d evaluations/improvement=%.1f local-optima=%d restarts=%d",
+                iterations, evaluations, improvements, evaluationsPerImprovement(), localOptima, restarts);
+    }
+}
@@ -0,0 +1,166 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.Schedule;
+import jobshop.solvers.disjunctive.Carlier;
+import jobshop.solvers.disjunctive.DisjunctiveGraph;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Optional;
+
+/** Shifting bottleneck procedure of Adams, Balas and Zawack.
+ *
+ * Machines are sequenced one at a time in the disjunctive graph. At each step, the one-machine problem
+ * 1|r_j|L_max of every unsequenced machine is solved with Carlier's branch and bound, using the heads and tails
+ * of the current partial selection. The machine with the largest value (the bottleneck) is sequenced, then all
+ * machines sequenced so far are reoptimized one after the other, with the heads and tails induced by the others.
+ */
+public class ShiftingBottleneckSolver implements Solver {
+
+    /** Number of reoptimization passes over the sequenced machines after each new bottleneck. */
+    final int reoptimizationCycles;
+
+    /** Maximal number of nodes explored by Carlier's algorithm for a single one-machine problem. */
+    final int nodeLimit;
+
+    /** Creates a shifting bottleneck solver with default parameters. */
+    public ShiftingBottleneckSolver() {
+        this(2, 1000);
+    }
+
+    /** Creates a new shifting bottleneck solver.
+     *
+     * @param reoptimizationCycles Number of reoptimization passes after a machine is sequenced.
+     * @param nodeLimit Maximal number of nodes explored to solve each one-machine problem.
+     */
+    public ShiftingBottleneckSolver(int reoptimizationCycles, int nodeLimit) {
+        this.reoptimizationCycles = reoptimizationCycles;
+        this.nodeLimit = nodeLimit;
+    }
+
+    @Override
+    public Optional<Schedule> solve(Instance instance, SolveBudget budget) {
+        DisjunctiveGraph graph = new DisjunctiveGraph(instance);
+        int numJobs = instance.numJobs;
+        int numMachines = instance.numMachines;
+
+        // for each machine, the nodes of the tasks it processes, indexed by job
+        int[][] tasksOfMachine = new int[numMachines][numJobs];
+        for (int j = 0; j < numJobs; j++) {
+            for (int t = 0; t < instance.numTasks; t++) {
+                tasksOfMachine[instance.machine(j, t)][j] = graph.op(j, t);
+            }
+        }
+
+        // sequences[m] is the sequence (of nodes) selected on machine m, or null if it is not sequenced yet
+        int[][] sequences = new int[numMachines][];
+        int[] heads = new int[graph.numOps];
+        int[] tails = new int[graph.numOps];
+        Subproblem sub = new Subproblem(numJobs);
+        int[] candidate = new int[numJobs];
+
+        for (int step = 0; step < numMachines; step++) {
+            graph.heads(heads);
+            graph.tails(tails);
+
+            // look for the bottleneck among unsequenced machines
+            int bottleneck = -1;
+            int bottleneckValue = -1;
+            int[] bottleneckSequence = new int[numJobs];
+            boolean late = budget.exhausted();
+            for (int m = 0; m < numMachines; m++) {
+                if (sequences[m] != null)
+                    continue;
+                int value = late ? sub.byHeads(tasksOfMachine[m], graph, heads, tails, candidate)
+                                 : sub.solve(tasksOfMachine[m], graph, heads, tails, candidate);
+                if (value > bottleneckValue) {
+                    bottleneckValue = value;
+                    bottleneck = m;
+                    System.arraycopy(candidate, 0, bottleneckSequence, 0, numJobs);
+                }
+            }
+            insert(graph, bottleneck, bottleneckSequence, sequences, tasksOfMachine[bottleneck], heads, tails, sub);
+
+            // reoptimize all machines sequenced so far
+            for (int cycle = 0; cycle < reoptimizationCycles && !budget.exhausted(); cycle++) {
+                for (int m = 0; m < numMachines; m++) {
+                    if (sequences[m] == null || m == bottleneck && cycle == 0)
+                        continue;
+                    graph.removeSequence(sequences[m], numJobs);
+                    graph.heads(heads);
+                    graph.tails(tails);
+                    sub.solve(tasksOfMachine[m], graph, heads, tails, candidate);
+                    insert(graph, m, candidate.clone(), sequences, tasksOfMachine[m], heads, tails, sub);
+                }
+            }
+        }
+
+        boolean acyclic = graph.heads(heads);
+        assert acyclic;
+        return Optional.of(graph.toSchedule(heads));
+    }
+
+    /** Adds the sequence of a machine to the graph.
+     *  If it would introduce a cycle, the tasks are sequenced by increasing heads instead, which is always safe.
+     *  Heads and tails must be the ones of the graph without this machine. */
+    private static void insert(DisjunctiveGraph graph, int machine, int[] sequence, int[][] sequences,
+                               int[] tasksOfMachine, int[] heads, int[] tails, Subproblem sub) {
+        int n = sequence.length;
+        graph.addSequence(sequence, n);
+        int[] scratch = new int[graph.numOps];
+        if (!graph.heads(scratch)) {
+            graph.removeSequence(sequence, n);
+            sub.byHeads(tasksOfMachine, graph, heads, tails, sequence);
+            graph.addSequence(sequence, n);
+        }
+        sequences[machine] = sequence;
+    }
+
+    /** One-machine problem built from the heads and tails of a disjunctive graph. */
+    private final class Subproblem {
+        final int[] release;
+        final int[] duration;
+        final int[] tail;
+        final int[] order;
+
+        Subproblem(int n) {
+            release = new int[n];
+            duration = new int[n];
+            tail = new int[n];
+            order = new int[n];
+        }
+
+        /** Solves the one-machine problem for the given tasks and stores the sequence of nodes in result.
+         * Returns the value of the sequence. */
+        int solve(int[] tasks, DisjunctiveGraph graph, int[] heads, int[] tails, int[] result) {
+            int n = tasks.length;
+            for (int i = 0; i < n; i++) {
+                release[i] = heads[tasks[i]];
+                duration[i] = graph.duration(tasks[i]);
+                tail[i] = tails[tasks[i]];
+            }
+            int value = Carlier.solve(release, duration, tail, n, nodeLimit, order);
+            for (int i = 0; i < n; i++)
+                result[i] = tasks[order[i]];
+            return value;
+        }
+
+        /** Sequences the tasks by increasing heads (and decreasing tails for ties) without any optimization.
+         * Returns the value of the sequence. */
+        int byHeads(int[] tasks, DisjunctiveGraph graph, int[] heads, int[] tails, int[] result) {
+            Integer[] sorted = Arrays.stream(tasks).boxed()
+                    .sorted(Comparator.<Integer>comparingInt(op -> heads[op]).thenComparingInt(op -> -tails[op]))
+                    .toArray(Integer[]::new);
+            int time = 0;
+            int value = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                int op = sorted[i];
+                result[i] = op;
+                time = Math.max(time, heads[op]) + graph.duration(op);
+                value = Math.max(value, time + tails[op]);
+            }
+            return value;
+        }
+    }
+}
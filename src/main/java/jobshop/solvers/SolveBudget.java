@@ -0,0 +1,185 @@
+package jobshop.solvers;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/** Limits on the resources a solver may use: wall-clock time, CPU time of its thread, evaluations of neighbors and
+ *  iterations.
+ *
+ * The wall-clock deadline is the classical limit, but under parallel load the work done before it depends on the
+ * other threads. The CPU time of the thread and the number of evaluations do not, so that comparisons of solvers
+ * with these limits are reproducible and fair. The iteration limit applies to each solver separately (a search and
+ * the solver of its initial solution can both do maxIterations iterations), the other limits to the whole solve.
+ *
+ * Solvers poll exhausted(), which is cheap: the wall-clock time is only read every stride calls, the stride doubling
+ * while readings are less than READING_INTERVAL_MS apart and going back to 1 otherwise, so that tight loops do not
+ * read the clock at each iteration but a deadline is still noticed within a few milliseconds. The CPU time, which is
+ * even more costly to read, is only read again once the wall-clock time elapsed since the last reading could have
+ * consumed the remaining CPU time.
+ * A budget is created by the thread that runs the solver, right before solve, as its CPU time counts from there.
+ * It is not thread-safe, and budgets derived with the with* methods share the consumption of the original one.
+ */
+public final class SolveBudget {
+
+    /** Value of a limit that does not apply. */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /** Time between two readings of the wall-clock time below which the stride of the readings grows. */
+    static final long READING_INTERVAL_MS = 1;
+
+    /** Maximal number of calls to exhausted() between two readings of the wall-clock time. */
+    static final int MAX_STRIDE = 1024;
+
+    /** What the solve has consumed so far, shared by a budget and the budgets derived from it. */
+    private static final class Usage {
+        /** CPU time of the thread when the budget was created, in nanoseconds, or -1 if it cannot be measured. */
+        final long cpuStart;
+        /** Wall-clock time when the budget was created, in milliseconds. */
+        final long wallStart = System.currentTimeMillis();
+        long evaluations;
+        /** Wall-clock time before which the CPU time cannot be over its limit. */
+        long nextCpuCheck;
+        /** Last reading of the wall-clock time, in milliseconds. */
+        long lastReading = wallStart;
+        /** Calls between two readings of the wall-clock time, and calls left before the next one. */
+        int stride = 1;
+        int countdown;
+
+        Usage() {
+            boolean measurable = THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+            this.cpuStart = measurable ? THREADS.getCurrentThreadCpuTime() : -1;
+        }
+
+        /** Wall-clock time, read again only at the end of the stride. */
+        long now() {
+            if (--countdown > 0)
+                return lastReading;
+            long now = System.currentTimeMillis();
+            stride = now - lastReading < READING_INTERVAL_MS ? Math.min(2 * stride, MAX_STRIDE) : 1;
+            countdown = stride;
+            lastReading = now;
+            return now;
+        }
+    }
+
+    private final long deadline;
+    private final long cpuTimeMs;
+    private final long maxEvaluations;
+    private final int maxIterations;
+    private final Usage usage;
+
+    private SolveBudget(long deadline, long cpuTimeMs, long maxEvaluations, int maxIterations, Usage usage) {
+        if (cpuTimeMs < 0 || maxEvaluations < 0 || maxIterations < 0)
+            throw new RuntimeException("Limits of a budget must be positive");
+        this.deadline = deadline;
+        this.cpuTimeMs = cpuTimeMs;
+        this.maxEvaluations = maxEvaluations;
+        this.maxIterations = maxIterations;
+        this.usage = usage;
+    }
+
+    /** Budget with a wall-clock deadline and a maximal number of iterations, the limits of Solver.solve.
+     *
+     * @param deadline Absolute time, in milliseconds, comparable with System.currentTimeMillis().
+     */
+    public static SolveBudget of(long deadline, int maxIterations) {
+        return new SolveBudget(deadline, UNLIMITED, UNLIMITED, maxIterations, new Usage());
+    }
+
+    /** Budget without any limit. */
+    public static SolveBudget unlimited() {
+        return of(UNLIMITED, Integer.MAX_VALUE);
+    }
+
+    /** Same budget with a deadline that is the earliest of the current one and the given one. */
+    public SolveBudget withDeadline(long deadline) {
+        usage.countdown = 0;
+        return new SolveBudget(Math.min(this.deadline, deadline), cpuTimeMs, maxEvaluations, maxIterations, usage);
+    }
+
+    /** Same budget with a limit on the CPU time of the thread, in milliseconds since the creation of the budget. */
+    public SolveBudget withCpuTime(long cpuTimeMs) {
+        usage.nextCpuCheck = 0;
+        usage.countdown = 0;
+        return new SolveBudget(deadline, cpuTimeMs, maxEvaluations, maxIterations, usage);
+    }
+
+    /** Same budget with a limit on the number of neighbors evaluated. */
+    public SolveBudget withEvaluations(long maxEvaluations) {
+        return new SolveBudget(deadline, cpuTimeMs, maxEvaluations, maxIterations, usage);
+    }
+
+    /** Same budget with another maximal number of iterations. */
+    public SolveBudget withIterations(int maxIterations) {
+        return new SolveBudget(deadline, cpuTimeMs, maxEvaluations, maxIterations, usage);
+    }
+
+    /** Wall-clock deadline, in milliseconds, UNLIMITED if there is none. */
+    public long deadline() {
+        return deadline;
+    }
+
+    /** Limit on the CPU time of the thread, in milliseconds since the creation of the budget, UNLIMITED if there is
+     *  none. */
+    public long cpuTimeMs() {
+        return cpuTimeMs;
+    }
+
+    /** Limit on the number of neighbors evaluated, UNLIMITED if there is none. */
+    public long maxEvaluations() {
+        return maxEvaluations;
+    }
+
+    /** Maximal number of iterations of each solver. */
+    public int maxIterations() {
+        return maxIterations;
+    }
+
+    /** Records that a number of neighbors were evaluated. */
+    public void evaluated(long count) {
+        usage.evaluations += count;
+    }
+
+    /** Number of neighbors evaluated so far. */
+    public long evaluations() {
+        return usage.evaluations;
+    }
+
+    /** CPU time of the thread since the creation of the budget, in milliseconds (wall-clock time if the JVM cannot
+     *  measure it). */
+    public long cpuTimeUsedMs() {
+        if (usage.cpuStart < 0)
+            return System.currentTimeMillis() - usage.wallStart;
+        return (THREADS.getCurrentThreadCpuTime() - usage.cpuStart) / 1_000_000;
+    }
+
+    /** True once the deadline, the CPU time or the evaluations are exhausted: the solver should return its best
+     *  solution. The iterations are checked by the solvers themselves, against maxIterations(). */
+    public boolean exhausted() {
+        if (usage.evaluations >= maxEvaluations)
+            return true;
+        if (deadline == UNLIMITED && cpuTimeMs == UNLIMITED)
+            return false;
+        long now = usage.now();
+        if (now >= deadline)
+            return true;
+        if (cpuTimeMs == UNLIMITED || now < usage.nextCpuCheck)
+            return false;
+        // the CPU time cannot grow faster than the wall-clock time
+        long remaining = cpuTimeMs - cpuTimeUsedMs();
+        if (remaining <= 0)
+            return true;
+        usage.nextCpuCheck = now + remaining;
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "deadline=" + (deadline == UNLIMITED ? "none" : deadline)
+                + " cpu-time=" + (cpuTimeMs == UNLIMITED ? "none" : cpuTimeMs + "ms")
+                + " evaluations=" + (maxEvaluations == UNLIMITED ? "none" : maxEvaluations)
+                + " iterations=" + maxIterations;
+    }
+}
@@ -1,50 +1,143 @@
 package jobshop.solvers;
 
 import jobshop.Instance;
+import jobshop.SolutionArchive;
 import jobshop.encodings.Schedule;
+import jobshop.solvers.cache.EvaluationCache;
 import jobshop.solvers.neighborhood.Neighborhood;
 import jobshop.solvers.neighborhood.Nowicki;
+import jobshop.tuning.Configuration;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.function.UnaryOperator;
 
 /** Common interface that must implemented by all solvers. */
 public interface Solver {
 
+    /** Look for a solution until blocked or the budget is exhausted.
+     *
+     * @param instance Jobshop instance that should be solved.
+     * @param budget Limits on the time, evaluations and iterations of the solver.
+     * @return An optional schedule that will be non empty if a solution was found.
+     */
+    Optional<Schedule> solve(Instance instance, SolveBudget budget);
+
     /** Look for a solution until blocked or a deadline has been met.
      *
      * @param instance Jobshop instance that should be solved.
      * @param deadline Absolute time at which the solver should have returned a solution.
      *                 This time is in milliseconds and can be compared with System.currentTimeMilliseconds()
+     * @param maxIter Maximal number of iterations of the solver.
      * @return An optional schedule that will be non empty if a solution was found.
      */
-    Optional<Schedule> solve(Instance instance, long deadline, int maxIter);
+    default Optional<Schedule> solve(Instance instance, long deadline, int maxIter) {
+        return solve(instance, SolveBudget.of(deadline, maxIter));
+    }
 
+    /** Cache of solution evaluations used during the last call to solve, if the solver uses one. */
+    default Optional<EvaluationCache> evaluationCache() {
+        return Optional.empty();
+    }
+
+    /** Statistics of the last call to solve, if the solver collects them. */
+    default Optional<SearchStatistics> statistics() {
+        return Optional.empty();
+    }
 
+    /** Makes the following calls to solve snapshot their search with the given checkpointer,
+     *  and continue from the existing snapshot when the checkpointer resumes.
+     *
+     * @return False if the solver does not support checkpoints (the checkpointer is then ignored).
+     */
+    default boolean checkpointWith(Checkpointer checkpointer) {
+        return false;
+    }
+
+
+    /** Names of all solvers that getSolver can create. */
+    List<String> NAMES = List.of("basic", "spt", "lrpt", "est_lrpt", "est_spt",
+            "gt_spt", "gt_lrpt", "gt_est_spt", "gt_est_lrpt", "nd_spt", "nd_lrpt", "sb",
+            "taboo_sb", "descent_sb", "descent_first_sb", "descent_restart", "bnb", "lns", "lns_gt",
+            "taboo_est_spt", "taboo_est_lrpt", "taboo_spt", "taboo_lrpt",
+            "descent_lrpt", "descent_spt", "descent_est_lrpt", "descent_est_spt", "portfolio", "taboo_pr_sb",
+            "ils_sb", "ils_bottleneck_sb");
 
     /** Static factory method to create a new solver based on its name. */
     static Solver getSolver(String name) {
+        return getSolver(name, new Random().nextLong(), null);
+    }
+
+    /** Static factory method to create a new solver based on its name.
+     *
+     * @param name Name of the solver, or a configuration of a local search as written by the "tune" command
+     *             (e.g. taboo_sb:tenure=12,restarts=0,iter=500).
+     * @param seed Seed from which the sources of randomness of the solver are initialized.
+     * @param archive If not null, local searches start from the solution of this archive when it has one.
+     */
+    static Solver getSolver(String name, long seed, SolutionArchive archive) {
+        return getSolver(name, seed, archive, PerformanceTable.inMemory());
+    }
+
+    /** Static factory method to create a new solver based on its name.
+     *
+     * @param table Performance table from which the "portfolio" solver chooses its solvers, and in which it
+     *              records their results.
+     */
+    static Solver getSolver(String name, long seed, SolutionArchive archive, PerformanceTable table) {
+
+        Random seeds = new Random(seed);
+        if (name.contains(":"))
+            return Configuration.parse(name).create(seeds.nextLong(), archive);
+        UnaryOperator<Solver> warm = base -> archive == null ? base : new WarmStartSolver(archive, base);
 
         Nowicki no = new Nowicki();
         boolean random = true;
 
         int n_iter = 100;
         int tabooSize = 10;
+        int eliteSize = 8;
+        int pr_stagnation = 30;
+        int ils_strength = 3;
+        int gt_restarts = 1000;
+        double gt_noise = 0.05;
+        int lns_relaxed = 60;
+        double lns_noise = 0.3;
 
         switch (name) {
             case "basic": return new BasicSolver();
-            case "spt": return new GreedySolver(GreedySolver.Priority.SPT, random, n_iter);
-            case "lrpt": return new GreedySolver(GreedySolver.Priority.LRPT, random, n_iter);
-            case "est_lrpt": return new GreedySolver(GreedySolver.Priority.EST_LRPT, random, n_iter);
-            case "est_spt": return new GreedySolver(GreedySolver.Priority.EST_SPT, random, n_iter);
-            case "taboo_est_spt": return new TabooSolver(no, new GreedySolver(GreedySolver.Priority.EST_SPT, random, n_iter), tabooSize);
-            case "taboo_est_lrpt": return new TabooSolver(no, new GreedySolver(GreedySolver.Priority.EST_LRPT, random, n_iter), tabooSize);
-            case "taboo_spt": return new TabooSolver(no, new GreedySolver(GreedySolver.Priority.SPT, random, n_iter), tabooSize);
-            case "taboo_lrpt": return new TabooSolver(no, new GreedySolver(GreedySolver.Priority.LRPT, random, n_iter), tabooSize);
-            case "descent_lrpt": return new DescentSolver(no, new GreedySolver(GreedySolver.Priority.LRPT, random, n_iter));
-            case "descent_spt": return new DescentSolver(no, new GreedySolver(GreedySolver.Priority.SPT, random, n_iter));
-            case "descent_est_lrpt": return new DescentSolver(no, new GreedySolver(GreedySolver.Priority.EST_LRPT, random, n_iter));
-            case "descent_est_spt": return new DescentSolver(no, new GreedySolver(GreedySolver.Priority.EST_SPT, random, n_iter));
+            case "spt": return new GreedySolver(GreedySolver.Priority.SPT, random, n_iter, new Random(seeds.nextLong()));
+            case "lrpt": return new GreedySolver(GreedySolver.Priority.LRPT, random, n_iter, new Random(seeds.nextLong()));
+            case "est_lrpt": return new GreedySolver(GreedySolver.Priority.EST_LRPT, random, n_iter, new Random(seeds.nextLong()));
+            case "est_spt": return new GreedySolver(GreedySolver.Priority.EST_SPT, random, n_iter, new Random(seeds.nextLong()));
+            case "gt_spt": return new GifflerThompsonSolver(GreedySolver.Priority.SPT, GifflerThompsonSolver.Mode.ACTIVE, gt_noise, gt_restarts, new Random(seeds.nextLong()));
+            case "gt_lrpt": return new GifflerThompsonSolver(GreedySolver.Priority.LRPT, GifflerThompsonSolver.Mode.ACTIVE, gt_noise, gt_restarts, new Random(seeds.nextLong()));
+            case "gt_est_spt": return new GifflerThompsonSolver(GreedySolver.Priority.EST_SPT, GifflerThompsonSolver.Mode.ACTIVE, gt_noise, gt_restarts, new Random(seeds.nextLong()));
+            case "gt_est_lrpt": return new GifflerThompsonSolver(GreedySolver.Priority.EST_LRPT, GifflerThompsonSolver.Mode.ACTIVE, gt_noise, gt_restarts, new Random(seeds.nextLong()));
+            case "nd_spt": return new GifflerThompsonSolver(GreedySolver.Priority.SPT, GifflerThompsonSolver.Mode.NON_DELAY, gt_noise, gt_restarts, new Random(seeds.nextLong()));
+            case "nd_lrpt": return new GifflerThompsonSolver(GreedySolver.Priority.LRPT, GifflerThompsonSolver.Mode.NON_DELAY, gt_noise, gt_restarts, new Random(seeds.nextLong()));
+            case "sb": return new ShiftingBottleneckSolver();
+            case "taboo_sb": return new TabooSolver(no, warm.apply(new ShiftingBottleneckSolver()), tabooSize);
+            case "descent_sb": return new DescentSolver(no, warm.apply(new ShiftingBottleneckSolver()));
+            case "descent_first_sb": return new DescentSolver(no, warm.apply(new ShiftingBottleneckSolver()), DescentSolver.Strategy.FIRST_IMPROVEMENT, new Random(seeds.nextLong()));
+            case "descent_restart": return new DescentSolver(no, warm.apply(new ShiftingBottleneckSolver()), DescentSolver.Strategy.RANDOM_RESTART, new Random(seeds.nextLong()));
+            case "bnb": return new BranchAndBoundSolver();
+            case "lns": return new LargeNeighborhoodSolver(warm.apply(new ShiftingBottleneckSolver()), lns_relaxed, lns_noise, new Random(seeds.nextLong()));
+            case "lns_gt": return new LargeNeighborhoodSolver(warm.apply(new GifflerThompsonSolver(GreedySolver.Priority.EST_LRPT, GifflerThompsonSolver.Mode.ACTIVE, gt_noise, gt_restarts, new Random(seeds.nextLong()))), lns_relaxed, lns_noise, new Random(seeds.nextLong()));
+            case "taboo_est_spt": return new TabooSolver(no, warm.apply(new GreedySolver(GreedySolver.Priority.EST_SPT, random, n_iter, new Random(seeds.nextLong()))), tabooSize);
+            case "taboo_est_lrpt": return new TabooSolver(no, warm.apply(new GreedySolver(GreedySolver.Priority.EST_LRPT, random, n_iter, new Random(seeds.nextLong()))), tabooSize);
+            case "taboo_spt": return new TabooSolver(no, warm.apply(new GreedySolver(GreedySolver.Priority.SPT, random, n_iter, new Random(seeds.nextLong()))), tabooSize);
+            case "taboo_lrpt": return new TabooSolver(no, warm.apply(new GreedySolver(GreedySolver.Priority.LRPT, random, n_iter, new Random(seeds.nextLong()))), tabooSize);
+            case "descent_lrpt": return new DescentSolver(no, warm.apply(new GreedySolver(GreedySolver.Priority.LRPT, random, n_iter, new Random(seeds.nextLong()))));
+            case "descent_spt": return new DescentSolver(no, warm.apply(new GreedySolver(GreedySolver.Priority.SPT, random, n_iter, new Random(seeds.nextLong()))));
+            case "descent_est_lrpt": return new DescentSolver(no, warm.apply(new GreedySolver(GreedySolver.Priority.EST_LRPT, random, n_iter, new Random(seeds.nextLong()))));
+            case "descent_est_spt": return new DescentSolver(no, warm.apply(new GreedySolver(GreedySolver.Priority.EST_SPT, random, n_iter, new Random(seeds.nextLong()))));
+            case "taboo_pr_sb": return new TabooSolver(no, warm.apply(new ShiftingBottleneckSolver()), tabooSize, eliteSize, pr_stagnation);
+            case "ils_sb": return new DescentSolver(no, warm.apply(new ShiftingBottleneckSolver()), DescentSolver.Perturbation.CRITICAL_SWAPS, ils_strength, DescentSolver.Acceptance.BETTER_OR_EQUAL, new Random(seeds.nextLong()));
+            case "ils_bottleneck_sb": return new DescentSolver(no, warm.apply(new ShiftingBottleneckSolver()), DescentSolver.Perturbation.BOTTLENECK_SHUFFLE, ils_strength, DescentSolver.Acceptance.ANNEALING, new Random(seeds.nextLong()));
+            case "portfolio": return new PortfolioSolver(PortfolioSolver.DEFAULT_CANDIDATES, table, PortfolioSolver.Mode.SPLIT, seeds.nextLong(), archive);
             default: throw new RuntimeException("Unknown solver: "+ name);
         }
     }
@@ -2,89 +2,452 @@ package jobshop.solvers;
 
 
 import jobshop.Instance;
-import jobshop.encodings.Changes;
+import jobshop.LowerBound;
 import jobshop.encodings.ResourceOrder;
 import jobshop.encodings.Schedule;
+import jobshop.events.SolverEvents;
+import jobshop.solvers.cache.EvaluationCache;
+import jobshop.solvers.cache.VisitedSet;
 import jobshop.solvers.neighborhood.Neighborhood;
 import jobshop.solvers.neighborhood.Nowicki;
 
-import java.util.ArrayList;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 public class TabooSolver implements Solver {
 
+    /** Number of solutions remembered to detect cycles. */
+    static final int VISITED_CAPACITY = 1 << 16;
+
     final Nowicki neighborhood;
     final Solver baseSolver;
     final int dureeTaboo;
+    /** Number of solutions kept for path relinking, 0 if the search never relinks. */
+    final int eliteSize;
+    /** Number of iterations without improvement after which the search restarts from a relinked solution. */
+    final int stagnation;
+
+    /** Kind of the checkpoints written by this solver. */
+    static final String CHECKPOINT_KIND = "taboo";
+
+    /** Counters of the last run. */
+    private final SearchStatistics statistics = new SearchStatistics();
+
+    /** Where to snapshot the search, if anywhere. */
+    private Checkpointer checkpointer;
+
+    /** Copy of the state of the search at the end of an iteration: solutions, taboo memory and counters.
+     *  The search is deterministic, so resuming from a snapshot gives the same result as an uninterrupted run. */
+    private static final class Snapshot implements Checkpointer.State {
+        final int iteration;
+        final int bestMakespan;
+        final ResourceOrder current;
+        final ResourceOrder best;
+        final int[][] tabooUntil;
+        final long[] visited;
+        final long[] counters;
+        final Episode episode;
+
+        Snapshot(int iteration, int bestMakespan, ResourceOrder current, ResourceOrder best,
+                 int[][] tabooUntil, long[] visited, long[] counters, Episode episode) {
+            this.iteration = iteration;
+            this.bestMakespan = bestMakespan;
+            this.current = current;
+            this.best = best;
+            this.tabooUntil = tabooUntil;
+            this.visited = visited;
+            this.counters = counters;
+            this.episode = episode;
+        }
+
+        /** Copies the state of the search. */
+        Snapshot(int iteration, int bestMakespan, ResourceOrder current, Schedule best,
+                 int[][] tabooUntil, VisitedSet visited, SearchStatistics statistics, Episode episode) {
+            this(iteration, bestMakespan, current.copy(), new ResourceOrder(best), copy(tabooUntil), visited.toArray(),
+                    new long[] {statistics.iterations, statistics.evaluations, statistics.improvements, statistics.restarts},
+                    episode.copy());
+        }
+
+        private static int[][] copy(int[][] matrix) {
+            int[][] copy = new int[matrix.length][];
+            for (int i = 0; i < matrix.length; i++)
+                copy[i] = matrix[i].clone();
+            return copy;
+        }
+
+        /** Restores the taboo memory, the visited solutions and the counters. */
+        void restore(int[][] tabooUntil, VisitedSet visited, SearchStatistics statistics) {
+            for (int m = 0; m < tabooUntil.length; m++)
+                System.arraycopy(this.tabooUntil[m], 0, tabooUntil[m], 0, tabooUntil[m].length);
+            for (long fingerprint : this.visited)
+                visited.add(fingerprint);
+            statistics.iterations = counters[0];
+            statistics.evaluations = counters[1];
+            statistics.improvements = counters[2];
+            statistics.restarts = counters[3];
+        }
+
+        @Override
+        public void write(DataOutputStream out) throws IOException {
+            out.writeInt(iteration);
+            out.writeInt(bestMakespan);
+            current.write(out);
+            best.write(out);
+            // only the moves that are still taboo matter
+            int count = 0;
+            for (int[] row : tabooUntil) {
+                for (int until : row)
+                    if (until >= iteration) count++;
+            }
+            out.writeInt(count);
+            for (int m = 0; m < tabooUntil.length; m++) {
+                for (int i = 0; i < tabooUntil[m].length; i++) {
+                    if (tabooUntil[m][i] >= iteration) {
+                        out.writeInt(m);
+                        out.writeInt(i);
+                        out.writeInt(tabooUntil[m][i]);
+                    }
+                }
+            }
+            out.writeInt(visited.length);
+            for (long fingerprint : visited)
+                out.writeLong(fingerprint);
+            out.writeInt(counters.length);
+            for (long counter : counters)
+                out.writeLong(counter);
+            episode.write(out);
+        }
 
-    /** Creates a new descent solver with a given neighborhood and a solver for the initial solution.
+        static Snapshot read(DataInputStream in, Instance instance, int eliteCapacity) throws IOException {
+            int iteration = in.readInt();
+            int bestMakespan = in.readInt();
+            ResourceOrder current = ResourceOrder.read(in, instance);
+            ResourceOrder best = ResourceOrder.read(in, instance);
+            int[][] tabooUntil = new int[instance.numMachines][instance.numJobs * instance.numJobs];
+            for (int count = in.readInt(); count > 0; count--) {
+                int m = in.readInt();
+                int i = in.readInt();
+                tabooUntil[m][i] = in.readInt();
+            }
+            long[] visited = new long[in.readInt()];
+            for (int i = 0; i < visited.length; i++)
+                visited[i] = in.readLong();
+            long[] counters = new long[in.readInt()];
+            for (int i = 0; i < counters.length; i++)
+                counters[i] = in.readLong();
+            Episode episode = Episode.read(in, instance, eliteCapacity);
+            return new Snapshot(iteration, bestMakespan, current, best, tabooUntil, visited, counters, episode);
+        }
+    }
+
+    /** State of the path relinking: the elite solutions, and the best solution since the last restart. */
+    private static final class Episode {
+        final ElitePool pool;
+        ResourceOrder best;
+        int bestMakespan;
+        /** Iteration of the last improvement of best. */
+        int lastImprovement;
+        /** Number of paths relinked, which gives the next initiating solution. */
+        int relinks;
+
+        Episode(ElitePool pool, ResourceOrder best, int bestMakespan, int lastImprovement, int relinks) {
+            this.pool = pool;
+            this.best = best;
+            this.bestMakespan = bestMakespan;
+            this.lastImprovement = lastImprovement;
+            this.relinks = relinks;
+        }
+
+        Episode copy() {
+            return new Episode(pool.copy(), best.copy(), bestMakespan, lastImprovement, relinks);
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            pool.write(out);
+            best.write(out);
+            out.writeInt(bestMakespan);
+            out.writeInt(lastImprovement);
+            out.writeInt(relinks);
+        }
+
+        static Episode read(DataInputStream in, Instance instance, int capacity) throws IOException {
+            ElitePool pool = new ElitePool(capacity);
+            pool.read(in, instance);
+            ResourceOrder best = ResourceOrder.read(in, instance);
+            return new Episode(pool, best, in.readInt(), in.readInt(), in.readInt());
+        }
+    }
+
+    /** Creates a new taboo solver with a given neighborhood and a solver for the initial solution.
      *  @param neighborhood Neighborhood object that should be used to generates neighbor solutions to the current candidate.
      * @param baseSolver A solver to provide the initial solution.
-     * @param tabooSize
+     * @param tabooSize Number of iterations during which a swap cannot be undone.
      */
     public TabooSolver(Neighborhood neighborhood, Solver baseSolver, int tabooSize) {
+        this(neighborhood, baseSolver, tabooSize, 0, 0);
+    }
+
+    /** Creates a taboo solver that restarts by path relinking when it stagnates.
+     *
+     * The best solution found since the last restart is offered to a pool of elite solutions, and the search goes on
+     * from a solution on the path between one of the elites and the best of them (see PathRelinking), with an
+     * empty taboo memory.
+     * @param eliteSize Number of solutions kept in the pool, 0 to never relink.
+     * @param stagnation Number of iterations without improvement after which the search restarts.
+     */
+    public TabooSolver(Neighborhood neighborhood, Solver baseSolver, int tabooSize, int eliteSize, int stagnation) {
+        if (eliteSize < 0 || (eliteSize > 0 && stagnation < 1))
+            throw new RuntimeException("Invalid path relinking parameters");
         this.neighborhood = (Nowicki) neighborhood;
         this.baseSolver = baseSolver;
         this.dureeTaboo = tabooSize;
+        this.eliteSize = eliteSize;
+        this.stagnation = stagnation;
     }
 
     @Override
-    public Optional<Schedule> solve(Instance instance, long deadline, int maxIter) {
+    public Optional<Schedule> solve(Instance instance, SolveBudget budget) {
+
+        int numJobs = instance.numJobs;
+
+        // tabooUntil[m][a * numJobs + b] is the iteration until which it is forbidden to put job a before job b
+        // on machine m, i.e. to undo a swap that put b before a
+        int[][] tabooUntil = new int[instance.numMachines][numJobs * numJobs];
+
+        // a solution whose makespan equals the lower bound is optimal, there is no need to look further
+        int lowerBound = LowerBound.of(instance);
+
+        // fingerprints of the solutions the search already went through, so that it does not cycle back to them
+        VisitedSet visited = new VisitedSet(VISITED_CAPACITY);
+        neighborhood.cache().clear();
+        statistics.clear();
 
-        Optional<Schedule> os = this.baseSolver.solve(instance, deadline, maxIter);
-        Schedule s;
         Schedule s_mem;
-        ResourceOrder sol = null;
-        ResourceOrder r = null;
-        if (os.isPresent()) {
-            s = os.get();
+        int bestMakespan;
+        // the current solution, modified in place by the moves
+        ResourceOrder current;
+        int currentMakespan;
+        int compteur;
+        Episode episode;
+
+        Optional<Snapshot> resumed = checkpointer == null ? Optional.empty()
+                : checkpointer.load(instance, CHECKPOINT_KIND, in -> Snapshot.read(in, instance, Math.max(1, eliteSize)));
+        if (resumed.isPresent()) {
+            // continue the search exactly where the snapshot left it
+            Snapshot snapshot = resumed.get();
+            current = snapshot.current;
+            s_mem = snapshot.best.toSchedule().get();
+            bestMakespan = snapshot.bestMakespan;
+            compteur = snapshot.iteration;
+            episode = snapshot.episode;
+            snapshot.restore(tabooUntil, visited, statistics);
+            // not stored in the snapshot, evaluated once when resuming
+            currentMakespan = neighborhood.makespan(current);
         } else {
-            throw new UnsupportedOperationException();
+            Optional<Schedule> os = this.baseSolver.solve(instance, budget);
+            if (os.isEmpty()) {
+                throw new UnsupportedOperationException();
+            }
+            s_mem = os.get();
+            bestMakespan = s_mem.makespan();
+            current = new ResourceOrder(s_mem);
+            currentMakespan = bestMakespan;
+            compteur = 0;
+            episode = new Episode(new ElitePool(Math.max(1, eliteSize)), current.copy(), bestMakespan, 0, 0);
+            visited.add(current.fingerprint());
         }
-        s_mem = s;
-        List<Changes> Taboo = new ArrayList<>();
-        int compteur = 0;
-        int makespan = Integer.MAX_VALUE;
-        ResourceOrder ro = null;
-        List<Nowicki.Swap> swaps = null;
-        Changes change_final = null;
-        int index = 0;
-
-        while (compteur < maxIter && System.currentTimeMillis() < deadline) {
+        PathRelinking relinking = new PathRelinking(neighborhood);
+
+        while (compteur < budget.maxIterations() && !budget.exhausted() && bestMakespan > lowerBound) {
             compteur += 1;
-            ro = new ResourceOrder(s);
-            swaps = this.neighborhood.allSwaps(ro);
-            for (Nowicki.Swap swap : swaps) {
-                Changes change = new Changes(ro.getTaskOfMachine(swap.machine, swap.t1), ro.getTaskOfMachine(swap.machine, swap.t2));
-                r = swap.generateFrom(ro);
-                if (r.toSchedule().isPresent()) {
-                    if (!Taboo.contains(change)) {
-                        int new_makespan = r.toSchedule().get().makespan();
-                        if (new_makespan < makespan) {
-                            makespan = new_makespan;
-                            sol = r;
-                            change_final = change;
+            statistics.iterations++;
+            Nowicki.Swap selected = null;
+            int makespan = Integer.MAX_VALUE;
+            boolean aspiration = false;
+            SolverEvents.Neighborhood generation = new SolverEvents.Neighborhood();
+            generation.begin();
+            List<Nowicki.Swap> moves = this.neighborhood.moves(current);
+            if (generation.shouldCommit()) {
+                generation.instance = instance.name;
+                generation.iteration = compteur;
+                generation.makespan = currentMakespan;
+                generation.neighbors = moves.size();
+                generation.commit();
+            }
+            SolverEvents.MoveAccepted acceptance = new SolverEvents.MoveAccepted();
+            acceptance.begin();
+            // the whole neighborhood is evaluated at once
+            int[] makespans = this.neighborhood.makespans(current, moves);
+            statistics.evaluations += moves.size();
+            budget.evaluated(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                Nowicki.Swap swap = moves.get(i);
+                int first = current.getTaskOfMachine(swap.machine, swap.t1).job;
+                int second = current.getTaskOfMachine(swap.machine, swap.t2).job;
+                int new_makespan = makespans[i];
+                swap.apply(current);
+                boolean taboo = tabooUntil[swap.machine][second * numJobs + first] >= compteur
+                        || visited.contains(current.fingerprint());
+                swap.undo(current);
+
+                // aspiration: a taboo neighbor is accepted if it improves on the best solution
+                if (new_makespan < makespan && (!taboo || new_makespan < bestMakespan)) {
+                    makespan = new_makespan;
+                    selected = swap;
+                    aspiration = taboo;
+                }
+            }
+            if (selected == null) {
+                // all neighbors are taboo
+                if (eliteSize == 0)
+                    break;
+                int relinked = relink(instance, episode, relinking, tabooUntil, visited, compteur, bestMakespan, budget);
+                if (relinked < 0)
+                    break;
+                current = episode.best.copy();
+                currentMakespan = episode.bestMakespan;
+                if (relinked < bestMakespan) {
+                    bestMakespan = relinked;
+                    s_mem = current.toSchedule().get();
+                }
+                continue;
+            }
+            // forbid to put back the first job before the second one for the next iterations
+            int first = current.getTaskOfMachine(selected.machine, selected.t1).job;
+            int second = current.getTaskOfMachine(selected.machine, selected.t2).job;
+            tabooUntil[selected.machine][first * numJobs + second] = compteur + dureeTaboo;
+            selected.apply(current);
+            currentMakespan = makespan;
+            visited.add(current.fingerprint());
+            if (acceptance.shouldCommit()) {
+                acceptance.instance = instance.name;
+                acceptance.iteration = compteur;
+                acceptance.makespan = makespan;
+                acceptance.move = selected.toString();
+                acceptance.aspiration = aspiration;
+                acceptance.commit();
+            }
+
+            // only materialize the solution when it is a new best one
+            if (makespan < bestMakespan) {
+                bestMakespan = makespan;
+                statistics.improvements++;
+                s_mem = current.toSchedule().get();
+                SolverEvents.NewBest event = new SolverEvents.NewBest();
+                if (event.shouldCommit()) {
+                    event.instance = instance.name;
+                    event.iteration = compteur;
+                    event.makespan = makespan;
+                    event.solver = "taboo";
+                    event.commit();
+                }
+            }
+
+            if (eliteSize > 0) {
+                if (makespan < episode.bestMakespan) {
+                    episode.bestMakespan = makespan;
+                    episode.best = current.copy();
+                    episode.lastImprovement = compteur;
+                } else if (compteur - episode.lastImprovement >= stagnation) {
+                    int relinked = relink(instance, episode, relinking, tabooUntil, visited, compteur, bestMakespan, budget);
+                    if (relinked >= 0) {
+                        current = episode.best.copy();
+                        currentMakespan = episode.bestMakespan;
+                        if (relinked < bestMakespan) {
+                            bestMakespan = relinked;
+                            s_mem = current.toSchedule().get();
                         }
                     } else {
-                        int new_makespan = r.toSchedule().get().makespan();
-                        if (new_makespan < s_mem.makespan()) {
-                            makespan = new_makespan;
-                            sol = r;
-                            change_final = change;
-                        }
+                        // the search goes on from where it is, in a new episode whose best solution will join the pool
+                        episode.best = current.copy();
+                        episode.bestMakespan = makespan;
+                        episode.lastImprovement = compteur;
                     }
                 }
             }
-            Taboo.add(index, change_final);
-            index=(index+1) % this.dureeTaboo;
-            if (makespan < s_mem.makespan()){
-                s_mem=sol.toSchedule().get();
-            }
-            if  (sol.toSchedule().isPresent()) {
-                s = sol.toSchedule().get();
+
+            if (checkpointer != null && checkpointer.due()) {
+                checkpointer.save(instance, CHECKPOINT_KIND,
+                        new Snapshot(compteur, bestMakespan, current, s_mem, tabooUntil, visited, statistics, episode));
             }
         }
+        if (checkpointer != null) {
+            // the last state, so that a later run with more time can go on with the search
+            checkpointer.saveNow(instance, CHECKPOINT_KIND,
+                    new Snapshot(compteur, bestMakespan, current, s_mem, tabooUntil, visited, statistics, episode));
+        }
         return Optional.of(s_mem);
     }
+
+    /** Offers the best solution of the episode to the elite pool and starts a new episode from a relinked solution,
+     *  which becomes the best solution of the episode, with an empty taboo memory.
+     *
+     * Pairs of elites are relinked in turn, the best elites guiding first, until a solution the search has not
+     * visited yet is found, or the budget is exhausted. The evaluations of the relinking count in the budget.
+     * @return The makespan of the best solution of the search, which the relinked solution may improve,
+     *         or -1 if all pairs only led to visited solutions.
+     */
+    private int relink(Instance instance, Episode episode, PathRelinking relinking, int[][] tabooUntil,
+                       VisitedSet visited, int iteration, int bestMakespan, SolveBudget budget) {
+        long evaluations = budget.evaluations();
+        episode.pool.offer(episode.best, episode.bestMakespan);
+        List<ElitePool.Elite> elites = episode.pool.elites();
+        int pairs = elites.size() * (elites.size() - 1);
+        ResourceOrder start = null;
+        for (int attempt = 0; attempt < pairs && start == null && !budget.exhausted(); attempt++) {
+            int pair = episode.relinks++ % pairs;
+            int guide = pair / (elites.size() - 1);
+            int from = pair % (elites.size() - 1);
+            if (from >= guide)
+                from++;
+            start = relinking.relink(elites.get(from).order, elites.get(guide).order, budget)
+                    .filter(order -> !visited.contains(order.fingerprint()))
+                    .orElse(null);
+        }
+        statistics.evaluations += budget.evaluations() - evaluations;
+        if (start == null)
+            return -1;
+        episode.best = start.copy();
+        episode.bestMakespan = neighborhood.makespan(start);
+        statistics.evaluations++;
+        budget.evaluated(1);
+        episode.lastImprovement = iteration;
+        for (int[] row : tabooUntil)
+            Arrays.fill(row, 0);
+        visited.add(start.fingerprint());
+        statistics.restarts++;
+        if (episode.bestMakespan < bestMakespan) {
+            statistics.improvements++;
+            SolverEvents.NewBest event = new SolverEvents.NewBest();
+            if (event.shouldCommit()) {
+                event.instance = instance.name;
+                event.iteration = iteration;
+                event.makespan = episode.bestMakespan;
+                event.solver = "taboo";
+                event.commit();
+            }
+            return episode.bestMakespan;
+        }
+        return bestMakespan;
+    }
+
+    @Override
+    public boolean checkpointWith(Checkpointer checkpointer) {
+        this.checkpointer = checkpointer;
+        return true;
+    }
+
+    @Override
+    public Optional<SearchStatistics> statistics() {
+        return Optional.of(statistics);
+    }
+
+    @Override
+    public Optional<EvaluationCache> evaluationCache() {
+        return Optional.of(neighborhood.cache());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.SolutionArchive;
+import jobshop.encodings.Schedule;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/** Provides the solution of a solution archive, when there is one for the instance, and otherwise the solution
+ *  of another solver. Used as the base solver of local searches, it lets them continue from the best solution
+ *  of previous runs. */
+public class WarmStartSolver implements Solver {
+
+    final SolutionArchive archive;
+    final Solver fallback;
+
+    /** Creates a new warm start solver.
+     *
+     * @param archive Archive in which to look for a solution.
+     * @param fallback Solver used for instances that are not in the archive.
+     */
+    public WarmStartSolver(SolutionArchive archive, Solver fallback) {
+        this.archive = archive;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Optional<Schedule> solve(Instance instance, SolveBudget budget) {
+        Optional<SolutionArchive.Entry> archived;
+        try {
+            archived = archive.load(instance);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read the solution archive", e);
+        }
+        if (archived.isPresent())
+            return Optional.of(archived.get().schedule());
+        return fallback.solve(instance, budget);
+    }
+}
@@ -0,0 +1,196 @@
+package jobshop.solvers.cache;
+
+import java.util.Arrays;
+
+/** Bounded cache of solution evaluations, keyed by the fingerprint of a resource order (see ResourceOrder.fingerprint()).
+ *
+ * For each solution, the cache stores its makespan and, optionally, a summary of the blocks of its critical path
+ * (as produced by the neighborhood). The number of entries is fixed at creation; when the cache is full, an entry is
+ * evicted with the CLOCK algorithm (an approximation of LRU): each entry has a reference bit set on every hit, and the
+ * clock hand evicts the first entry whose bit is not set, clearing bits as it goes.
+ *
+ * The cache also counts hits, misses and evictions, so that its efficiency can be reported.
+ * This class is not thread safe.
+ */
+public final class EvaluationCache {
+
+    /** Value returned by makespan(long) for a solution that is not in the cache. */
+    public static final int UNKNOWN = -1;
+
+    private final int capacity;
+
+    /** Content of each entry. */
+    private final long[] keys;
+    private final int[] makespans;
+    private final int[][] blocks;
+    private final boolean[] referenced;
+    private int size;
+    private int hand;
+
+    /** Open addressing index from fingerprints to entries: index[i] is an entry number plus one, or 0 if empty. */
+    private final int[] index;
+    private final int mask;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /** Creates a new cache that holds at most capacity solutions. */
+    public EvaluationCache(int capacity) {
+        if (capacity <= 0)
+            throw new RuntimeException("Invalid cache capacity: " + capacity);
+        this.capacity = capacity;
+        this.keys = new long[capacity];
+        this.makespans = new int[capacity];
+        this.blocks = new int[capacity][];
+        this.referenced = new boolean[capacity];
+        int length = Integer.highestOneBit(2 * capacity - 1) << 1;
+        this.index = new int[length];
+        this.mask = length - 1;
+    }
+
+    /** Makespan of the solution with the given fingerprint, or UNKNOWN if it is not in the cache. */
+    public int makespan(long fingerprint) {
+        int entry = lookup(fingerprint);
+        return entry < 0 ? UNKNOWN : makespans[entry];
+    }
+
+    /** Critical blocks of the solution with the given fingerprint, or null if they are not in the cache.
+     *  The returned array must not be modified. */
+    public int[] blocks(long fingerprint) {
+        int entry = find(fingerprint);
+        if (entry < 0 || blocks[entry] == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        referenced[entry] = true;
+        return blocks[entry];
+    }
+
+    /** Records the makespan of a solution. */
+    public void put(long fingerprint, int makespan) {
+        int entry = find(fingerprint);
+        if (entry < 0)
+            entry = insert(fingerprint);
+        makespans[entry] = makespan;
+    }
+
+    /** Records the makespan and critical blocks of a solution. The blocks array must not be modified afterwards. */
+    public void put(long fingerprint, int makespan, int[] criticalBlocks) {
+        int entry = find(fingerprint);
+        if (entry < 0)
+            entry = insert(fingerprint);
+        makespans[entry] = makespan;
+        blocks[entry] = criticalBlocks;
+    }
+
+    /** Removes all entries and resets the statistics. */
+    public void clear() {
+        Arrays.fill(index, 0);
+        Arrays.fill(blocks, null);
+        Arrays.fill(referenced, false);
+        size = 0;
+        hand = 0;
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /** Number of solutions in the cache. */
+    public int size() {
+        return size;
+    }
+
+    /** Number of lookups that found the requested information. */
+    public long hits() {
+        return hits;
+    }
+
+    /** Number of lookups that did not find the requested information. */
+    public long misses() {
+        return misses;
+    }
+
+    /** Number of entries evicted to make room for new ones. */
+    public long evictions() {
+        return evictions;
+    }
+
+    /** Proportion of lookups that were hits (0 if there was no lookup). */
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d misses=%d evictions=%d hit-rate=%.1f%%", hits, misses, evictions, 100 * hitRate());
+    }
+
+    /** Finds the entry of a fingerprint and updates the statistics. */
+    private int lookup(long fingerprint) {
+        int entry = find(fingerprint);
+        if (entry < 0) {
+            misses++;
+        } else {
+            hits++;
+            referenced[entry] = true;
+        }
+        return entry;
+    }
+
+    /** Entry of the given fingerprint, or -1 if it is not in the cache. */
+    private int find(long fingerprint) {
+        for (int i = home(fingerprint); index[i] != 0; i = (i + 1) & mask) {
+            if (keys[index[i] - 1] == fingerprint)
+                return index[i] - 1;
+        }
+        return -1;
+    }
+
+    /** Creates an entry for a fingerprint that is not in the cache, evicting another one if needed. */
+    private int insert(long fingerprint) {
+        int entry;
+        if (size < capacity) {
+            entry = size++;
+        } else {
+            while (referenced[hand]) {
+                referenced[hand] = false;
+                hand = (hand + 1) % capacity;
+            }
+            entry = hand;
+            hand = (hand + 1) % capacity;
+            unindex(keys[entry]);
+            blocks[entry] = null;
+            evictions++;
+        }
+        keys[entry] = fingerprint;
+        referenced[entry] = false;
+        int i = home(fingerprint);
+        while (index[i] != 0)
+            i = (i + 1) & mask;
+        index[i] = entry + 1;
+        return entry;
+    }
+
+    /** Removes a fingerprint from the index, shifting back the following entries of its probe sequence. */
+    private void unindex(long fingerprint) {
+        int i = home(fingerprint);
+        while (keys[index[i] - 1] != fingerprint)
+            i = (i + 1) & mask;
+        for (int j = (i + 1) & mask; index[j] != 0; j = (j + 1) & mask) {
+            int h = home(keys[index[j] - 1]);
+            // the entry at j can be moved to the hole at i if its home position is not in (i, j]
+            if (((j - h) & mask) >= ((j - i) & mask)) {
+                index[i] = index[j];
+                i = j;
+            }
+        }
+        index[i] = 0;
+    }
+
+    private int home(long fingerprint) {
+        return (int) (fingerprint >>> 32 ^ fingerprint) & mask;
+    }
+}
@@ -0,0 +1,104 @@
+package jobshop.solvers.cache;
+
+import java.util.Arrays;
+
+/** Bounded set of solution fingerprints (see ResourceOrder.fingerprint()).
+ *
+ * Fingerprints are stored in a primitive open addressing table with linear probing, so that membership tests and
+ * insertions do not allocate. The memory used is fixed at creation: when the table is three quarters full,
+ * it is cleared and the set only remembers the solutions added from then on. The slots in use are also listed, so
+ * that clearing a set that holds few fingerprints does not cost as much as its capacity.
+ */
+public final class VisitedSet {
+
+    /** Value marking an empty slot. The fingerprint 0 is stored separately. */
+    private static final long EMPTY = 0L;
+
+    private final long[] table;
+    /** Slots of the table in use, the first size ones being valid. */
+    private final int[] occupied;
+    private final int mask;
+    private final int maxSize;
+    private int size;
+    private boolean containsZero;
+
+    /** Creates a new set that remembers at least capacity fingerprints before being cleared. */
+    public VisitedSet(int capacity) {
+        int length = Integer.highestOneBit(Math.max(4, capacity * 4 / 3) - 1) << 1;
+        this.table = new long[length];
+        this.mask = length - 1;
+        this.maxSize = length / 4 * 3;
+        this.occupied = new int[maxSize];
+    }
+
+    /** Returns true if the given fingerprint is in the set. */
+    public boolean contains(long fingerprint) {
+        if (fingerprint == EMPTY)
+            return containsZero;
+        for (int i = slot(fingerprint); table[i] != EMPTY; i = (i + 1) & mask) {
+            if (table[i] == fingerprint)
+                return true;
+        }
+        return false;
+    }
+
+    /** Adds a fingerprint to the set.
+     *
+     * @return True if the fingerprint was not already in the set.
+     */
+    public boolean add(long fingerprint) {
+        if (fingerprint == EMPTY) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        int i = slot(fingerprint);
+        for (; table[i] != EMPTY; i = (i + 1) & mask) {
+            if (table[i] == fingerprint)
+                return false;
+        }
+        if (size == maxSize) {
+            clear();
+            i = slot(fingerprint);
+        }
+        table[i] = fingerprint;
+        occupied[size++] = i;
+        return true;
+    }
+
+    /** Number of fingerprints in the set. */
+    public int size() {
+        return size + (containsZero ? 1 : 0);
+    }
+
+    /** Returns all fingerprints of the set, in no particular order. */
+    public long[] toArray() {
+        long[] fingerprints = new long[size()];
+        int n = 0;
+        if (containsZero)
+            fingerprints[n++] = EMPTY;
+        for (long fingerprint : table) {
+            if (fingerprint != EMPTY)
+                fingerprints[n++] = fingerprint;
+        }
+        return fingerprints;
+    }
+
+    /** Removes all fingerprints from the set. */
+    public void clear() {
+        // entries never move once inserted, so the listed slots are exactly the non empty ones
+        if (size < table.length / 16) {
+            for (int k = 0; k < size; k++)
+                table[occupied[k]] = EMPTY;
+        } else {
+            Arrays.fill(table, EMPTY);
+        }
+        size = 0;
+        containsZero = false;
+    }
+
+    private int slot(long fingerprint) {
+        // fingerprints are already well mixed, the high bits are as good as any
+        return (int) (fingerprint >>> 32 ^ fingerprint) & mask;
+    }
+}
@@ -0,0 +1,193 @@
+package jobshop.solvers.disjunctive;
+
+import jobshop.LowerBound;
+
+import java.util.Arrays;
+
+/** Carlier's branch and bound for the one-machine problem with heads and tails (1|r_j,q_j|C_max).
+ *
+ * This problem is equivalent to 1|r_j|L_max (with due dates d_j = K - q_j) and is the subproblem
+ * solved for every machine by the shifting bottleneck procedure.
+ *
+ * Each node builds a schedule with Schrage's heuristic (at any time, schedule the available task with the
+ * largest tail). If the schedule is not proven optimal, a critical task c is identified that must either be
+ * processed before or after a critical set J, which gives two children where the head or the tail of c is increased.
+ * Nodes are bounded with Jackson's preemptive schedule. The search is depth first and can be limited in number of nodes,
+ * in which case the best schedule found is returned.
+ */
+public final class Carlier {
+
+    /** Number of tasks */
+    private final int n;
+
+    /** Maximal number of nodes to explore. */
+    private final int nodeLimit;
+
+    /** Best sequence found so far and its value. */
+    private final int[] bestSequence;
+    private int bestValue;
+
+    /** Number of nodes explored so far. */
+    private int nodes;
+
+    /** Working memory for Schrage's heuristic. */
+    private final int[] sequence;
+    private final int[] start;
+    private final Integer[] byRelease;
+    private final int[] heap;
+
+    private Carlier(int n, int nodeLimit) {
+        this.n = n;
+        this.nodeLimit = nodeLimit;
+        this.bestSequence = new int[n];
+        this.bestValue = Integer.MAX_VALUE;
+        this.sequence = new int[n];
+        this.start = new int[n];
+        this.byRelease = new Integer[n];
+        this.heap = new int[n];
+    }
+
+    /** Solves the one-machine problem.
+     *
+     * @param release Head of each task.
+     * @param duration Duration of each task.
+     * @param tail Tail of each task.
+     * @param n Number of tasks (only the first n elements of the arrays are considered).
+     * @param nodeLimit Maximal number of nodes to explore. The result is optimal only if this limit is not met.
+     * @param result Array of size at least n, in which the sequence of tasks (indices in the input arrays) is stored.
+     * @return The value (maximal completion time plus tail) of the sequence.
+     */
+    public static int solve(int[] release, int[] duration, int[] tail, int n, int nodeLimit, int[] result) {
+        Carlier carlier = new Carlier(n, nodeLimit);
+        carlier.branch(Arrays.copyOf(release, n), duration, Arrays.copyOf(tail, n));
+        System.arraycopy(carlier.bestSequence, 0, result, 0, n);
+        return carlier.bestValue;
+    }
+
+    /** Explores the node with the given heads and tails. */
+    private void branch(int[] r, int[] p, int[] q) {
+        nodes++;
+        int value = schrage(r, p, q);
+        if (value < bestValue) {
+            bestValue = value;
+            System.arraycopy(sequence, 0, bestSequence, 0, n);
+        }
+        if (nodes >= nodeLimit)
+            return;
+
+        // b: last task of the sequence that realizes the value
+        int b = -1;
+        for (int i = n - 1; i >= 0 && b < 0; i--) {
+            int j = sequence[i];
+            if (start[j] + p[j] + q[j] == value)
+                b = i;
+        }
+        // a: first task such that all tasks from a to b are processed without idle time, starting at the head of a
+        int a = b;
+        for (int i = b - 1; i >= 0; i--) {
+            int j = sequence[i];
+            if (start[j] + p[j] != start[sequence[i + 1]])
+                break;
+            if (start[j] == r[j])
+                a = i;
+        }
+        // c: last task between a and b with a tail smaller than the one of b
+        int qb = q[sequence[b]];
+        int c = -1;
+        for (int i = b - 1; i >= a && c < 0; i--) {
+            if (q[sequence[i]] < qb)
+                c = i;
+        }
+        if (c < 0)
+            return; // Schrage's schedule is optimal for this node
+
+        // critical set J = tasks between c (excluded) and b (included)
+        int rJ = Integer.MAX_VALUE, qJ = Integer.MAX_VALUE, pJ = 0;
+        for (int i = c + 1; i <= b; i++) {
+            int j = sequence[i];
+            rJ = Math.min(rJ, r[j]);
+            qJ = Math.min(qJ, q[j]);
+            pJ += p[j];
+        }
+        int jc = sequence[c];
+
+        // first child: c is processed after all tasks of J
+        int oldR = r[jc];
+        r[jc] = Math.max(r[jc], rJ + pJ);
+        if (bound(r, p, q, rJ, pJ, qJ, jc) < bestValue)
+            branch(r, p, q);
+        r[jc] = oldR;
+
+        // second child: c is processed before all tasks of J
+        int oldQ = q[jc];
+        q[jc] = Math.max(q[jc], qJ + pJ);
+        if (bound(r, p, q, rJ, pJ, qJ, jc) < bestValue)
+            branch(r, p, q);
+        q[jc] = oldQ;
+    }
+
+    /** Lower bound of a node, from the preemptive schedule and the critical sets J and J + {c}. */
+    private int bound(int[] r, int[] p, int[] q, int rJ, int pJ, int qJ, int jc) {
+        int lb = rJ + pJ + qJ;
+        lb = Math.max(lb, Math.min(rJ, r[jc]) + pJ + p[jc] + Math.min(qJ, q[jc]));
+        if (lb >= bestValue)
+            return lb;
+        return Math.max(lb, LowerBound.jacksonPreemptive(r, p, q, n));
+    }
+
+    /** Schrage's heuristic: fills sequence and start, and returns the value of the schedule. */
+    private int schrage(int[] r, int[] p, int[] q) {
+        for (int i = 0; i < n; i++)
+            byRelease[i] = i;
+        Arrays.sort(byRelease, (x, y) -> Integer.compare(r[x], r[y]));
+
+        int heapSize = 0;
+        int next = 0;
+        int time = 0;
+        int value = 0;
+        for (int k = 0; k < n; k++) {
+            if (heapSize == 0 && time < r[byRelease[next]])
+                time = r[byRelease[next]];
+            while (next < n && r[byRelease[next]] <= time)
+                heapSize = push(q, heapSize, byRelease[next++]);
+
+            // available task with the largest tail
+            int j = heap[0];
+            heapSize = pop(q, heapSize);
+            sequence[k] = j;
+            start[j] = time;
+            time += p[j];
+            value = Math.max(value, time + q[j]);
+        }
+        return value;
+    }
+
+    /** Inserts a task in the max-heap of tasks ordered by tail. Returns the new size of the heap. */
+    private int push(int[] q, int size, int j) {
+        int i = size;
+        while (i > 0 && q[heap[(i - 1) / 2]] < q[j]) {
+            heap[i] = heap[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        heap[i] = j;
+        return size + 1;
+    }
+
+    /** Removes the top of the max-heap of tasks ordered by tail. Returns the new size of the heap. */
+    private int pop(int[] q, int size) {
+        int last = heap[--size];
+        int i = 0;
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && q[heap[child + 1]] > q[heap[child]])
+                child++;
+            if (q[heap[child]] <= q[last])
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (size > 0)
+            heap[i] = last;
+        return size;
+    }
+}
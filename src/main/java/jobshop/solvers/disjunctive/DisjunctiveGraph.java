@@ -0,0 +1,236 @@
+package jobshop.solvers.disjunctive;
+
+import jobshop.Instance;
+import jobshop.encodings.Schedule;
+
+import java.util.Arrays;
+
+/** Disjunctive graph of a jobshop instance, with a partial selection of machine arcs.
+ *
+ * Each task (j,t) is a node identified by its index j * numTasks + t. Conjunctive arcs between consecutive tasks
+ * of a job are implicit. Machine (disjunctive) arcs are added and removed explicitly, which allows to represent
+ * any partial selection: complete sequences of some machines (shifting bottleneck) or individual precedence
+ * constraints between tasks of the same machine (branch and bound).
+ *
+ * Heads and tails (longest paths from the source to a task and from a task to the sink) are computed on demand
+ * in linear time in the number of arcs.
+ */
+public final class DisjunctiveGraph {
+
+    /** Instance from which the graph was created. */
+    public final Instance instance;
+
+    /** Number of nodes in the graph (excluding source and sink) */
+    public final int numOps;
+
+    final int numTasks;
+
+    /** Duration of each node. */
+    final int[] duration;
+
+    /** succ[op][0..numSucc[op]-1] are the machine successors of op in the selection. */
+    private int[][] succ;
+    private final int[] numSucc;
+
+    /** Number of machine predecessors of each node in the selection. */
+    private final int[] numPred;
+
+    /** Working memory for the topological sort */
+    private final int[] order;
+    private final int[] inDegree;
+
+    /** Creates a new graph with no machine arc selected. */
+    public DisjunctiveGraph(Instance instance) {
+        this.instance = instance;
+        this.numTasks = instance.numTasks;
+        this.numOps = instance.numJobs * instance.numTasks;
+        this.duration = new int[numOps];
+        for (int j = 0; j < instance.numJobs; j++) {
+            for (int t = 0; t < numTasks; t++) {
+                duration[op(j, t)] = instance.duration(j, t);
+            }
+        }
+        this.succ = new int[numOps][2];
+        this.numSucc = new int[numOps];
+        this.numPred = new int[numOps];
+        this.order = new int[numOps];
+        this.inDegree = new int[numOps];
+    }
+
+    /** Creates a copy of the given graph, with the same selection. */
+    public DisjunctiveGraph(DisjunctiveGraph original) {
+        this.instance = original.instance;
+        this.numTasks = original.numTasks;
+        this.numOps = original.numOps;
+        this.duration = original.duration;
+        this.succ = new int[numOps][];
+        for (int op = 0; op < numOps; op++) {
+            this.succ[op] = original.succ[op].clone();
+        }
+        this.numSucc = original.numSucc.clone();
+        this.numPred = original.numPred.clone();
+        this.order = new int[numOps];
+        this.inDegree = new int[numOps];
+    }
+
+    /** Index of the node representing the given task. */
+    public int op(int job, int task) {
+        return job * numTasks + task;
+    }
+
+    /** Job of the given node. */
+    public int job(int op) {
+        return op / numTasks;
+    }
+
+    /** Task number (in its job) of the given node. */
+    public int task(int op) {
+        return op % numTasks;
+    }
+
+    /** Duration of the given node. */
+    public int duration(int op) {
+        return duration[op];
+    }
+
+    /** Adds a precedence from one task to another (that should be on the same machine). */
+    public void addArc(int from, int to) {
+        if (numSucc[from] == succ[from].length)
+            succ[from] = Arrays.copyOf(succ[from], 2 * succ[from].length);
+        succ[from][numSucc[from]++] = to;
+        numPred[to]++;
+    }
+
+    /** Removes a precedence previously added with addArc. */
+    public void removeArc(int from, int to) {
+        for (int i = 0; i < numSucc[from]; i++) {
+            if (succ[from][i] == to) {
+                succ[from][i] = succ[from][--numSucc[from]];
+                numPred[to]--;
+                return;
+            }
+        }
+        throw new RuntimeException("No arc from " + from + " to " + to);
+    }
+
+    /** Returns true if there is an arc from one task to the other in the selection. */
+    public boolean hasArc(int from, int to) {
+        for (int i = 0; i < numSucc[from]; i++) {
+            if (succ[from][i] == to)
+                return true;
+        }
+        return false;
+    }
+
+    /** Number of machine predecessors of the given node in the selection. */
+    public int numPredecessors(int op) {
+        return numPred[op];
+    }
+
+    /** Number of machine successors of the given node in the selection. */
+    public int numSuccessors(int op) {
+        return numSucc[op];
+    }
+
+    /** i-th machine successor of the given node in the selection (in no particular order). */
+    public int successor(int op, int i) {
+        return succ[op][i];
+    }
+
+    /** Adds arcs between consecutive tasks of the given sequence. */
+    public void addSequence(int[] sequence, int length) {
+        for (int i = 0; i < length - 1; i++)
+            addArc(sequence[i], sequence[i + 1]);
+    }
+
+    /** Removes arcs between consecutive tasks of the given sequence. */
+    public void removeSequence(int[] sequence, int length) {
+        for (int i = 0; i < length - 1; i++)
+            removeArc(sequence[i], sequence[i + 1]);
+    }
+
+    /** Computes a topological order of the nodes in the order array.
+     *
+     * @return False if the selection contains a cycle.
+     */
+    private boolean topologicalOrder() {
+        int size = 0;
+        for (int op = 0; op < numOps; op++) {
+            inDegree[op] = numPred[op] + (op % numTasks == 0 ? 0 : 1);
+            if (inDegree[op] == 0)
+                order[size++] = op;
+        }
+        for (int i = 0; i < size; i++) {
+            int op = order[i];
+            if ((op + 1) % numTasks != 0 && --inDegree[op + 1] == 0)
+                order[size++] = op + 1;
+            for (int k = 0; k < numSucc[op]; k++) {
+                if (--inDegree[succ[op][k]] == 0)
+                    order[size++] = succ[op][k];
+            }
+        }
+        return size == numOps;
+    }
+
+    /** Computes the heads of all nodes: length of the longest path from the source to the node.
+     * This is the earliest start time of each task for the current selection.
+     *
+     * @param heads Array, of size numOps, in which to store the heads.
+     * @return False if the selection contains a cycle, in which case the content of heads is unspecified.
+     */
+    public boolean heads(int[] heads) {
+        if (!topologicalOrder())
+            return false;
+        Arrays.fill(heads, 0);
+        for (int i = 0; i < numOps; i++) {
+            int op = order[i];
+            int end = heads[op] + duration[op];
+            if ((op + 1) % numTasks != 0)
+                heads[op + 1] = Math.max(heads[op + 1], end);
+            for (int k = 0; k < numSucc[op]; k++) {
+                int s = succ[op][k];
+                heads[s] = Math.max(heads[s], end);
+            }
+        }
+        return true;
+    }
+
+    /** Computes the tails of all nodes: length of the longest path from the end of the node to the sink
+     * (the duration of the node itself is not included).
+     *
+     * @param tails Array, of size numOps, in which to store the tails.
+     * @return False if the selection contains a cycle, in which case the content of tails is unspecified.
+     */
+    public boolean tails(int[] tails) {
+        if (!topologicalOrder())
+            return false;
+        for (int i = numOps - 1; i >= 0; i--) {
+            int op = order[i];
+            int tail = 0;
+            if ((op + 1) % numTasks != 0)
+                tail = tails[op + 1] + duration[op + 1];
+            for (int k = 0; k < numSucc[op]; k++) {
+                int s = succ[op][k];
+                tail = Math.max(tail, tails[s] + duration[s]);
+            }
+            tails[op] = tail;
+        }
+        return true;
+    }
+
+    /** Length of the longest path in the graph, given the heads of all nodes. */
+    public int makespan(int[] heads) {
+        int makespan = 0;
+        for (int op = 0; op < numOps; op++)
+            makespan = Math.max(makespan, heads[op] + duration[op]);
+        return makespan;
+    }
+
+    /** Builds a schedule in which each task starts at its head. */
+    public Schedule toSchedule(int[] heads) {
+        Schedule schedule = new Schedule(instance);
+        for (int op = 0; op < numOps; op++)
+            schedule.setStartTime(job(op), task(op), heads[op]);
+        return schedule;
+    }
+}
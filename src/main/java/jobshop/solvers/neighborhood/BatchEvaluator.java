@@ -0,0 +1,280 @@
+package jobshop.solvers.neighborhood;
+
+import jobshop.Instance;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Task;
+
+import java.util.Arrays;
+import java.util.List;
+
+/** Evaluates many neighbors of a solution together, instead of decoding them one at a time.
+ *
+ * Neighbors are obtained by swapping two consecutive tasks a and b of a machine. The start times of up to
+ * {@code lanes} neighbors are stored side by side (structure of arrays): end[task * lanes + k] is the end time of a
+ * task in the k-th neighbor, so that the evaluation is a single walk over the tasks, in a topological order of the
+ * current solution, whose inner loop over the lanes has no branch and can be vectorized by the JIT.
+ *
+ * A swap changes the machine predecessors of a, b and of the task following b, which are handled after the inner
+ * loop for the lanes concerned. The only arc of a neighbor that goes backward in the topological order is b -> a,
+ * and the start time of b in the neighbor does not depend on a, so it is computed beforehand. This requires the swap
+ * not to create a cycle, which is guaranteed when b starts exactly when a ends in the current solution (always the
+ * case for the swaps of critical blocks) and durations are positive. Other swaps are evaluated one by one.
+ *
+ * This class is not thread safe.
+ */
+public final class BatchEvaluator {
+
+    /** Default number of neighbors evaluated together. */
+    public static final int DEFAULT_LANES = 16;
+
+    private final int lanes;
+
+    // instance whose structure is below; tasks are indexed by job * numTasks + task, and the index numOps stands
+    // for a missing predecessor, whose end time is always 0
+    private Instance instance;
+    private int numOps;
+    private boolean positiveDurations;
+    private int[] duration;
+    private int[] jobPred;
+    private int[] lastOfJob;
+
+    // structure of the solution being evaluated
+    private int[] release;
+    private int[] machinePred;
+    private int[] machineSucc;
+    private int[] topological;
+    private int[] rank;
+    private int[] baseEnd;
+    private int[] nextByJob;
+    private int[] nextByMachine;
+    private int[] machinesToCheck;
+
+    // end times of the neighbors, one lane per neighbor
+    private int[] end;
+    private final int[] makespans;
+    private final int[] chunk;
+
+    // changes of machine predecessors: linked lists of (lane, predecessor) entries for each task
+    private int[] overrideHead;
+    private final int[] overrideNext;
+    private final int[] overrideLane;
+    private final int[] overridePred;
+
+    /** Creates an evaluator of {@code lanes} neighbors at a time. */
+    public BatchEvaluator(int lanes) {
+        if (lanes < 1)
+            throw new RuntimeException("At least one lane is needed");
+        this.lanes = lanes;
+        this.makespans = new int[lanes];
+        this.chunk = new int[lanes];
+        this.overrideNext = new int[3 * lanes];
+        this.overrideLane = new int[3 * lanes];
+        this.overridePred = new int[3 * lanes];
+    }
+
+    /** Creates an evaluator of DEFAULT_LANES neighbors at a time. */
+    public BatchEvaluator() {
+        this(DEFAULT_LANES);
+    }
+
+    /** Makespans of the neighbors obtained by applying each swap to the given order, which is left unchanged.
+     *  The makespan of a neighbor that has no feasible schedule is ResourceOrder.INFEASIBLE. */
+    public int[] makespans(ResourceOrder order, List<Nowicki.Swap> swaps) {
+        int[] result = new int[swaps.size()];
+        if (swaps.isEmpty())
+            return result;
+        if (!prepare(order)) {
+            for (int i = 0; i < result.length; i++)
+                result[i] = evaluate(order, swaps.get(i));
+            return result;
+        }
+        int count = 0;
+        for (int i = 0; i < result.length; i++) {
+            Nowicki.Swap swap = swaps.get(i);
+            if (!batchable(order, swap)) {
+                result[i] = evaluate(order, swap);
+                continue;
+            }
+            chunk[count++] = i;
+            if (count == lanes) {
+                evaluateChunk(order, swaps, count, result);
+                count = 0;
+            }
+        }
+        if (count > 0)
+            evaluateChunk(order, swaps, count, result);
+        return result;
+    }
+
+    /** Evaluates a single neighbor by decoding it. */
+    private static int evaluate(ResourceOrder order, Nowicki.Swap swap) {
+        swap.apply(order);
+        int makespan = order.evaluate();
+        swap.undo(order);
+        return makespan;
+    }
+
+    private int index(Task t) {
+        return t.job * instance.numTasks + t.task;
+    }
+
+    /** True if the swap exchanges consecutive tasks and cannot create a cycle. */
+    private boolean batchable(ResourceOrder order, Nowicki.Swap swap) {
+        if (!positiveDurations || swap.t2 != swap.t1 + 1)
+            return false;
+        int a = index(order.getTaskOfMachine(swap.machine, swap.t1));
+        int b = index(order.getTaskOfMachine(swap.machine, swap.t2));
+        // any other path from a to b would go through the next task of the job of a, so b would start later
+        return baseEnd[b] - duration[b] == baseEnd[a];
+    }
+
+    /** Allocates the working memory for the instance of the order, and computes a topological order of its tasks
+     *  with their end times. Returns false if the order has no feasible schedule. */
+    private boolean prepare(ResourceOrder order) {
+        if (order.instance != instance) {
+            instance = order.instance;
+            int numTasks = instance.numTasks;
+            numOps = instance.numJobs * numTasks;
+            duration = new int[numOps];
+            jobPred = new int[numOps];
+            lastOfJob = new int[instance.numJobs];
+            positiveDurations = true;
+            for (int j = 0; j < instance.numJobs; j++) {
+                for (int t = 0; t < numTasks; t++) {
+                    int i = j * numTasks + t;
+                    duration[i] = instance.duration(j, t);
+                    jobPred[i] = t == 0 ? numOps : i - 1;
+                    positiveDurations &= duration[i] > 0;
+                }
+                lastOfJob[j] = j * numTasks + numTasks - 1;
+            }
+            release = new int[numOps];
+            machinePred = new int[numOps];
+            machineSucc = new int[numOps];
+            topological = new int[numOps];
+            rank = new int[numOps];
+            baseEnd = new int[numOps + 1];
+            nextByJob = new int[instance.numJobs];
+            nextByMachine = new int[instance.numMachines];
+            machinesToCheck = new int[instance.numMachines + numOps];
+            end = new int[(numOps + 1) * lanes];
+            overrideHead = new int[numOps];
+            Arrays.fill(overrideHead, -1);
+        }
+
+        int numTasks = instance.numTasks;
+        int numJobs = instance.numJobs;
+        for (int m = 0; m < instance.numMachines; m++) {
+            int previous = numOps;
+            for (int p = 0; p < numJobs; p++) {
+                int i = index(order.getTaskOfMachine(m, p));
+                machinePred[i] = previous;
+                if (previous != numOps)
+                    machineSucc[previous] = i;
+                previous = i;
+            }
+            machineSucc[previous] = numOps;
+        }
+        for (int j = 0; j < numJobs; j++) {
+            for (int t = 0; t < numTasks; t++)
+                release[j * numTasks + t] = order.releaseTime(j, t);
+        }
+
+        // same traversal as ResourceOrder.evaluate(), recording the order in which tasks are scheduled
+        Arrays.fill(nextByJob, 0);
+        Arrays.fill(nextByMachine, 0);
+        int numToCheck = 0;
+        for (int m = 0; m < instance.numMachines; m++)
+            machinesToCheck[numToCheck++] = m;
+        int scheduled = 0;
+        while (numToCheck > 0) {
+            int m = machinesToCheck[--numToCheck];
+            while (nextByMachine[m] < numJobs) {
+                Task t = order.getTaskOfMachine(m, nextByMachine[m]);
+                if (t.task != nextByJob[t.job])
+                    break;
+                int i = index(t);
+                baseEnd[i] = Math.max(Math.max(baseEnd[jobPred[i]], baseEnd[machinePred[i]]), release[i]) + duration[i];
+                rank[i] = scheduled;
+                topological[scheduled++] = i;
+                nextByMachine[m]++;
+                nextByJob[t.job]++;
+                if (t.task + 1 < numTasks)
+                    machinesToCheck[numToCheck++] = instance.machine(t.job, t.task + 1);
+            }
+        }
+        return scheduled == numOps;
+    }
+
+    /** Records that, in the given lane, the machine predecessor of a task is pred. */
+    private int override(int entries, int task, int lane, int pred) {
+        overrideLane[entries] = lane;
+        overridePred[entries] = pred;
+        overrideNext[entries] = overrideHead[task];
+        overrideHead[task] = entries;
+        return entries + 1;
+    }
+
+    /** Evaluates the swaps whose indices are in the first count elements of chunk. */
+    private void evaluateChunk(ResourceOrder order, List<Nowicki.Swap> swaps, int count, int[] result) {
+        final int k = lanes;
+        int entries = 0;
+        int firstChanged = numOps;
+        for (int lane = 0; lane < count; lane++) {
+            Nowicki.Swap swap = swaps.get(chunk[lane]);
+            int a = index(order.getTaskOfMachine(swap.machine, swap.t1));
+            int b = index(order.getTaskOfMachine(swap.machine, swap.t2));
+            int afterB = machineSucc[b];
+            // b now starts after the machine predecessor of a, and is the only predecessor that comes later in
+            // the topological order: its end time in the neighbor is set before the walk
+            entries = override(entries, b, lane, machinePred[a]);
+            entries = override(entries, a, lane, b);
+            if (afterB != numOps)
+                entries = override(entries, afterB, lane, a);
+            end[b * k + lane] = Math.max(Math.max(baseEnd[jobPred[b]], baseEnd[machinePred[a]]), release[b])
+                    + duration[b];
+            firstChanged = Math.min(firstChanged, rank[a]);
+        }
+
+        // tasks before the first swapped one have the same end time in all neighbors
+        for (int r = 0; r < firstChanged; r++) {
+            int i = topological[r];
+            Arrays.fill(end, i * k, i * k + k, baseEnd[i]);
+        }
+        for (int r = firstChanged; r < numOps; r++) {
+            int i = topological[r];
+            int row = i * k;
+            int jobRow = jobPred[i] * k;
+            int machineRow = machinePred[i] * k;
+            int d = duration[i];
+            int rel = release[i];
+            for (int lane = 0; lane < k; lane++)
+                end[row + lane] = Math.max(Math.max(end[jobRow + lane], end[machineRow + lane]), rel) + d;
+            for (int e = overrideHead[i]; e >= 0; e = overrideNext[e]) {
+                int lane = overrideLane[e];
+                end[row + lane] = Math.max(Math.max(end[jobRow + lane], end[overridePred[e] * k + lane]), rel) + d;
+            }
+        }
+
+        // the makespan is the latest end of the last tasks of the jobs
+        Arrays.fill(makespans, 0);
+        for (int last : lastOfJob) {
+            int row = last * k;
+            for (int lane = 0; lane < k; lane++)
+                makespans[lane] = Math.max(makespans[lane], end[row + lane]);
+        }
+        for (int lane = 0; lane < count; lane++)
+            result[chunk[lane]] = makespans[lane];
+
+        // forget the changes of this chunk
+        for (int lane = 0; lane < count; lane++) {
+            Nowicki.Swap swap = swaps.get(chunk[lane]);
+            int a = index(order.getTaskOfMachine(swap.machine, swap.t1));
+            int b = index(order.getTaskOfMachine(swap.machine, swap.t2));
+            overrideHead[a] = -1;
+            overrideHead[b] = -1;
+            if (machineSucc[b] != numOps)
+                overrideHead[machineSucc[b]] = -1;
+        }
+    }
+}
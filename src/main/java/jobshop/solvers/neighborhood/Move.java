@@ -0,0 +1,25 @@
+package jobshop.solvers.neighborhood;
+
+import jobshop.encodings.ResourceOrder;
+
+/** A modification of a solution in the ResourceOrder encoding that is performed in place and can be reverted.
+ *
+ * This allows to evaluate a neighbor without copying the current solution:
+ * apply the move, evaluate the modified solution and undo the move.
+ */
+public interface Move {
+
+    /** Performs the move on the given resource order. */
+    void apply(ResourceOrder order);
+
+    /** Reverts the move on a resource order on which it was just applied. */
+    void undo(ResourceOrder order);
+
+    /** Creates a new ResourceOrder that is the result of performing the move in the original ResourceOrder.
+     *  The original ResourceOrder is not modified by this operation. */
+    default ResourceOrder generateFrom(ResourceOrder original) {
+        ResourceOrder ro = original.copy();
+        apply(ro);
+        return ro;
+    }
+}
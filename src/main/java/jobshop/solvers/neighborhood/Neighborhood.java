@@ -1,7 +1,9 @@
 package jobshop.solvers.neighborhood;
 
 import jobshop.encodings.ResourceOrder;
+import jobshop.solvers.cache.EvaluationCache;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /** For a particular solution in the ResourceOrder encoding, a neighborhood allows the generation of its neighbors:
@@ -9,7 +11,37 @@ import java.util.List;
  */
 public abstract class Neighborhood {
 
-    /** Generates all neighbors for the current solution.  */
-    public abstract List<ResourceOrder> generateNeighbors(ResourceOrder current);
+    /** Maximal number of solutions whose evaluation is kept in the cache. */
+    public static final int CACHE_CAPACITY = 1 << 16;
 
+    /** Evaluations of the solutions seen by this neighborhood, shared with the solvers that use it. */
+    protected final EvaluationCache cache = new EvaluationCache(CACHE_CAPACITY);
+
+    /** Generates all moves leading from the current solution to one of its neighbors. */
+    public abstract List<? extends Move> moves(ResourceOrder current);
+
+    /** Generates all neighbors for the current solution.
+     *  Each neighbor is a copy of the current solution: searches should rather apply and undo moves. */
+    public List<ResourceOrder> generateNeighbors(ResourceOrder current) {
+        List<ResourceOrder> neighbors = new ArrayList<>();
+        for (Move move : moves(current))
+            neighbors.add(move.generateFrom(current));
+        return neighbors;
+    }
+
+    /** Cache of evaluations used by this neighborhood. */
+    public EvaluationCache cache() {
+        return cache;
+    }
+
+    /** Makespan of the given solution, or ResourceOrder.INFEASIBLE if it is not feasible.
+     *  The solution is only evaluated if its makespan is not in the cache. */
+    public int makespan(ResourceOrder order) {
+        int makespan = cache.makespan(order.fingerprint());
+        if (makespan == EvaluationCache.UNKNOWN) {
+            makespan = order.evaluate();
+            cache.put(order.fingerprint(), makespan);
+        }
+        return makespan;
+    }
 }
@@ -3,12 +3,12 @@ package jobshop.solvers.neighborhood;
 import jobshop.encodings.ResourceOrder;
 import jobshop.encodings.Schedule;
 import jobshop.encodings.Task;
+import jobshop.solvers.cache.EvaluationCache;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /** Implementation of the Nowicki and Smutnicki neighborhood.
  *
@@ -19,6 +19,9 @@ import java.util.stream.Collectors;
  */
 public class Nowicki extends Neighborhood {
 
+    /** Evaluator of the neighbors that are not in the cache. */
+    private final BatchEvaluator batch = new BatchEvaluator();
+
     /** A block represents a subsequence of the critical path such that all tasks in it execute on the same machine.
      * This class identifies a block in a ResourceOrder representation.
      *
@@ -40,7 +43,7 @@ public class Nowicki extends Neighborhood {
         public final int lastTask;
 
         /** Creates a new block. */
-        Block(int machine, int firstTask, int lastTask) {
+        public Block(int machine, int firstTask, int lastTask) {
             this.machine = machine;
             this.firstTask = firstTask;
             this.lastTask = lastTask;
@@ -66,7 +69,7 @@ public class Nowicki extends Neighborhood {
      * machine 1 : (2,1) (0,2) (1,1)
      * machine 2 : ...
      */
-    public static class Swap {
+    public static class Swap implements Move {
         /** machine on which to perform the swap */
         public final int machine;
 
@@ -78,7 +81,7 @@ public class Nowicki extends Neighborhood {
         public final int t2;
 
         /** Creates a new swap of two tasks. */
-        Swap(int machine, int t1, int t2) {
+        public Swap(int machine, int t1, int t2) {
             this.machine = machine;
             if (t1 < t2) {
                 this.t1 = t1;
@@ -94,21 +97,16 @@ public class Nowicki extends Neighborhood {
             return "Machine "+this.machine+" : "+this.t1+"<->"+this.t2;
         }
 
-        /** Creates a new ResourceOrder order that is the result of performing the swap in the original ResourceOrder.
-         *  The original ResourceOrder MUST NOT be modified by this operation.
-         */
-        public ResourceOrder generateFrom(ResourceOrder original) {
-
-
-            ResourceOrder ro = original.copy();
-            ro.swapTasks(this.machine, this.t1, this.t2);
+        /** Exchanges the two tasks in the given ResourceOrder. */
+        @Override
+        public void apply(ResourceOrder order) {
+            order.swapTasks(this.machine, this.t1, this.t2);
+        }
 
-            if (ro.toSchedule().isPresent()) {
-                return ro;
-            }
-            else {
-                throw new UnsupportedOperationException();
-            }
+        /** A swap is its own inverse. */
+        @Override
+        public void undo(ResourceOrder order) {
+            order.swapTasks(this.machine, this.t1, this.t2);
         }
 
         @Override
@@ -127,10 +125,8 @@ public class Nowicki extends Neighborhood {
 
 
     @Override
-    public List<ResourceOrder> generateNeighbors(ResourceOrder current) {
-        // convert the list of swaps into a list of neighbors (function programming FTW)
-        return allSwaps(current).stream().map(swap -> swap.generateFrom(current)).collect(Collectors.toList());
-
+    public List<Swap> moves(ResourceOrder current) {
+        return allSwaps(current);
     }
 
     /** Generates all swaps of the given ResourceOrder.
@@ -145,11 +141,48 @@ public class Nowicki extends Neighborhood {
         return neighbors;
     }
 
-    /** Returns a list of all the blocks of the critical path. */
+    /** Makespans of the neighbors obtained by applying each swap to the current solution, which is left unchanged.
+     *  The neighbors that are not in the cache are evaluated together by a BatchEvaluator, and added to the cache. */
+    public int[] makespans(ResourceOrder current, List<Swap> swaps) {
+        int[] makespans = new int[swaps.size()];
+        long[] fingerprints = new long[swaps.size()];
+        List<Swap> missing = new ArrayList<>();
+        for (int i = 0; i < swaps.size(); i++) {
+            Swap swap = swaps.get(i);
+            swap.apply(current);
+            fingerprints[i] = current.fingerprint();
+            swap.undo(current);
+            makespans[i] = cache.makespan(fingerprints[i]);
+            if (makespans[i] == EvaluationCache.UNKNOWN)
+                missing.add(swap);
+        }
+        if (missing.isEmpty())
+            return makespans;
+        int[] evaluated = batch.makespans(current, missing);
+        for (int i = 0, next = 0; i < swaps.size(); i++) {
+            if (makespans[i] == EvaluationCache.UNKNOWN) {
+                makespans[i] = evaluated[next++];
+                cache.put(fingerprints[i], makespans[i]);
+            }
+        }
+        return makespans;
+    }
+
+    /** Returns a list of all the blocks of the critical path.
+     *  The blocks of solutions already seen are retrieved from the cache instead of decoding the solution. */
     public List<Block> blocksOfCriticalPath(ResourceOrder order) {
 
         List<Block> result = new ArrayList<>();
 
+        // blocks are cached as (machine, firstTask, lastTask) triplets
+        int[] cached = cache.blocks(order.fingerprint());
+        if (cached != null) {
+            for (int i = 0; i < cached.length; i += 3) {
+                result.add(new Block(cached[i], cached[i + 1], cached[i + 2]));
+            }
+            return result;
+        }
+
         Optional<Schedule> s = order.toSchedule();
         List<Task> criticalPath;
 
@@ -160,44 +193,28 @@ public class Nowicki extends Neighborhood {
             throw new UnsupportedOperationException();
         }
 
-        int machine_avant = order.instance.machine(criticalPath.get(0));
-        int machine_ici;
-        Task first_task = criticalPath.get(0);
-        boolean first = true;
-
-        for (int i = 1; i < criticalPath.size(); i++) {
-            machine_ici = order.instance.machine(criticalPath.get(i));
-
-            // Beginning of a chain
-            if (machine_ici == machine_avant && first) {
-                first_task = criticalPath.get(i-1);
-                first = false;
-
-                if (i == criticalPath.size()-1) {
-                    int index1 = order.getPositionForMachine(machine_ici, first_task);
-                    int index2 = order.getPositionForMachine(machine_ici, criticalPath.get(i));
-                    result.add(new Block(machine_avant, index1, index2));
-                }
+        // group consecutive tasks of the critical path that execute on the same machine
+        int blockStart = 0;
+        for (int i = 1; i <= criticalPath.size(); i++) {
+            int machine = order.instance.machine(criticalPath.get(i - 1));
+            if (i < criticalPath.size() && order.instance.machine(criticalPath.get(i)) == machine)
+                continue;
+            // tasks blockStart to i-1 form a maximal sequence on the same machine, it is a block if it has two tasks or more
+            if (i - blockStart >= 2) {
+                int index1 = order.getPositionForMachine(machine, criticalPath.get(blockStart));
+                int index2 = order.getPositionForMachine(machine, criticalPath.get(i - 1));
+                result.add(new Block(machine, index1, index2));
             }
-            // If first is false then we are in a chain
-            // We remember the beginning task with first
-            // If the current machine and the previous machine are different, it's the end of the chain
-            // Then we can add a block with first and previous
-
-            else if (!first && machine_ici != machine_avant) {
-                int index1 = order.getPositionForMachine(machine_avant, first_task);
-                int index2 = order.getPositionForMachine(machine_avant, criticalPath.get(i-1));
-                result.add(new Block(machine_avant, index1, index2));
-                first = true;
-            }
-
-            else {
-                machine_avant = machine_ici;
-            }
-
-
+            blockStart = i;
         }
 
+        int[] summary = new int[3 * result.size()];
+        for (int i = 0; i < result.size(); i++) {
+            summary[3 * i] = result.get(i).machine;
+            summary[3 * i + 1] = result.get(i).firstTask;
+            summary[3 * i + 2] = result.get(i).lastTask;
+        }
+        cache.put(order.fingerprint(), s.get().makespan(), summary);
         return result;
     }
 
@@ -209,7 +226,8 @@ public class Nowicki extends Neighborhood {
         Swap s1 = new Swap(block.machine, block.firstTask+1, block.firstTask);
         l.add(s1);
 
-        if (block.lastTask - block.firstTask > 2) {
+        // a block of two tasks has a single swap
+        if (block.lastTask - block.firstTask >= 2) {
 
             Swap s2 = new Swap(block.machine, block.lastTask, block.lastTask-1);
             l.add(s2);
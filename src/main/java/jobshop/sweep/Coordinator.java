@@ -0,0 +1,390 @@
+package jobshop.sweep;
+
+import jobshop.BestKnownResults;
+import jobshop.solvers.Solver;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/** Coordinator of a sweep distributed over several JVMs, possibly on several hosts.
+ *
+ * The sweep is split in work units (an instance, a solver and a seed), that are handed one at a time to the workers
+ * connected over TCP (see Worker). The protocol is line based, in UTF-8:
+ *  - the worker says "HELLO name",
+ *  - the coordinator sends "UNIT id solver seed timeout instance-name", the instance file and a line "END",
+ *  - the worker answers "RESULT id makespan runtime" or "ERROR id message",
+ *  - and so on, until the coordinator says "DONE" when all units have a result.
+ * A unit whose worker disconnects or does not answer within its timeout plus a grace delay is given to another
+ * worker, at most MAX_ATTEMPTS times. The sweep fails if no worker is connected for a given delay, e.g. because all
+ * of them crashed.
+ *
+ * This class is the entry point of the "coordinate" command of Main.
+ */
+public final class Coordinator implements AutoCloseable {
+
+    static final int DEFAULT_PORT = 7171;
+
+    /** Number of times a unit is sent to workers before being considered as failed. */
+    static final int MAX_ATTEMPTS = 3;
+
+    /** Time after the timeout of a unit after which a worker that did not answer is considered dead. */
+    static final long GRACE_MS = 10_000;
+
+    /** Time without any connected worker after which the sweep fails, by default. */
+    static final long DEFAULT_IDLE_TIMEOUT_MS = 60_000;
+
+    private final List<WorkUnit> units;
+    private final ServerSocket serverSocket;
+    private final LinkedBlockingDeque<WorkUnit> pending;
+    private final CountDownLatch remaining;
+    private final List<Socket> connections = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger connectedWorkers = new AtomicInteger();
+    private final AtomicInteger redispatched = new AtomicInteger();
+    private Consumer<WorkUnit> listener = unit -> {};
+
+    /** Creates a coordinator for the given units, listening on the given address (port 0 for any free port). */
+    public Coordinator(List<WorkUnit> units, InetAddress bindAddress, int port) throws IOException {
+        this.units = units;
+        this.pending = new LinkedBlockingDeque<>(units);
+        this.remaining = new CountDownLatch(units.size());
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(bindAddress, port));
+    }
+
+    /** Creates the units of the sweep of all instances with all solvers and seeds 1 to numSeeds. */
+    public static List<WorkUnit> units(List<Path> instances, List<String> solvers, int numSeeds, long timeoutMs)
+            throws IOException {
+        List<WorkUnit> units = new ArrayList<>();
+        for (Path path : instances) {
+            String text = Files.readString(path);
+            for (String solver : solvers) {
+                for (long seed = 1; seed <= numSeeds; seed++) {
+                    units.add(new WorkUnit(units.size(), path.getFileName().toString(), text, solver, seed, timeoutMs));
+                }
+            }
+        }
+        return units;
+    }
+
+    /** Port on which the coordinator listens. */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /** Number of workers currently connected. */
+    public int connectedWorkers() {
+        return connectedWorkers.get();
+    }
+
+    /** Number of times a unit was given again to a worker after the loss of another one. */
+    public int redispatched() {
+        return redispatched.get();
+    }
+
+    /** Hands the units to the workers that connect, until all units have a result, failing if no worker is connected
+     *  for DEFAULT_IDLE_TIMEOUT_MS. */
+    public List<WorkUnit> run(Consumer<WorkUnit> onResult) throws InterruptedException, IOException {
+        return run(onResult, DEFAULT_IDLE_TIMEOUT_MS);
+    }
+
+    /** Hands the units to the workers that connect, until all units have a result.
+     *
+     * @param onResult Called (from the thread of the worker) each time a unit gets its result.
+     * @param idleTimeoutMs Time without any connected worker after which the sweep fails.
+     * @return All units, with their results.
+     * @throws IOException If no worker was connected for idleTimeoutMs while units had no result.
+     */
+    public List<WorkUnit> run(Consumer<WorkUnit> onResult, long idleTimeoutMs) throws InterruptedException, IOException {
+        this.listener = onResult;
+        Thread acceptor = new Thread(() -> {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.add(socket);
+                    Thread connection = new Thread(() -> serve(socket), "sweep-connection");
+                    connection.setDaemon(true);
+                    connection.start();
+                } catch (IOException e) {
+                    // the server socket was closed
+                }
+            }
+        }, "sweep-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        long lastLive = System.currentTimeMillis();
+        while (!remaining.await(100, TimeUnit.MILLISECONDS)) {
+            long now = System.currentTimeMillis();
+            if (connectedWorkers.get() > 0)
+                lastLive = now;
+            else if (now - lastLive > idleTimeoutMs)
+                throw new IOException("No worker connected for " + idleTimeoutMs + " ms, " + remaining.getCount()
+                        + " units have no result");
+        }
+        return units;
+    }
+
+    /** Sends units to a worker until there are no more or the worker is lost. */
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String hello = in.readLine();
+            if (hello == null || !hello.startsWith("HELLO "))
+                return;
+            String worker = hello.substring("HELLO ".length());
+            connectedWorkers.incrementAndGet();
+            try {
+                WorkUnit unit;
+                while ((unit = next()) != null) {
+                    try {
+                        out.write(String.format("UNIT %d %s %d %d %s%n", unit.id, unit.solver, unit.seed, unit.timeoutMs,
+                                unit.instanceName));
+                        out.write(unit.instanceText);
+                        out.write(unit.instanceText.endsWith("\n") ? "END\n" : "\nEND\n");
+                        out.flush();
+                        socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, unit.timeoutMs + GRACE_MS));
+                        String reply = in.readLine();
+                        if (reply == null)
+                            throw new IOException("connection closed");
+                        String[] fields = reply.split(" ", 3);
+                        if (fields.length < 3 || Integer.parseInt(fields[1]) != unit.id)
+                            throw new IOException("unexpected reply: " + reply);
+                        if (fields[0].equals("RESULT")) {
+                            String[] values = fields[2].split(" ");
+                            record(unit, worker, Integer.parseInt(values[0]), Long.parseLong(values[1]), null);
+                        } else if (fields[0].equals("ERROR"))
+                            record(unit, worker, -1, 0, fields[2]);
+                        else
+                            throw new IOException("unexpected reply: " + reply);
+                    } catch (IOException | RuntimeException e) {
+                        lost(unit, worker, e);
+                        return;
+                    }
+                }
+                out.write("DONE\n");
+                out.flush();
+            } finally {
+                connectedWorkers.decrementAndGet();
+            }
+        } catch (IOException e) {
+            // the worker left before getting a unit, or after its last one
+        }
+    }
+
+    /** Next unit to solve, or null once all units have a result. Waits while units are being solved by other
+     *  workers, as they may come back if a worker is lost. */
+    private WorkUnit next() {
+        try {
+            while (remaining.getCount() > 0) {
+                WorkUnit unit = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (unit != null) {
+                    unit.attempts++;
+                    return unit;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /** Gives a unit back to the other workers after the loss of its worker, or fails it after too many attempts. */
+    private void lost(WorkUnit unit, String worker, Exception cause) {
+        System.err.println("Lost worker " + worker + " while solving " + unit + ": " + cause);
+        if (unit.attempts >= MAX_ATTEMPTS) {
+            record(unit, worker, -1, 0, "failed " + unit.attempts + " times, last time with " + cause);
+        } else {
+            redispatched.incrementAndGet();
+            pending.addFirst(unit);
+        }
+    }
+
+    private synchronized void record(WorkUnit unit, String worker, int makespan, long runtimeMs, String error) {
+        unit.makespan = makespan;
+        unit.runtimeMs = runtimeMs;
+        unit.worker = worker;
+        unit.error = error;
+        listener.accept(unit);
+        remaining.countDown();
+    }
+
+    /** Stops listening and closes the connections to the workers. */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        synchronized (connections) {
+            for (Socket socket : connections)
+                socket.close();
+        }
+    }
+
+    /** Prints a table with one line per instance and solver: number of runs, best and mean makespan over the seeds,
+     *  and distance of the mean to the best known result. */
+    public static void printSummary(List<WorkUnit> units, PrintStream output) {
+        Map<String, List<WorkUnit>> cells = new LinkedHashMap<>();
+        for (WorkUnit unit : units)
+            cells.computeIfAbsent(unit.instanceName + " " + unit.solver, key -> new ArrayList<>()).add(unit);
+
+        output.printf("%-10s %-18s %5s %6s %8s %9s %6s%n", "instance", "solver", "runs", "failed", "best", "mean", "ecart");
+        for (List<WorkUnit> cell : cells.values()) {
+            WorkUnit first = cell.get(0);
+            int best = Integer.MAX_VALUE;
+            long sum = 0;
+            int runs = 0;
+            for (WorkUnit unit : cell) {
+                if (unit.succeeded()) {
+                    best = Math.min(best, unit.makespan);
+                    sum += unit.makespan;
+                    runs++;
+                }
+            }
+            double mean = runs == 0 ? Double.NaN : (double) sum / runs;
+            String dist = "-";
+            if (runs > 0 && BestKnownResults.isKnown(first.instanceName)) {
+                int bestKnown = BestKnownResults.of(first.instanceName);
+                dist = String.format("%5.1f", 100 * (mean - bestKnown) / bestKnown);
+            }
+            output.printf("%-10s %-18s %5d %6d %8s %9.1f %6s%n", first.instanceName, first.solver, runs,
+                    cell.size() - runs, runs == 0 ? "-" : String.valueOf(best), mean, dist);
+        }
+    }
+
+    /** Command line entry point, used by the "coordinate" command of Main. */
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("jsp-solver coordinate").build()
+                .defaultHelp(true)
+                .description("Distributes a sweep (instances x solvers x seeds) over workers started with the work " +
+                        "command, on this host or on others.");
+        parser.addArgument("--instance")
+                .nargs("+")
+                .required(true)
+                .help("Instances to solve (prefixes of known instances or paths to instance files).");
+        parser.addArgument("--solver")
+                .nargs("+")
+                .required(true)
+                .help("Solvers to run (\"all\" for all solvers).");
+        parser.addArgument("--seeds")
+                .setDefault(1)
+                .type(Integer.class)
+                .help("Number of seeds for each instance and solver.");
+        parser.addArgument("-t", "--timeout")
+                .setDefault(1000L)
+                .type(Long.class)
+                .help("Time given to each solve, in milliseconds.");
+        parser.addArgument("--port")
+                .setDefault(DEFAULT_PORT)
+                .type(Integer.class)
+                .help("Port on which workers connect.");
+        parser.addArgument("--bind")
+                .setDefault("127.0.0.1")
+                .help("Address on which to listen (e.g. 0.0.0.0 to accept workers from other hosts).");
+        parser.addArgument("--local-workers")
+                .setDefault(0)
+                .type(Integer.class)
+                .help("Number of worker JVMs to start on this host.");
+        parser.addArgument("--idle-timeout")
+                .setDefault(DEFAULT_IDLE_TIMEOUT_MS)
+                .type(Long.class)
+                .help("Time without any connected worker after which the sweep fails, in milliseconds.");
+        parser.addArgument("--output")
+                .setDefault("sweep.csv")
+                .help("CSV file in which to write the result of each unit.");
+
+        Namespace ns = null;
+        try {
+            ns = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+
+        List<Process> localWorkers = new ArrayList<>();
+        try {
+            List<Path> instances = new ArrayList<>();
+            for (String prefix : ns.<String>getList("instance")) {
+                List<String> matches = BestKnownResults.instancesMatching(prefix);
+                if (!matches.isEmpty()) {
+                    for (String match : matches)
+                        instances.add(Paths.get("instances", match));
+                } else if (Files.isRegularFile(Paths.get(prefix))) {
+                    instances.add(Paths.get(prefix));
+                } else {
+                    throw new RuntimeException("Instance prefix \"" + prefix + "\" does not match any instance");
+                }
+            }
+            List<String> solvers = ns.getList("solver");
+            if (solvers.contains("all"))
+                solvers = Solver.NAMES;
+            List<WorkUnit> units = units(instances, solvers, ns.getInt("seeds"), ns.getLong("timeout"));
+
+            try (Coordinator coordinator = new Coordinator(units, InetAddress.getByName(ns.getString("bind")), ns.getInt("port"));
+                 PrintStream csv = new PrintStream(Files.newOutputStream(Paths.get(ns.getString("output"))))) {
+                System.out.println("Waiting for workers on port " + coordinator.port() + " (" + units.size() + " units)");
+                for (int i = 0; i < ns.getInt("local_workers"); i++)
+                    localWorkers.add(startLocalWorker(coordinator.port(), "local-" + i));
+
+                csv.println("instance,solver,seed,makespan,runtime_ms,worker,error");
+                AtomicInteger done = new AtomicInteger();
+                coordinator.run(unit -> {
+                    // results are streamed as they arrive
+                    csv.printf("%s,%s,%d,%s,%d,%s,%s%n", unit.instanceName, unit.solver, unit.seed,
+                            unit.succeeded() ? String.valueOf(unit.makespan) : "", unit.runtimeMs, unit.worker,
+                            unit.error == null ? "" : unit.error.replace(',', ';'));
+                    csv.flush();
+                    System.out.printf("[%d/%d] %-10s %-18s seed=%-3d %s (%s)%n", done.incrementAndGet(), units.size(),
+                            unit.instanceName, unit.solver, unit.seed,
+                            unit.succeeded() ? "makespan=" + unit.makespan : "FAILED: " + unit.error, unit.worker);
+                }, ns.getLong("idle_timeout"));
+                System.out.println();
+                printSummary(units, System.out);
+                if (coordinator.redispatched() > 0)
+                    System.out.println(coordinator.redispatched() + " units were given again to another worker");
+            }
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Process worker : localWorkers)
+                worker.destroy();
+        }
+    }
+
+    /** Starts a worker in a new JVM, with the same class path as this one. */
+    static Process startLocalWorker(int port, String name) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), "jobshop.Main", "work",
+                "--host", "127.0.0.1", "--port", String.valueOf(port), "--name", name)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+}
@@ -0,0 +1,45 @@
+package jobshop.sweep;
+
+/** One cell of a sweep: an instance solved by a solver with a seed, and the result once it is known. */
+public final class WorkUnit {
+
+    /** Number of the unit in the sweep. */
+    public final int id;
+    /** Name of the instance. */
+    public final String instanceName;
+    /** Content of the instance, in the format of the instance files, so that workers do not need the files. */
+    final String instanceText;
+    public final String solver;
+    public final long seed;
+    /** Time given to the solver, in milliseconds. */
+    public final long timeoutMs;
+
+    /** Number of times the unit was sent to a worker. */
+    int attempts;
+
+    /** Result of the unit: makespan (or -1 if it failed), runtime in milliseconds and worker that computed it. */
+    public int makespan = -1;
+    public long runtimeMs;
+    public String worker;
+    /** Reason of the failure, if the unit failed. */
+    public String error;
+
+    WorkUnit(int id, String instanceName, String instanceText, String solver, long seed, long timeoutMs) {
+        this.id = id;
+        this.instanceName = instanceName;
+        this.instanceText = instanceText;
+        this.solver = solver;
+        this.seed = seed;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /** True if the unit has a result. */
+    public boolean succeeded() {
+        return makespan >= 0;
+    }
+
+    @Override
+    public String toString() {
+        return instanceName + "/" + solver + "/" + seed;
+    }
+}
@@ -0,0 +1,131 @@
+package jobshop.sweep;
+
+import jobshop.Instance;
+import jobshop.encodings.Schedule;
+import jobshop.solvers.Solver;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/** Worker of a distributed sweep: connects to a coordinator, and solves the work units it receives until the
+ *  coordinator has no more of them. See Coordinator for the protocol.
+ *  This class is the entry point of the "work" command of Main. */
+public final class Worker {
+
+    private Worker() {}
+
+    /** Time during which the connection to the coordinator is retried, e.g. if the coordinator starts later. */
+    static final long CONNECT_TIMEOUT_MS = 10_000;
+
+    /** Connects to a coordinator and solves its work units.
+     *
+     * @return The number of units solved.
+     */
+    public static int run(String host, int port, String name) throws IOException, InterruptedException {
+        int solved = 0;
+        try (Socket socket = connect(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            out.write("HELLO " + name + "\n");
+            out.flush();
+            String line;
+            while ((line = in.readLine()) != null && !line.equals("DONE")) {
+                // UNIT id solver seed timeout name, followed by the instance and a line END
+                String[] fields = line.split(" ", 6);
+                if (!fields[0].equals("UNIT") || fields.length != 6)
+                    throw new IOException("Unexpected message from the coordinator: " + line);
+                StringBuilder text = new StringBuilder();
+                String instanceLine;
+                while ((instanceLine = in.readLine()) != null && !instanceLine.equals("END"))
+                    text.append(instanceLine).append('\n');
+                if (instanceLine == null)
+                    throw new IOException("Connection closed by the coordinator");
+
+                out.write(solve(fields, text.toString()) + "\n");
+                out.flush();
+                solved++;
+            }
+        }
+        return solved;
+    }
+
+    /** Solves a unit and returns the reply to send: RESULT id makespan runtime, or ERROR id message. */
+    private static String solve(String[] unit, String instanceText) {
+        String id = unit[1];
+        try {
+            Instance instance = Instance.fromString(unit[5], instanceText);
+            Solver solver = Solver.getSolver(unit[2], Long.parseLong(unit[3]), null);
+            long start = System.currentTimeMillis();
+            Optional<Schedule> result = solver.solve(instance, start + Long.parseLong(unit[4]), Integer.MAX_VALUE);
+            long runtime = System.currentTimeMillis() - start;
+            if (result.isEmpty() || !result.get().isValid())
+                return "ERROR " + id + " no valid schedule";
+            return "RESULT " + id + " " + result.get().makespan() + " " + runtime;
+        } catch (RuntimeException e) {
+            return "ERROR " + id + " " + e.toString().replace('\n', ' ');
+        }
+    }
+
+    private static Socket connect(String host, int port) throws IOException, InterruptedException {
+        long giveUp = System.currentTimeMillis() + CONNECT_TIMEOUT_MS;
+        while (true) {
+            try {
+                return new Socket(host, port);
+            } catch (ConnectException e) {
+                if (System.currentTimeMillis() > giveUp)
+                    throw e;
+                Thread.sleep(200);
+            }
+        }
+    }
+
+    /** Command line entry point, used by the "work" command of Main. */
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("jsp-solver work").build()
+                .defaultHelp(true)
+                .description("Solves the work units of a sweep coordinator (see the coordinate command).");
+        parser.addArgument("--host")
+                .setDefault("127.0.0.1")
+                .help("Host of the coordinator.");
+        parser.addArgument("--port")
+                .setDefault(Coordinator.DEFAULT_PORT)
+                .type(Integer.class)
+                .help("Port of the coordinator.");
+        parser.addArgument("--name")
+                .help("Name of the worker in the results (default: host name and process id).");
+
+        Namespace ns = null;
+        try {
+            ns = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+
+        try {
+            String name = ns.getString("name");
+            if (name == null)
+                name = InetAddress.getLocalHost().getHostName() + "-" + ProcessHandle.current().pid();
+            int solved = run(ns.getString("host"), ns.getInt("port"), name);
+            System.err.println("Worker " + name + " done, " + solved + " units solved");
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package jobshop.tuning;
+
+import jobshop.Instance;
+import jobshop.SolutionArchive;
+import jobshop.encodings.Schedule;
+import jobshop.solvers.Checkpointer;
+import jobshop.solvers.DescentSolver;
+import jobshop.solvers.GifflerThompsonSolver;
+import jobshop.solvers.GreedySolver;
+import jobshop.solvers.SearchStatistics;
+import jobshop.solvers.SolveBudget;
+import jobshop.solvers.ShiftingBottleneckSolver;
+import jobshop.solvers.Solver;
+import jobshop.solvers.TabooSolver;
+import jobshop.solvers.WarmStartSolver;
+import jobshop.solvers.cache.EvaluationCache;
+import jobshop.solvers.neighborhood.Nowicki;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+
+/** Values of the parameters of a local search, which are fixed in the solvers of Solver.getSolver.
+ *
+ * A configuration is written as SEARCH_START:tenure=T,restarts=R,iter=I, e.g.
+ * "taboo_sb:tenure=12,restarts=0,iter=500", which is also accepted as a solver name by Solver.getSolver, so that
+ * tuned configurations can be used directly. The iterated local search also has the parameters perturbation,
+ * strength and acceptance, e.g. "ils_sb:tenure=0,restarts=0,iter=0,perturbation=bottleneck_shuffle,strength=4,
+ * acceptance=annealing".
+ * Parameters that have no effect on a search (the tenure and the iterations of a descent or of the iterated local
+ * search, the restarts of a deterministic start) are set to 0, and the ones of the iterated local search to their
+ * default, so that equivalent configurations are equal.
+ */
+public final class Configuration {
+
+    /** Local searches. */
+    public static final List<String> SEARCHES = List.of("taboo", "taboo_pr", "descent", "descent_first", "descent_restart", "ils");
+
+    /** Heuristics building the initial solution: shifting bottleneck, randomized greedy or Giffler-Thompson. */
+    public static final List<String> STARTS = List.of("sb", "spt", "lrpt", "est_spt", "est_lrpt", "gt");
+
+    public final String search;
+    public final String start;
+    /** Number of elite solutions kept by the path relinking of taboo_pr. */
+    static final int ELITE_SIZE = 8;
+    /** Number of iterations without improvement after which taboo_pr relinks. */
+    static final int STAGNATION = 30;
+
+    /** Number of iterations during which a swap cannot be undone (taboo only). */
+    public final int tenure;
+    /** Number of constructions of the initial solution (randomized starts only). */
+    public final int restarts;
+    /** Maximal number of iterations of the search (taboo only, the descents run until the budget is exhausted). */
+    public final int maxIter;
+    /** How local optima are perturbed (ils only). */
+    public final DescentSolver.Perturbation perturbation;
+    /** Number of random swaps of a perturbation (ils only). */
+    public final int strength;
+    /** Which local optima the search continues from (ils only). */
+    public final DescentSolver.Acceptance acceptance;
+
+    public Configuration(String search, String start, int tenure, int restarts, int maxIter) {
+        this(search, start, tenure, restarts, maxIter, DescentSolver.Perturbation.CRITICAL_SWAPS,
+                DescentSolver.DEFAULT_STRENGTH, DescentSolver.Acceptance.BETTER_OR_EQUAL);
+    }
+
+    public Configuration(String search, String start, int tenure, int restarts, int maxIter,
+                         DescentSolver.Perturbation perturbation, int strength, DescentSolver.Acceptance acceptance) {
+        if (!SEARCHES.contains(search))
+            throw new RuntimeException("Unknown search: " + search);
+        if (!STARTS.contains(start))
+            throw new RuntimeException("Unknown start: " + start);
+        if (tenure < 0 || restarts < 0 || maxIter < 0 || strength < 1)
+            throw new RuntimeException("Parameters must be positive");
+        boolean ils = search.equals("ils");
+        boolean taboo = search.startsWith("taboo");
+        this.search = search;
+        this.start = start;
+        this.tenure = taboo ? tenure : 0;
+        this.restarts = start.equals("sb") ? 0 : Math.max(1, restarts);
+        this.maxIter = taboo ? maxIter : 0;
+        this.perturbation = ils ? perturbation : DescentSolver.Perturbation.CRITICAL_SWAPS;
+        this.strength = ils ? strength : DescentSolver.DEFAULT_STRENGTH;
+        this.acceptance = ils ? acceptance : DescentSolver.Acceptance.BETTER_OR_EQUAL;
+    }
+
+    /** Parses a configuration written by toString. */
+    public static Configuration parse(String text) {
+        String[] parts = text.split(":", 2);
+        String kind = parts[0];
+        // the search may contain underscores, the start is after the last one that gives a known search
+        int split = -1;
+        for (int i = kind.indexOf('_'); i >= 0; i = kind.indexOf('_', i + 1)) {
+            if (SEARCHES.contains(kind.substring(0, i)) && STARTS.contains(kind.substring(i + 1)))
+                split = i;
+        }
+        if (split < 0)
+            throw new RuntimeException("Invalid configuration: " + text);
+        int tenure = 10;
+        int restarts = 100;
+        int maxIter = 150;
+        DescentSolver.Perturbation perturbation = DescentSolver.Perturbation.CRITICAL_SWAPS;
+        int strength = DescentSolver.DEFAULT_STRENGTH;
+        DescentSolver.Acceptance acceptance = DescentSolver.Acceptance.BETTER_OR_EQUAL;
+        if (parts.length > 1 && !parts[1].isEmpty()) {
+            // parameters are separated by ';' in CSV files
+            for (String parameter : parts[1].split("[,;]")) {
+                String[] keyValue = parameter.split("=", 2);
+                if (keyValue.length != 2)
+                    throw new RuntimeException("Invalid parameter: " + parameter);
+                String value = keyValue[1];
+                switch (keyValue[0]) {
+                    case "tenure": tenure = Integer.parseInt(value); break;
+                    case "restarts": restarts = Integer.parseInt(value); break;
+                    case "iter": maxIter = Integer.parseInt(value); break;
+                    case "perturbation": perturbation = DescentSolver.Perturbation.valueOf(value.toUpperCase(Locale.ROOT)); break;
+                    case "strength": strength = Integer.parseInt(value); break;
+                    case "acceptance": acceptance = DescentSolver.Acceptance.valueOf(value.toUpperCase(Locale.ROOT)); break;
+                    default: throw new RuntimeException("Unknown parameter: " + keyValue[0]);
+                }
+            }
+        }
+        return new Configuration(kind.substring(0, split), kind.substring(split + 1), tenure, restarts, maxIter,
+                perturbation, strength, acceptance);
+    }
+
+    /** Creates a solver with this configuration. Its maximal number of iterations replaces the one given to solve.
+     *
+     * @param seed Seed from which the sources of randomness of the solver are initialized.
+     * @param archive If not null, the search starts from the solution of this archive when it has one.
+     */
+    public Solver create(long seed, SolutionArchive archive) {
+        Random seeds = new Random(seed);
+        Solver base;
+        switch (start) {
+            case "sb": base = new ShiftingBottleneckSolver(); break;
+            case "gt": base = new GifflerThompsonSolver(GreedySolver.Priority.EST_LRPT, GifflerThompsonSolver.Mode.ACTIVE,
+                    0.05, restarts, new Random(seeds.nextLong())); break;
+            default: base = new GreedySolver(GreedySolver.Priority.valueOf(start.toUpperCase(Locale.ROOT)), true, restarts,
+                    new Random(seeds.nextLong()));
+        }
+        if (archive != null)
+            base = new WarmStartSolver(archive, base);
+        Solver search;
+        switch (this.search) {
+            case "taboo": search = new TabooSolver(new Nowicki(), base, tenure); break;
+            case "taboo_pr": search = new TabooSolver(new Nowicki(), base, tenure, ELITE_SIZE, STAGNATION); break;
+            case "descent": search = new DescentSolver(new Nowicki(), base); break;
+            case "descent_first": search = new DescentSolver(new Nowicki(), base,
+                    DescentSolver.Strategy.FIRST_IMPROVEMENT, new Random(seeds.nextLong())); break;
+            case "ils": search = new DescentSolver(new Nowicki(), base, perturbation, strength, acceptance,
+                    new Random(seeds.nextLong())); break;
+            default: search = new DescentSolver(new Nowicki(), base,
+                    DescentSolver.Strategy.RANDOM_RESTART, new Random(seeds.nextLong()));
+        }
+        return new Configured(search, maxIter);
+    }
+
+    /** Solver that runs another one with a fixed maximal number of iterations. */
+    private static final class Configured implements Solver {
+        final Solver solver;
+        final int maxIter;
+
+        Configured(Solver solver, int maxIter) {
+            this.solver = solver;
+            this.maxIter = maxIter;
+        }
+
+        @Override
+        public Optional<Schedule> solve(Instance instance, SolveBudget budget) {
+            return solver.solve(instance, budget.withIterations(maxIter));
+        }
+
+        @Override
+        public Optional<EvaluationCache> evaluationCache() {
+            return solver.evaluationCache();
+        }
+
+        @Override
+        public Optional<SearchStatistics> statistics() {
+            return solver.statistics();
+        }
+
+        @Override
+        public boolean checkpointWith(Checkpointer checkpointer) {
+            return solver.checkpointWith(checkpointer);
+        }
+    }
+
+    @Override
+    public String toString() {
+        String text = search + "_" + start + ":tenure=" + tenure + ",restarts=" + restarts + ",iter=" + maxIter;
+        if (search.equals("ils"))
+            text += ",perturbation=" + perturbation.name().toLowerCase(Locale.ROOT) + ",strength=" + strength
+                    + ",acceptance=" + acceptance.name().toLowerCase(Locale.ROOT);
+        return text;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Configuration that = (Configuration) o;
+        return tenure == that.tenure && restarts == that.restarts && maxIter == that.maxIter
+                && strength == that.strength && perturbation == that.perturbation && acceptance == that.acceptance
+                && search.equals(that.search) && start.equals(that.start);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(search, start, tenure, restarts, maxIter, perturbation, strength, acceptance);
+    }
+}
@@ -0,0 +1,184 @@
+package jobshop.tuning;
+
+import java.util.Arrays;
+
+/** Friedman test and its post-hoc comparisons, used to eliminate configurations during a race.
+ *
+ * The results of k configurations on b blocks (instance and seed) are replaced by their ranks in each block, which
+ * makes them comparable across instances of different sizes. The test checks whether at least one configuration
+ * ranks differently from the others, and the post-hoc comparisons (Conover) which configurations are significantly
+ * worse than the best one. This is the test of F-race (Birattari et al.), with the formulas of irace.
+ */
+public final class Friedman {
+
+    private Friedman() {}
+
+    /** Ranks of the costs of each block, from 1 for the lowest cost; tied costs get the average of their ranks. */
+    public static double[][] ranks(double[][] costs) {
+        double[][] ranks = new double[costs.length][];
+        for (int b = 0; b < costs.length; b++) {
+            double[] block = costs[b];
+            Integer[] order = new Integer[block.length];
+            for (int i = 0; i < order.length; i++)
+                order[i] = i;
+            Arrays.sort(order, (i, j) -> Double.compare(block[i], block[j]));
+            ranks[b] = new double[block.length];
+            for (int first = 0; first < order.length; ) {
+                int last = first;
+                while (last + 1 < order.length && block[order[last + 1]] == block[order[first]])
+                    last++;
+                double rank = (first + last) / 2.0 + 1;
+                for (int i = first; i <= last; i++)
+                    ranks[b][order[i]] = rank;
+                first = last + 1;
+            }
+        }
+        return ranks;
+    }
+
+    /** Sum of the ranks of each configuration (none if there are no blocks). */
+    public static double[] rankSums(double[][] ranks) {
+        double[] sums = new double[ranks.length == 0 ? 0 : ranks[0].length];
+        for (double[] block : ranks) {
+            for (int j = 0; j < block.length; j++)
+                sums[j] += block[j];
+        }
+        return sums;
+    }
+
+    /** p-value of the Friedman test: probability that rank sums at least as different as the observed ones occur
+     *  if all configurations are equivalent. */
+    public static double pValue(double[][] ranks) {
+        int b = ranks.length;
+        int k = ranks[0].length;
+        double[] sums = rankSums(ranks);
+        double a = sumOfSquares(ranks);
+        double c = b * k * (k + 1) * (k + 1) / 4.0;
+        if (a - c <= 0)
+            return 1; // all configurations tied in all blocks
+        double statistic = 0;
+        for (double sum : sums)
+            statistic += (sum - b * (k + 1) / 2.0) * (sum - b * (k + 1) / 2.0);
+        statistic *= (k - 1) / (a - c);
+        return chiSquareSurvival(statistic, k - 1);
+    }
+
+    /** Configurations that are significantly worse than the best one (lowest rank sum) at the given level.
+     *  Nothing is eliminated unless the Friedman test rejects the equivalence of all configurations. */
+    public static boolean[] worseThanBest(double[][] ranks, double alpha) {
+        int b = ranks.length;
+        int k = ranks[0].length;
+        boolean[] worse = new boolean[k];
+        if (b < 2 || k < 2 || pValue(ranks) >= alpha)
+            return worse;
+        double[] sums = rankSums(ranks);
+        double best = Arrays.stream(sums).min().getAsDouble();
+        double squaredSums = 0;
+        for (double sum : sums)
+            squaredSums += sum * sum;
+        int df = (b - 1) * (k - 1);
+        double threshold = studentQuantile(1 - alpha / 2, df)
+                * Math.sqrt(2 * (b * sumOfSquares(ranks) - squaredSums) / df);
+        for (int j = 0; j < k; j++)
+            worse[j] = sums[j] - best > threshold;
+        return worse;
+    }
+
+    private static double sumOfSquares(double[][] ranks) {
+        double a = 0;
+        for (double[] block : ranks) {
+            for (double rank : block)
+                a += rank * rank;
+        }
+        return a;
+    }
+
+    /** P(X > x) for a chi-square distribution with the given degrees of freedom. */
+    static double chiSquareSurvival(double x, int degrees) {
+        if (x <= 0)
+            return 1;
+        return upperGamma(degrees / 2.0, x / 2);
+    }
+
+    /** Regularized upper incomplete gamma function Q(a, x), by its series or its continued fraction. */
+    static double upperGamma(double a, double x) {
+        double logPrefix = -x + a * Math.log(x) - logGamma(a);
+        if (x < a + 1) {
+            double term = 1 / a;
+            double sum = term;
+            for (int n = 1; n < 1000 && Math.abs(term) > Math.abs(sum) * 1e-15; n++) {
+                term *= x / (a + n);
+                sum += term;
+            }
+            return Math.max(0, 1 - sum * Math.exp(logPrefix));
+        }
+        // modified Lentz algorithm
+        double tiny = 1e-300;
+        double b = x + 1 - a;
+        double c = 1 / tiny;
+        double d = 1 / b;
+        double h = d;
+        for (int n = 1; n < 1000; n++) {
+            double an = -n * (n - a);
+            b += 2;
+            d = an * d + b;
+            if (Math.abs(d) < tiny) d = tiny;
+            c = b + an / c;
+            if (Math.abs(c) < tiny) c = tiny;
+            d = 1 / d;
+            double delta = d * c;
+            h *= delta;
+            if (Math.abs(delta - 1) < 1e-15)
+                break;
+        }
+        return Math.exp(logPrefix) * h;
+    }
+
+    /** Logarithm of the gamma function (Lanczos approximation). */
+    static double logGamma(double x) {
+        double[] coefficients = {76.18009172947146, -86.50532032941677, 24.01409824083091,
+                -1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5};
+        double y = x;
+        double tmp = x + 5.5;
+        tmp -= (x + 0.5) * Math.log(tmp);
+        double series = 1.000000000190015;
+        for (double coefficient : coefficients)
+            series += coefficient / ++y;
+        return -tmp + Math.log(2.5066282746310005 * series / x);
+    }
+
+    /** Quantile of the standard normal distribution (Acklam's algorithm, relative error below 1.2e-9). */
+    static double normalQuantile(double p) {
+        double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01};
+        double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00, 3.754408661907416e+00};
+        if (p < 0.02425) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - 0.02425)
+            return -normalQuantile(1 - p);
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+
+    /** Quantile of the Student t distribution, by the Cornish-Fisher expansion around the normal quantile
+     *  (accurate to about 1e-3 from 3 degrees of freedom, which races always have). */
+    static double studentQuantile(double p, int degrees) {
+        double z = normalQuantile(p);
+        double v = degrees;
+        double z2 = z * z;
+        return z
+                + z * (z2 + 1) / (4 * v)
+                + z * ((5 * z2 + 16) * z2 + 3) / (96 * v * v)
+                + z * (((3 * z2 + 19) * z2 + 17) * z2 - 15) / (384 * v * v * v)
+                + z * ((((79 * z2 + 776) * z2 + 1482) * z2 - 1920) * z2 - 945) / (92160 * v * v * v * v);
+    }
+}
@@ -0,0 +1,201 @@
+package jobshop.tuning;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.encodings.Schedule;
+import jobshop.solvers.SolveBudget;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/** Race of configurations on a sequence of blocks (an instance and a seed), in the style of F-race.
+ *
+ * All configurations still in the race solve each block with the same CPU time, so that runs in parallel are not
+ * penalized by the load of the machine. After the first blocks, configurations
+ * that a Friedman test finds significantly worse than the best one are eliminated, so that the following blocks are
+ * spent on the promising ones. The race ends when a single configuration is left, when all blocks were used or when
+ * the budget of runs is exhausted.
+ */
+public final class Race {
+
+    /** An instance solved with a given seed by all configurations of the race. */
+    public static final class Block {
+        public final Instance instance;
+        public final long seed;
+
+        public Block(Instance instance, long seed) {
+            this.instance = instance;
+            this.seed = seed;
+        }
+
+        @Override
+        public String toString() {
+            return instance.name + "/" + seed;
+        }
+    }
+
+    /** Configurations left at the end of a race, from the best to the worst. */
+    public static final class Result {
+        public final List<Configuration> survivors;
+        /** Average gap of each survivor to the lower bound of the instances, in the order of survivors. */
+        public final List<Double> meanGaps;
+        /** Number of blocks solved. */
+        public final int blocks;
+        /** Number of runs of solvers. */
+        public final int runs;
+
+        Result(List<Configuration> survivors, List<Double> meanGaps, int blocks, int runs) {
+            this.survivors = survivors;
+            this.meanGaps = meanGaps;
+            this.blocks = blocks;
+            this.runs = runs;
+        }
+
+        /** Best configuration of the race. */
+        public Configuration best() {
+            return survivors.get(0);
+        }
+    }
+
+    final List<Configuration> configurations;
+    final List<Block> blocks;
+    final long timeMs;
+    final int firstTest;
+    final double alpha;
+    final int budget;
+
+    /** Creates a race.
+     *
+     * @param configurations Configurations that enter the race.
+     * @param blocks Blocks, in the order in which they are solved.
+     * @param timeMs CPU time given to each run, in milliseconds.
+     * @param firstTest Number of blocks solved before the first elimination.
+     * @param alpha Significance level of the tests.
+     * @param budget Maximal number of runs (0 for no limit), at least one block with all configurations.
+     */
+    public Race(List<Configuration> configurations, List<Block> blocks, long timeMs, int firstTest, double alpha, int budget) {
+        if (configurations.isEmpty() || blocks.isEmpty())
+            throw new RuntimeException("A race needs configurations and blocks");
+        if (budget < 0 || (budget > 0 && budget < configurations.size()))
+            throw new RuntimeException("The budget of " + budget + " runs does not allow to run the "
+                    + configurations.size() + " configurations once");
+        this.configurations = List.copyOf(configurations);
+        this.blocks = List.copyOf(blocks);
+        this.timeMs = timeMs;
+        this.firstTest = Math.max(2, firstTest);
+        this.alpha = alpha;
+        this.budget = budget;
+    }
+
+    /** Runs the race, the runs of a block being spread on the threads of the executor.
+     *  When few configurations are left, several blocks are solved at once to keep the threads busy. */
+    public Result run(ExecutorService executor, int threads, PrintStream log) {
+        List<Integer> alive = new ArrayList<>();
+        for (int c = 0; c < configurations.size(); c++)
+            alive.add(c);
+        // costs.get(b)[c] is the gap of configuration c on block b (only meaningful for configurations alive then)
+        List<double[]> costs = new ArrayList<>();
+        int runs = 0;
+
+        // a single configuration still solves the first blocks, to get its mean gap
+        while (costs.size() < blocks.size() && (alive.size() > 1 || costs.isEmpty())
+                && (budget == 0 || runs + alive.size() <= budget)) {
+            int count = Math.max(1, threads / alive.size());
+            count = Math.min(count, blocks.size() - costs.size());
+            if (budget > 0)
+                count = Math.min(count, (budget - runs) / alive.size());
+
+            // solve the next blocks with all configurations still in the race
+            List<List<Future<Double>>> pending = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                Block block = blocks.get(costs.size() + i);
+                List<Future<Double>> futures = new ArrayList<>();
+                for (int c : alive)
+                    futures.add(executor.submit(() -> gap(configurations.get(c), block)));
+                pending.add(futures);
+            }
+            for (List<Future<Double>> futures : pending) {
+                double[] cost = new double[configurations.size()];
+                for (int i = 0; i < alive.size(); i++)
+                    cost[alive.get(i)] = get(futures.get(i));
+                costs.add(cost);
+                runs += alive.size();
+            }
+
+            if (alive.size() > 1 && costs.size() >= firstTest) {
+                double[][] ranks = Friedman.ranks(matrix(costs, alive));
+                boolean[] worse = Friedman.worseThanBest(ranks, alpha);
+                List<Integer> survivors = new ArrayList<>();
+                for (int i = 0; i < alive.size(); i++) {
+                    if (!worse[i])
+                        survivors.add(alive.get(i));
+                }
+                if (log != null && survivors.size() < alive.size())
+                    log.printf("  block %d/%d: %d configurations eliminated, %d left (p=%.4f)%n", costs.size(),
+                            blocks.size(), alive.size() - survivors.size(), survivors.size(), Friedman.pValue(ranks));
+                alive = survivors;
+            }
+        }
+
+        // order the survivors by their rank sums, then by their average gap
+        double[][] ranks = Friedman.ranks(matrix(costs, alive));
+        double[] sums = Friedman.rankSums(ranks);
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < alive.size(); i++)
+            order.add(i);
+        List<Double> gaps = new ArrayList<>();
+        for (int c : alive) {
+            double total = 0;
+            for (double[] cost : costs)
+                total += cost[c];
+            gaps.add(total / costs.size());
+        }
+        order.sort(Comparator.<Integer>comparingDouble(i -> sums[i]).thenComparingDouble(gaps::get));
+        List<Configuration> survivors = new ArrayList<>();
+        List<Double> meanGaps = new ArrayList<>();
+        for (int i : order) {
+            survivors.add(configurations.get(alive.get(i)));
+            meanGaps.add(gaps.get(i));
+        }
+        return new Result(survivors, meanGaps, costs.size(), runs);
+    }
+
+    /** Costs of the configurations still alive, one row per block. */
+    private static double[][] matrix(List<double[]> costs, List<Integer> alive) {
+        double[][] matrix = new double[costs.size()][alive.size()];
+        for (int b = 0; b < costs.size(); b++) {
+            for (int i = 0; i < alive.size(); i++)
+                matrix[b][i] = costs.get(b)[alive.get(i)];
+        }
+        return matrix;
+    }
+
+    /** Relative distance between the makespan found by a configuration and the lower bound of the instance.
+     *  A configuration that finds no valid solution gets an infinite gap. */
+    private double gap(Configuration configuration, Block block) {
+        Instance instance = block.instance;
+        Optional<Schedule> result = configuration.create(block.seed, null)
+                .solve(instance, SolveBudget.unlimited().withCpuTime(timeMs));
+        if (result.isEmpty() || !result.get().isValid())
+            return Double.POSITIVE_INFINITY;
+        int lowerBound = LowerBound.of(instance);
+        return (result.get().makespan() - lowerBound) / (double) lowerBound;
+    }
+
+    private static double get(Future<Double> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Race interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Run failed: " + e.getCause(), e.getCause());
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package jobshop.tuning;
+
+import jobshop.BestKnownResults;
+import jobshop.Instance;
+import jobshop.solvers.DescentSolver;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/** Tuning of the parameters of local searches by racing configurations on a training set of instances.
+ *
+ * Configurations are all combinations of the given searches, starts, tenures, restarts, maximal numbers of
+ * iterations and settings of the iterated local search (or a random sample of them). Instances are grouped in classes by the letters that start their name
+ * (ft, la, orb, ta, swv...), and a race is run for each class on its instances with several seeds, so that the best
+ * configuration of each class is found. This class is the entry point of the "tune" command of Main.
+ */
+public final class Tuner {
+
+    private Tuner() {}
+
+    /** Class of an instance: the letters at the start of its name. */
+    public static String instanceClass(String name) {
+        String prefix = name.replaceAll("[^A-Za-z].*$", "");
+        return prefix.isEmpty() ? name : prefix;
+    }
+
+    /** All distinct combinations of the given parameters, the iterated local search having its default settings. */
+    public static List<Configuration> configurations(List<String> searches, List<String> starts, List<Integer> tenures,
+                                                     List<Integer> restarts, List<Integer> maxIters) {
+        return configurations(searches, starts, tenures, restarts, maxIters,
+                List.of(DescentSolver.Perturbation.CRITICAL_SWAPS), List.of(DescentSolver.DEFAULT_STRENGTH),
+                List.of(DescentSolver.Acceptance.BETTER_OR_EQUAL));
+    }
+
+    /** All distinct combinations of the given parameters. */
+    public static List<Configuration> configurations(List<String> searches, List<String> starts, List<Integer> tenures,
+                                                     List<Integer> restarts, List<Integer> maxIters,
+                                                     List<DescentSolver.Perturbation> perturbations,
+                                                     List<Integer> strengths,
+                                                     List<DescentSolver.Acceptance> acceptances) {
+        Set<Configuration> configurations = new LinkedHashSet<>();
+        for (String search : searches)
+            for (String start : starts)
+                for (int tenure : tenures)
+                    for (int restart : restarts)
+                        for (int maxIter : maxIters)
+                            for (DescentSolver.Perturbation perturbation : perturbations)
+                                for (int strength : strengths)
+                                    for (DescentSolver.Acceptance acceptance : acceptances)
+                                        configurations.add(new Configuration(search, start, tenure, restart, maxIter,
+                                                perturbation, strength, acceptance));
+        return new ArrayList<>(configurations);
+    }
+
+    /** Blocks of a race on the given instances: each instance with each seed, in random order. */
+    public static List<Race.Block> blocks(List<Instance> instances, int seeds, Random random) {
+        List<Race.Block> blocks = new ArrayList<>();
+        for (Instance instance : instances) {
+            for (int s = 0; s < seeds; s++)
+                blocks.add(new Race.Block(instance, random.nextLong()));
+        }
+        Collections.shuffle(blocks, random);
+        return blocks;
+    }
+
+    /** Command line entry point, used by the "tune" command of Main. */
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("jsp-solver tune").build()
+                .defaultHelp(true)
+                .description("Races configurations of local searches on training instances and reports the best " +
+                        "configuration of each class of instances.");
+        parser.addArgument("--instance")
+                .nargs("+")
+                .required(true)
+                .help("Training instances (prefixes, as for the solve command).");
+        parser.addArgument("--search")
+                .nargs("+")
+                .setDefault(List.of("taboo", "descent_restart"))
+                .choices(Configuration.SEARCHES)
+                .help("Local searches to consider.");
+        parser.addArgument("--start")
+                .nargs("+")
+                .setDefault(List.of("sb", "est_lrpt"))
+                .choices(Configuration.STARTS)
+                .help("Heuristics for the initial solution to consider.");
+        parser.addArgument("--tenure")
+                .nargs("+")
+                .type(Integer.class)
+                .setDefault(List.of(5, 10, 15, 20))
+                .help("Taboo tenures to consider.");
+        parser.addArgument("--restarts")
+                .nargs("+")
+                .type(Integer.class)
+                .setDefault(List.of(1, 100))
+                .help("Numbers of constructions of randomized initial solutions to consider.");
+        parser.addArgument("--max-iter")
+                .nargs("+")
+                .type(Integer.class)
+                .setDefault(List.of(150, 1000, 10000))
+                .help("Maximal numbers of iterations to consider.");
+        parser.addArgument("--perturbation")
+                .nargs("+")
+                .type(Arguments.caseInsensitiveEnumType(DescentSolver.Perturbation.class))
+                .setDefault(List.of(DescentSolver.Perturbation.CRITICAL_SWAPS))
+                .help("Perturbations of the iterated local search to consider.");
+        parser.addArgument("--strength")
+                .nargs("+")
+                .type(Integer.class)
+                .setDefault(List.of(DescentSolver.DEFAULT_STRENGTH))
+                .help("Numbers of random swaps of a perturbation of the iterated local search to consider.");
+        parser.addArgument("--acceptance")
+                .nargs("+")
+                .type(Arguments.caseInsensitiveEnumType(DescentSolver.Acceptance.class))
+                .setDefault(List.of(DescentSolver.Acceptance.BETTER_OR_EQUAL))
+                .help("Acceptance criteria of the iterated local search to consider.");
+        parser.addArgument("--configurations")
+                .setDefault(0)
+                .type(Integer.class)
+                .help("Number of configurations drawn at random among all combinations (0 for all of them).");
+        parser.addArgument("--seeds")
+                .setDefault(3)
+                .type(Integer.class)
+                .help("Number of seeds with which each instance is solved.");
+        parser.addArgument("-t", "--time")
+                .setDefault(1000L)
+                .type(Long.class)
+                .help("CPU time given to each run, in milliseconds.");
+        parser.addArgument("--first-test")
+                .setDefault(5)
+                .type(Integer.class)
+                .help("Number of blocks (instance and seed) solved before configurations are eliminated.");
+        parser.addArgument("--alpha")
+                .setDefault(0.05)
+                .type(Double.class)
+                .help("Significance level of the tests that eliminate configurations.");
+        parser.addArgument("--budget")
+                .setDefault(0)
+                .type(Integer.class)
+                .help("Maximal number of runs of each race (0 for no limit), at least the number of configurations.");
+        parser.addArgument("--threads")
+                .setDefault(Runtime.getRuntime().availableProcessors())
+                .type(Integer.class)
+                .help("Number of runs in parallel.");
+        parser.addArgument("--seed")
+                .setDefault(1L)
+                .type(Long.class)
+                .help("Seed of the order of blocks and of the seeds of the runs.");
+        parser.addArgument("--output")
+                .setDefault("tuning.csv")
+                .help("CSV file in which to write the configurations left at the end of each race.");
+
+        Namespace ns = null;
+        try {
+            ns = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+
+        Random random = new Random(ns.getLong("seed"));
+        List<Configuration> configurations = configurations(ns.getList("search"), ns.getList("start"),
+                ns.getList("tenure"), ns.getList("restarts"), ns.getList("max_iter"),
+                ns.getList("perturbation"), ns.getList("strength"), ns.getList("acceptance"));
+        int sample = ns.getInt("configurations");
+        if (sample > 0 && sample < configurations.size()) {
+            Collections.shuffle(configurations, random);
+            configurations = configurations.subList(0, sample);
+        }
+
+        int threads = ns.getInt("threads");
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Map<String, List<Instance>> classes = new TreeMap<>();
+            for (String prefix : ns.<String>getList("instance")) {
+                List<String> matches = BestKnownResults.instancesMatching(prefix);
+                if (matches.isEmpty())
+                    throw new RuntimeException("Instance prefix \"" + prefix + "\" does not match any instance");
+                for (String name : matches)
+                    classes.computeIfAbsent(instanceClass(name), c -> new ArrayList<>())
+                            .add(Instance.fromFile(Paths.get("instances", name)));
+            }
+
+            Path output = Paths.get(ns.getString("output"));
+            try (PrintStream csv = new PrintStream(Files.newOutputStream(output))) {
+                csv.println("class,rank,configuration,mean_gap,blocks,runs");
+                for (Map.Entry<String, List<Instance>> entry : classes.entrySet()) {
+                    List<Race.Block> blocks = blocks(entry.getValue(), ns.getInt("seeds"), random);
+                    System.out.printf("Class %s: %d configurations, %d instances, %d blocks%n", entry.getKey(),
+                            configurations.size(), entry.getValue().size(), blocks.size());
+                    Race race = new Race(configurations, blocks, ns.getLong("time"), ns.getInt("first_test"),
+                            ns.getDouble("alpha"), ns.getInt("budget"));
+                    Race.Result result = race.run(executor, threads, System.out);
+                    for (int i = 0; i < result.survivors.size(); i++)
+                        csv.printf("%s,%d,%s,%.5f,%d,%d%n", entry.getKey(), i + 1,
+                                result.survivors.get(i).toString().replace(',', ';'), result.meanGaps.get(i),
+                                result.blocks, result.runs);
+                    csv.flush();
+                    System.out.printf("Class %s: best configuration %s (gap %.2f%% to the lower bound, %d survivors, " +
+                                    "%d blocks, %d runs)%n%n", entry.getKey(), result.best(), 100 * result.meanGaps.get(0),
+                            result.survivors.size(), result.blocks, result.runs);
+                }
+            }
+            System.out.println("Results written to " + output);
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
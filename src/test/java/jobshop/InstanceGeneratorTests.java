@@ -0,0 +1,44 @@
+package jobshop;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class InstanceGeneratorTests {
+
+    /** With Taillard's seeds, the generator should reproduce his instances. */
+    @Test
+    public void testTaillardInstance() throws IOException {
+        checkSame(InstanceGenerator.taillard("ta01", 15, 15, 840612802, 398197754), Instance.fromFile(Paths.get("instances/ta01")));
+    }
+
+    /** Written instances should be read back identically. */
+    @Test
+    public void testWriteRead() throws IOException {
+        Path dir = Files.createTempDirectory("jobshop");
+        for (Instance instance : InstanceGenerator.family("test", 30, 7, 3, 42)) {
+            assert instance.numJobs == 30 && instance.numMachines == 7;
+            Path path = dir.resolve(instance.name);
+            InstanceGenerator.write(instance, path);
+            checkSame(instance, Instance.fromFile(path));
+            Files.delete(path);
+        }
+        Files.delete(dir);
+    }
+
+    private static void checkSame(Instance a, Instance b) {
+        assert a.numJobs == b.numJobs && a.numTasks == b.numTasks;
+        for (int j = 0; j < a.numJobs; j++) {
+            boolean[] seen = new boolean[a.numMachines];
+            for (int t = 0; t < a.numTasks; t++) {
+                assert a.machine(j, t) == b.machine(j, t) : "Different machine for " + j + "," + t + " in " + a.name;
+                assert a.duration(j, t) == b.duration(j, t) : "Different duration for " + j + "," + t + " in " + a.name;
+                assert !seen[a.machine(j, t)];
+                seen[a.machine(j, t)] = true;
+            }
+        }
+    }
+}
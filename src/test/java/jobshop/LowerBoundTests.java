@@ -0,0 +1,39 @@
+package jobshop;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class LowerBoundTests {
+
+    /** A lower bound can never exceed the best known result. */
+    @Test
+    public void testBoundsAreValid() throws IOException {
+        for (String instanceName : BestKnownResults.instances()) {
+            Instance instance = Instance.fromFile(Paths.get("instances", instanceName));
+            int lb = LowerBound.of(instance);
+            assert lb <= BestKnownResults.of(instanceName) : "Lower bound " + lb + " above best known for " + instanceName;
+            assert lb >= LowerBound.jobBound(instance);
+            assert lb >= LowerBound.machineBound(instance);
+        }
+    }
+
+    /** On la01, the one-machine bound is tight. */
+    @Test
+    public void testTightBound() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/la01"));
+        assert LowerBound.of(instance) == 666;
+    }
+
+    /** Jackson's preemptive schedule on a small hand-made one-machine problem. */
+    @Test
+    public void testJacksonPreemptive() {
+        int[] release = {0, 1, 3};
+        int[] duration = {4, 2, 1};
+        int[] tail = {0, 5, 10};
+        // task 0 starts at 0, is preempted by 1 at time 1 (done at 3, value 8),
+        // then 2 runs from 3 to 4 (value 14) and task 0 completes at 7 (value 7)
+        assert LowerBound.jacksonPreemptive(release, duration, tail, 3) == 14;
+    }
+}
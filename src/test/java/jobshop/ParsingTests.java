@@ -3,7 +3,12 @@ package jobshop;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
 
 public class ParsingTests {
 
@@ -14,6 +19,7 @@ public class ParsingTests {
         assert BestKnownResults.instancesMatching("la").size() == 40 : "There should be 40 instances from Lawrence";
         assert BestKnownResults.instancesMatching("ft06").size() == 1 : "There should be exactly one instance with the ft06 name";
         assert BestKnownResults.instancesMatching("no_instance_with_this_name").size() == 0;
+        assert BestKnownResults.instancesMatching("ta7").size() == 10 : "There should be 10 instances from ta70 to ta79";
     }
 
     /** Test that the first Lawrence instance has the expected properties. */
@@ -29,12 +35,42 @@ public class ParsingTests {
     /** Test that we can successfully read all known instances. */
     @Test
     public void testAllParsable() throws IOException {
-        for (String instanceName : BestKnownResults.instances) {
+        for (String instanceName : BestKnownResults.instances()) {
             Instance instance = Instance.fromFile(Paths.get("instances", instanceName));
             assert instance.name.equals(instanceName);
         }
 
     }
 
+    /** Test that improved results are recorded, and written so that a new run would load them. */
+    @Test
+    public void testUpdateBestKnownResults() throws IOException {
+        Path file = Files.createTempDirectory("jobshop").resolve("bests.csv");
+        System.setProperty(BestKnownResults.OVERRIDE_PROPERTY, file.toString());
+        // the (fake) improved result of la29 is undone, so that other tests see the real one
+        int best = BestKnownResults.of("la29");
+        try {
+            assert !BestKnownResults.update("la29", best);
+            assert !BestKnownResults.update("not_an_instance", 1);
+            assert BestKnownResults.update("la29", best - 1);
+            assert BestKnownResults.of("la29") == best - 1;
 
+            Map<String, Integer> bests = new HashMap<>();
+            Map<String, Integer> lowerBounds = new HashMap<>();
+            try (Reader reader = Files.newBufferedReader(file)) {
+                BestKnownResults.read(reader, bests, lowerBounds);
+            }
+            assert bests.get("la29") == best - 1;
+            assert bests.size() == BestKnownResults.instances().length;
+            assert lowerBounds.get("ta71") == 5464 && BestKnownResults.lowerBound("ta71").getAsInt() == 5464;
+            assert BestKnownResults.lowerBound("la29").isEmpty();
+        } finally {
+            BestKnownResults.reset("la29", best);
+            System.clearProperty(BestKnownResults.OVERRIDE_PROPERTY);
+            Files.deleteIfExists(file);
+            Files.delete(file.getParent());
+        }
+        assert BestKnownResults.of("la29") == best;
+    }
 }
+
@@ -0,0 +1,95 @@
+package jobshop;
+
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+import jobshop.solvers.BasicSolver;
+import jobshop.solvers.GifflerThompsonSolver;
+import jobshop.solvers.GreedySolver;
+import jobshop.solvers.Solver;
+import jobshop.solvers.WarmStartSolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.Random;
+
+public class SolutionArchiveTests {
+
+    private static Schedule solve(Solver solver, Instance instance) {
+        return solver.solve(instance, System.currentTimeMillis() + 1000, 10).get();
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        SolutionArchive archive = new SolutionArchive(Files.createTempDirectory("archive"));
+        assert archive.load(instance).isEmpty();
+
+        Schedule schedule = solve(new BasicSolver(), instance);
+        assert archive.offer(instance, schedule, "basic", 42);
+        Optional<SolutionArchive.Entry> entry = archive.load(instance);
+        assert entry.isPresent();
+        assert entry.get().order.equals(new ResourceOrder(schedule));
+        assert entry.get().makespan == schedule.makespan();
+        assert entry.get().solver.equals("basic");
+        assert entry.get().seed == 42;
+        assert entry.get().schedule().isValid();
+        assert Files.readAllLines(archive.directory.resolve("history.csv")).size() == 1;
+    }
+
+    @Test
+    public void testOnlyBetterSolutionsAreArchived() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        SolutionArchive archive = new SolutionArchive(Files.createTempDirectory("archive"));
+
+        Schedule bad = solve(new BasicSolver(), instance);
+        Schedule good = solve(new GifflerThompsonSolver(GreedySolver.Priority.EST_LRPT,
+                GifflerThompsonSolver.Mode.ACTIVE, 0.05, 100, new Random(0)), instance);
+        assert good.makespan() < bad.makespan();
+
+        assert archive.offer(instance, good, "gt", 0);
+        assert !archive.offer(instance, bad, "basic", 0);
+        assert !archive.offer(instance, good, "gt", 1);
+        assert archive.load(instance).get().makespan == good.makespan();
+        assert Files.readAllLines(archive.directory.resolve("history.csv")).size() == 1;
+    }
+
+    @Test
+    public void testOtherInstanceIsIgnored() throws IOException {
+        Path dir = Files.createTempDirectory("archive");
+        SolutionArchive archive = new SolutionArchive(dir);
+        Instance a = InstanceGenerator.taillard("gen", 10, 5, 1, 2);
+        Instance b = InstanceGenerator.taillard("gen", 10, 5, 3, 4);
+        assert archive.offer(a, solve(new BasicSolver(), a), "basic", 0);
+        assert archive.load(a).isPresent();
+        // same name, different content
+        assert archive.load(b).isEmpty();
+
+        // a corrupted file is ignored as well
+        Files.write(dir.resolve("gen.sol"), new byte[] {1, 2, 3});
+        assert archive.load(a).isEmpty();
+        assert archive.offer(a, solve(new BasicSolver(), a), "basic", 0);
+    }
+
+    @Test
+    public void testWarmStart() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        SolutionArchive archive = new SolutionArchive(Files.createTempDirectory("archive"));
+        Solver fallback = new BasicSolver();
+        Solver warm = new WarmStartSolver(archive, fallback);
+        assert solve(warm, instance).equals(solve(fallback, instance));
+
+        Schedule good = solve(new GifflerThompsonSolver(GreedySolver.Priority.EST_LRPT,
+                GifflerThompsonSolver.Mode.ACTIVE, 0.05, 100, new Random(0)), instance);
+        archive.offer(instance, good, "gt", 0);
+        assert solve(warm, instance).makespan() <= good.makespan();
+
+        // local searches started from the archive never do worse than the archived solution
+        Schedule taboo = solve(Solver.getSolver("taboo_sb", 1, archive), instance);
+        assert taboo.isValid();
+        assert taboo.makespan() <= good.makespan();
+    }
+}
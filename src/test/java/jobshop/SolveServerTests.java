@@ -0,0 +1,87 @@
+package jobshop;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+public class SolveServerTests {
+
+    private static HttpResponse<String> post(SolveServer server, String query, String body)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + "/solve?" + query))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testSolve() throws IOException, InterruptedException {
+        String ft06 = Files.readString(Paths.get("instances/ft06"));
+        try (SolveServer server = new SolveServer(0, 1, 2)) {
+            server.start();
+            // several requests in the same JVM
+            for (int i = 0; i < 3; i++) {
+                HttpResponse<String> response = post(server, "solver=taboo_sb&timeout=200&name=ft06&seed=1", ft06);
+                assert response.statusCode() == 200 : response.body();
+                assert response.body().contains("\"instance\": \"ft06\"");
+                assert response.body().contains("\"valid\": true");
+                assert response.body().contains("\"start_times\": [[");
+            }
+        }
+    }
+
+    /** Requests beyond the running and queued ones are refused, while the others are solved. */
+    @Test
+    public void testOverload() throws IOException, InterruptedException, ExecutionException {
+        String la24 = Files.readString(Paths.get("instances/la24"));
+        try (SolveServer server = new SolveServer(0, 1, 1)) {
+            server.start();
+            HttpClient client = HttpClient.newHttpClient();
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                // the large neighborhood search runs until its deadline
+                HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + server.port() + "/solve?solver=lns&timeout=1500&seed=1"))
+                        .POST(HttpRequest.BodyPublishers.ofString(la24))
+                        .build();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            int solved = 0;
+            int refused = 0;
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                int status = response.get().statusCode();
+                assert status == 200 || status == 503 : response.get().body();
+                if (status == 200) solved++;
+                else refused++;
+            }
+            // one request running and one queued at most
+            assert solved >= 1 && solved <= 2;
+            assert refused == 5 - solved;
+        }
+    }
+
+    @Test
+    public void testInvalidRequests() throws IOException, InterruptedException {
+        String ft06 = Files.readString(Paths.get("instances/ft06"));
+        try (SolveServer server = new SolveServer(0, 1, 1)) {
+            server.start();
+            assert post(server, "solver=unknown&timeout=100", ft06).statusCode() == 400;
+            assert post(server, "solver=basic", ft06).statusCode() == 400;
+            assert post(server, "solver=basic&timeout=100", "2 2\n0 1 1\n").statusCode() == 400;
+            assert post(server, "solver=basic&timeout=100", "1 2\n0 1 5 1\n").statusCode() == 400;
+            // a job that uses the same machine twice
+            assert post(server, "solver=basic&timeout=100", "1 2\n0 1 0 1\n").statusCode() == 400;
+            assert post(server, "solver=basic&timeout=100", ft06).statusCode() == 200;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package jobshop.encodings;
 
 import jobshop.Instance;
+import jobshop.InstanceGenerator;
 import jobshop.solvers.Solver;
 import jobshop.solvers.BasicSolver;
 import org.junit.Test;
@@ -30,4 +31,24 @@ public class BasicSolverTests {
         assert schedule.makespan() == 12 : "The basic solver should have produced a makespan of 12 for this instance.";
     }
 
+    /** Adding tasks one by one should compute their earliest start time (the scaling benchmark measures its speed). */
+    @Test
+    public void testAddTaskToMachine() {
+        Instance instance = InstanceGenerator.family("test", 500, 50, 1, 1)[0];
+        ResourceOrder order = new ResourceOrder(instance);
+        Task[][] tasks = new Task[instance.numJobs][instance.numTasks];
+        for (int t = 0; t < instance.numTasks; t++) {
+            for (int j = 0; j < instance.numJobs; j++) {
+                tasks[j][t] = new Task(j, t);
+                order.addTaskToMachine(instance.machine(j, t), tasks[j][t]);
+            }
+        }
+
+        Schedule schedule = order.toSchedule().get();
+        for (int j = 0; j < instance.numJobs; j++) {
+            for (int t = 0; t < instance.numTasks; t++) {
+                assert tasks[j][t].start_time == schedule.startTime(j, t);
+            }
+        }
+    }
 }
@@ -0,0 +1,77 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+import jobshop.solvers.GreedySolver;
+import jobshop.solvers.neighborhood.BatchEvaluator;
+import jobshop.solvers.neighborhood.Nowicki;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class BatchEvaluatorTests {
+
+    private static int decode(ResourceOrder order, Nowicki.Swap swap) {
+        swap.apply(order);
+        int makespan = order.evaluate();
+        swap.undo(order);
+        return makespan;
+    }
+
+    /** Batch makespans should be those of the decoded neighbors, for the swaps of critical blocks and any other. */
+    @Test
+    public void testSameMakespans() throws IOException {
+        Random random = new Random(3);
+        for (String name : new String[]{"ft06", "ft10", "la24", "ta11"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances", name));
+            ResourceOrder order = new ResourceOrder(
+                    new GreedySolver(GreedySolver.Priority.EST_LRPT, true, 1, random).solve(instance, Long.MAX_VALUE, 1).get());
+            Nowicki nowicki = new Nowicki();
+            // a few lanes, so that neighborhoods span several batches
+            BatchEvaluator batch = new BatchEvaluator(3);
+
+            for (int step = 0; step < 30; step++) {
+                List<Nowicki.Swap> swaps = new ArrayList<>(nowicki.allSwaps(order));
+                // consecutive tasks that are not critical, and tasks that are further apart
+                for (int i = 0; i < 10; i++) {
+                    int machine = random.nextInt(instance.numMachines);
+                    int position = random.nextInt(instance.numJobs - 1);
+                    swaps.add(new Nowicki.Swap(machine, position, position + 1));
+                    swaps.add(new Nowicki.Swap(machine, position, random.nextInt(instance.numJobs)));
+                }
+                int[] makespans = batch.makespans(order, swaps);
+                for (int i = 0; i < swaps.size(); i++)
+                    assert makespans[i] == decode(order, swaps.get(i)) : name + ": wrong makespan for " + swaps.get(i);
+
+                // move to a random critical neighbor
+                List<Nowicki.Swap> critical = nowicki.allSwaps(order);
+                if (critical.isEmpty())
+                    break;
+                critical.get(random.nextInt(critical.size())).apply(order);
+            }
+        }
+    }
+
+    /** Release times are taken into account as by ResourceOrder.evaluate(). */
+    @Test
+    public void testReleaseTimes() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        ResourceOrder order = new ResourceOrder(
+                new GreedySolver(GreedySolver.Priority.SPT, false, 1).solve(instance, Long.MAX_VALUE, 1).get());
+        Random random = new Random(5);
+        for (int i = 0; i < 20; i++)
+            order.setReleaseTime(random.nextInt(instance.numJobs), random.nextInt(instance.numTasks), random.nextInt(300));
+
+        List<Nowicki.Swap> swaps = new ArrayList<>();
+        for (int m = 0; m < instance.numMachines; m++) {
+            for (int p = 0; p + 1 < instance.numJobs; p++)
+                swaps.add(new Nowicki.Swap(m, p, p + 1));
+        }
+        int[] makespans = new BatchEvaluator().makespans(order, swaps);
+        for (int i = 0; i < swaps.size(); i++)
+            assert makespans[i] == decode(order, swaps.get(i)) : "wrong makespan for " + swaps.get(i);
+    }
+}
@@ -0,0 +1,44 @@
+package jobshop.encodings;
+
+import jobshop.BestKnownResults;
+import jobshop.Instance;
+import jobshop.solvers.BasicSolver;
+import jobshop.solvers.BranchAndBoundSolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+public class BranchAndBoundSolverTests {
+
+    /** On small instances, the optimum should be found and proven well within the deadline. */
+    @Test
+    public void testProvenOptimal() throws IOException {
+        for (String name : new String[]{"aaa1", "aaa2", "aaa3", "ft06", "la01"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances", name));
+            // start from a poor solution to make sure the search itself finds the optimum
+            BranchAndBoundSolver solver = new BranchAndBoundSolver(new BasicSolver(), 2);
+            Optional<Schedule> result = solver.solve(instance, System.currentTimeMillis() + 20000, 0);
+
+            assert result.isPresent() : "The solver did not find a solution";
+            assert result.get().isValid();
+            assert solver.isOptimal() : "Optimality not proven on " + name;
+            assert result.get().makespan() == BestKnownResults.of(name) : "Wrong optimum on " + name;
+            assert solver.bound() == BestKnownResults.of(name);
+        }
+    }
+
+    /** When the deadline is met, the best solution found is returned with a valid lower bound. */
+    @Test
+    public void testDeadline() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        BranchAndBoundSolver solver = new BranchAndBoundSolver(new BasicSolver(), 2);
+        Optional<Schedule> result = solver.solve(instance, System.currentTimeMillis() + 200, 0);
+
+        assert result.isPresent() && result.get().isValid();
+        assert !solver.isOptimal();
+        assert solver.bound() <= BestKnownResults.of("ft10");
+        assert solver.bound() < result.get().makespan();
+    }
+}
@@ -0,0 +1,68 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+import jobshop.solvers.Checkpointer;
+import jobshop.solvers.ShiftingBottleneckSolver;
+import jobshop.solvers.TabooSolver;
+import jobshop.solvers.neighborhood.Nowicki;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class CheckpointTests {
+
+    private static TabooSolver taboo() {
+        return new TabooSolver(new Nowicki(), new ShiftingBottleneckSolver(), 10);
+    }
+
+    /** A search interrupted and resumed from its checkpoint should end exactly like an uninterrupted one. */
+    @Test
+    public void testResumeIsExact() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/la24"));
+        Path dir = Files.createTempDirectory("checkpoints");
+
+        TabooSolver uninterrupted = taboo();
+        Schedule expected = uninterrupted.solve(instance, Long.MAX_VALUE, 200).get();
+
+        TabooSolver first = taboo();
+        try (Checkpointer checkpointer = new Checkpointer(dir, 0, false)) {
+            assert first.checkpointWith(checkpointer);
+            first.solve(instance, Long.MAX_VALUE, 80);
+        }
+        assert Files.isRegularFile(dir.resolve("la24.ckpt"));
+        assert first.statistics().get().iterations == 80;
+
+        TabooSolver second = taboo();
+        try (Checkpointer checkpointer = new Checkpointer(dir, 0, true)) {
+            second.checkpointWith(checkpointer);
+            Schedule resumed = second.solve(instance, Long.MAX_VALUE, 200).get();
+            assert resumed.isValid();
+            assert resumed.makespan() == expected.makespan();
+            assert second.statistics().get().iterations == uninterrupted.statistics().get().iterations;
+            assert second.statistics().get().evaluations == uninterrupted.statistics().get().evaluations;
+        }
+    }
+
+    /** Checkpoints are ignored when not resuming, or when they were written for another instance. */
+    @Test
+    public void testIgnoredCheckpoints() throws IOException {
+        Instance ft10 = Instance.fromFile(Paths.get("instances/ft10"));
+        Path dir = Files.createTempDirectory("checkpoints");
+        try (Checkpointer checkpointer = new Checkpointer(dir, 0, false)) {
+            TabooSolver solver = taboo();
+            solver.checkpointWith(checkpointer);
+            solver.solve(ft10, Long.MAX_VALUE, 30);
+            assert checkpointer.load(ft10, "taboo", in -> in.readInt()).isEmpty();
+        }
+        try (Checkpointer checkpointer = new Checkpointer(dir, 0, true)) {
+            assert checkpointer.load(ft10, "taboo", in -> in.readInt()).get() == 30;
+            assert checkpointer.load(ft10, "descent", in -> in.readInt()).isEmpty();
+            // a file with the same name, but for another instance
+            Files.copy(dir.resolve("ft10.ckpt"), dir.resolve("ft06.ckpt"));
+            assert checkpointer.load(Instance.fromFile(Paths.get("instances/ft06")), "taboo", in -> in.readInt()).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package jobshop.encodings;
+
+import jobshop.BestKnownResults;
+import jobshop.Instance;
+import jobshop.solvers.DescentSolver;
+import jobshop.solvers.GreedySolver;
+import jobshop.solvers.SearchStatistics;
+import jobshop.solvers.SolveBudget;
+import jobshop.solvers.neighborhood.Nowicki;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.Random;
+
+public class DescentSolverTests {
+
+    /** Neighbors evaluated by each run of the iterated local search. */
+    private static final long EVALUATIONS = 10_000;
+
+    /** All strategies should return valid schedules, no worse than the initial one, and count their work. */
+    @Test
+    public void testStrategies() throws IOException {
+        for (String name : new String[]{"ft06", "ft10", "la24"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances", name));
+            GreedySolver base = new GreedySolver(GreedySolver.Priority.SPT, false, 1);
+            int initial = base.solve(instance, Long.MAX_VALUE, 0).get().makespan();
+            for (DescentSolver.Strategy strategy : DescentSolver.Strategy.values()) {
+                DescentSolver solver = new DescentSolver(new Nowicki(), base, strategy, new Random(0));
+                Optional<Schedule> result = solver.solve(instance, System.currentTimeMillis() + 200, 0);
+
+                assert result.isPresent() && result.get().isValid() : "Invalid schedule with " + strategy;
+                assert result.get().makespan() <= initial;
+                assert result.get().makespan() >= BestKnownResults.of(name);
+
+                SearchStatistics statistics = solver.statistics().get();
+                assert statistics.improvements <= statistics.evaluations;
+                if (strategy == DescentSolver.Strategy.BEST_IMPROVEMENT || strategy == DescentSolver.Strategy.FIRST_IMPROVEMENT)
+                    assert (statistics.improvements > 0) == (result.get().makespan() < initial);
+                assert (statistics.restarts > 0) == (strategy == DescentSolver.Strategy.RANDOM_RESTART);
+            }
+        }
+    }
+
+    /** The iterated local search should use all its budget, perturbing local optima, with all its settings. */
+    @Test
+    public void testIteratedLocalSearch() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/la24"));
+        GreedySolver base = new GreedySolver(GreedySolver.Priority.SPT, false, 1);
+        DescentSolver descent = new DescentSolver(new Nowicki(), base);
+        int localOptimum = descent.solve(instance, SolveBudget.unlimited()).get().makespan();
+        for (DescentSolver.Perturbation perturbation : DescentSolver.Perturbation.values()) {
+            for (DescentSolver.Acceptance acceptance : DescentSolver.Acceptance.values()) {
+                DescentSolver solver = new DescentSolver(new Nowicki(), base, perturbation, 3, acceptance, new Random(1));
+                SolveBudget budget = SolveBudget.unlimited().withEvaluations(EVALUATIONS);
+                Optional<Schedule> result = solver.solve(instance, budget);
+                assert budget.evaluations() >= EVALUATIONS;
+
+                assert result.isPresent() && result.get().isValid();
+                assert result.get().makespan() >= BestKnownResults.of("la24");
+                SearchStatistics statistics = solver.statistics().get();
+                assert statistics.localOptima > 1;
+                assert statistics.restarts == 0;
+                assert result.get().makespan() < localOptimum : perturbation + " " + acceptance;
+            }
+        }
+    }
+}
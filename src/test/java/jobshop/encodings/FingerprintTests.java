@@ -0,0 +1,112 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+import jobshop.solvers.GreedySolver;
+import jobshop.solvers.cache.EvaluationCache;
+import jobshop.solvers.cache.VisitedSet;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class FingerprintTests {
+
+    /** The fingerprint maintained by swapTasks should match the one of a resource order built from scratch. */
+    @Test
+    public void testIncrementalFingerprint() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Schedule schedule = new GreedySolver(GreedySolver.Priority.EST_LRPT, false, 1).solve(instance, Long.MAX_VALUE, 0).get();
+        ResourceOrder original = new ResourceOrder(schedule);
+        ResourceOrder order = original.copy();
+        assert order.fingerprint() == original.fingerprint();
+        assert order.hashCode() == original.hashCode();
+
+        Random random = new Random(0);
+        for (int i = 0; i < 100; i++) {
+            int machine = random.nextInt(instance.numMachines);
+            int t1 = random.nextInt(instance.numJobs - 1), t2 = t1 + 1;
+            order.swapTasks(machine, t1, t2);
+            if (order.toSchedule().isEmpty()) {
+                order.swapTasks(machine, t1, t2);
+                continue;
+            }
+            ResourceOrder fromScratch = new ResourceOrder(order.toSchedule().get());
+            assert fromScratch.fingerprint() == order.fingerprint();
+            assert fromScratch.equals(order) && fromScratch.hashCode() == order.hashCode();
+            assert (order.fingerprint() == original.fingerprint()) == order.equals(original);
+
+            // undoing the swap restores the fingerprint
+            long fingerprint = order.fingerprint();
+            order.swapTasks(machine, t1, t2);
+            order.swapTasks(machine, t1, t2);
+            assert order.fingerprint() == fingerprint;
+        }
+    }
+
+    @Test
+    public void testVisitedSet() {
+        VisitedSet set = new VisitedSet(100);
+        Random random = new Random(0);
+        long[] values = new long[100];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i == 0 ? 0 : random.nextLong();
+            assert set.add(values[i]);
+            assert !set.add(values[i]);
+        }
+        assert set.size() == values.length;
+        for (long value : values)
+            assert set.contains(value);
+        assert !set.contains(random.nextLong());
+
+        // the set is cleared when full, never grows above its capacity
+        for (int i = 0; i < 10000; i++)
+            set.add(random.nextLong());
+        assert set.size() <= 200;
+
+        // a set holding few fingerprints is cleared slot by slot
+        VisitedSet large = new VisitedSet(1 << 16);
+        for (int round = 0; round < 3; round++) {
+            for (long value : values)
+                large.add(value);
+            assert large.size() == values.length;
+            large.clear();
+            assert large.size() == 0;
+            for (long value : values)
+                assert !large.contains(value);
+        }
+    }
+
+    /** The cache should never return a wrong value, keep its size bounded and keep recently used entries. */
+    @Test
+    public void testEvaluationCache() {
+        EvaluationCache cache = new EvaluationCache(64);
+        Map<Long, Integer> reference = new HashMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 10000; i++) {
+            long key = random.nextInt(200);
+            int cached = cache.makespan(key);
+            if (cached == EvaluationCache.UNKNOWN) {
+                int value = random.nextInt(1000);
+                cache.put(key, value, new int[]{value});
+                reference.put(key, value);
+            } else {
+                assert cached == reference.get(key);
+                assert cache.blocks(key)[0] == cached;
+            }
+            assert cache.size() <= 64;
+        }
+        assert cache.evictions() > 0 && cache.hits() > 0;
+
+        // an entry that is used all the time is never evicted
+        cache.clear();
+        cache.put(-1, 42);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(random.nextLong(), i);
+            assert cache.makespan(-1) == 42;
+        }
+        assert cache.hitRate() == 1.0;
+    }
+}
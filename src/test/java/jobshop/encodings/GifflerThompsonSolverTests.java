@@ -0,0 +1,56 @@
+package jobshop.encodings;
+
+import jobshop.BestKnownResults;
+import jobshop.Instance;
+import jobshop.solvers.GifflerThompsonSolver;
+import jobshop.solvers.GreedySolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.Random;
+
+public class GifflerThompsonSolverTests {
+
+    /** Every priority and mode should produce valid schedules. */
+    @Test
+    public void testValidSchedules() throws IOException {
+        for (String name : new String[]{"aaa1", "ft06", "la01", "ft10"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances", name));
+            for (GifflerThompsonSolver.Mode mode : GifflerThompsonSolver.Mode.values()) {
+                for (GreedySolver.Priority p : GreedySolver.Priority.values()) {
+                    GifflerThompsonSolver solver = new GifflerThompsonSolver(p, mode, 0.1, 10, new Random(1));
+                    Optional<Schedule> result = solver.solve(instance, Long.MAX_VALUE, 0);
+                    assert result.isPresent() : "The solver did not find a solution";
+                    assert result.get().isValid() : "Invalid schedule with " + p + " " + mode + " on " + name;
+                    assert result.get().makespan() >= BestKnownResults.of(name);
+                }
+            }
+        }
+    }
+
+    /** Non-delay schedules never leave a machine idle while a task could run on it. */
+    @Test
+    public void testNonDelay() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        GifflerThompsonSolver.Engine engine = new GifflerThompsonSolver.Engine(instance);
+        engine.construct(GreedySolver.Priority.SPT, GifflerThompsonSolver.Mode.NON_DELAY, 0.5, new Random(3));
+        Schedule s = engine.toSchedule();
+        assert s.isValid();
+
+        // with a non-delay schedule, the first task of each machine either starts at 0 or waits for its job
+        ResourceOrder order = new ResourceOrder(s);
+        for (int m = 0; m < instance.numMachines; m++) {
+            Task first = order.getTaskOfMachine(m, 0);
+            int jobRelease = first.task == 0 ? 0 : s.endTime(first.job, first.task - 1);
+            boolean anyReadyAtZero = false;
+            for (int j = 0; j < instance.numJobs; j++) {
+                if (instance.machine(j, 0) == m)
+                    anyReadyAtZero = true;
+            }
+            assert !anyReadyAtZero || s.startTime(first) == 0;
+            assert s.startTime(first) == 0 || s.startTime(first) == jobRelease;
+        }
+    }
+}
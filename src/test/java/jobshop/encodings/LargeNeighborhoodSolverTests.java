@@ -0,0 +1,31 @@
+package jobshop.encodings;
+
+import jobshop.BestKnownResults;
+import jobshop.Instance;
+import jobshop.solvers.BasicSolver;
+import jobshop.solvers.LargeNeighborhoodSolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.Random;
+
+public class LargeNeighborhoodSolverTests {
+
+    /** The search should return valid schedules, never worse than the initial solution. */
+    @Test
+    public void testImprovesInitialSolution() throws IOException {
+        for (String name : new String[]{"aaa1", "ft06", "ft10", "la24", "orb07"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances", name));
+            int initial = new BasicSolver().solve(instance, Long.MAX_VALUE, 0).get().makespan();
+            LargeNeighborhoodSolver solver = new LargeNeighborhoodSolver(new BasicSolver(), 20, 0.3, new Random(0));
+            Optional<Schedule> result = solver.solve(instance, System.currentTimeMillis() + 300, 0);
+
+            assert result.isPresent() : "The solver did not find a solution";
+            assert result.get().isValid() : "Invalid schedule on " + name;
+            assert result.get().makespan() <= initial;
+            assert result.get().makespan() >= BestKnownResults.of(name);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+import jobshop.solvers.GreedySolver;
+import jobshop.solvers.neighborhood.Nowicki;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+public class NowickiTests {
+
+    /** Blocks should cover all maximal sequences of two or more critical tasks on the same machine. */
+    @Test
+    public void testBlocks() throws IOException {
+        for (String name : new String[]{"ft06", "ft10", "la24"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances", name));
+            Schedule schedule = new GreedySolver(GreedySolver.Priority.SPT, false, 1).solve(instance, Long.MAX_VALUE, 0).get();
+            ResourceOrder order = new ResourceOrder(schedule);
+            List<Task> criticalPath = schedule.criticalPath();
+
+            int expected = 0;
+            int length = 1;
+            for (int i = 1; i <= criticalPath.size(); i++) {
+                if (i < criticalPath.size() && instance.machine(criticalPath.get(i)) == instance.machine(criticalPath.get(i - 1))) {
+                    length++;
+                } else {
+                    if (length >= 2)
+                        expected++;
+                    length = 1;
+                }
+            }
+            Nowicki nowicki = new Nowicki();
+            List<Nowicki.Block> blocks = nowicki.blocksOfCriticalPath(order);
+            assert blocks.size() == expected : "Missing blocks on " + name;
+            for (Nowicki.Block block : blocks) {
+                assert block.lastTask > block.firstTask;
+                assert nowicki.neighbors(block).size() == (block.lastTask - block.firstTask >= 2 ? 2 : 1);
+            }
+            // blocks of a solution already seen come from the cache
+            assert nowicki.blocksOfCriticalPath(order).size() == expected;
+            assert nowicki.cache().hits() == 1;
+        }
+    }
+
+    /** Applying then undoing a move restores the solution, and the in-place evaluation matches the schedule. */
+    @Test
+    public void testApplyUndo() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Schedule schedule = new GreedySolver(GreedySolver.Priority.SPT, false, 1).solve(instance, Long.MAX_VALUE, 0).get();
+        ResourceOrder order = new ResourceOrder(schedule);
+        ResourceOrder original = order.copy();
+        assert order.evaluate() == schedule.makespan();
+
+        for (Nowicki.Swap swap : new Nowicki().moves(order)) {
+            ResourceOrder neighbor = swap.generateFrom(order);
+            swap.apply(order);
+            assert order.equals(neighbor) && order.fingerprint() == neighbor.fingerprint();
+            assert order.evaluate() == order.toSchedule().get().makespan();
+            assert order.toSchedule().get().isValid();
+            swap.undo(order);
+            assert order.equals(original) && order.fingerprint() == original.fingerprint();
+        }
+    }
+}
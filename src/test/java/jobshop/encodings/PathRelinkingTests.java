@@ -0,0 +1,135 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+import jobshop.solvers.Checkpointer;
+import jobshop.solvers.ElitePool;
+import jobshop.solvers.GreedySolver;
+import jobshop.solvers.PathRelinking;
+import jobshop.solvers.ShiftingBottleneckSolver;
+import jobshop.solvers.TabooSolver;
+import jobshop.solvers.neighborhood.Nowicki;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.Random;
+
+public class PathRelinkingTests {
+
+    private static ResourceOrder random(Instance instance, Random random) {
+        return new ResourceOrder(new GreedySolver(GreedySolver.Priority.EST_LRPT, true, 1, random)
+                .solve(instance, Long.MAX_VALUE, 1).get());
+    }
+
+    /** Number of pairs of jobs in a different order on a machine, counted from the orders themselves. */
+    private static int naiveDistance(ResourceOrder a, ResourceOrder b) {
+        int distance = 0;
+        for (int m = 0; m < a.instance.numMachines; m++) {
+            for (int i = 0; i < a.instance.numJobs; i++) {
+                for (int j = i + 1; j < a.instance.numJobs; j++) {
+                    int first = a.getTaskOfMachine(m, i).job;
+                    int second = a.getTaskOfMachine(m, j).job;
+                    int p1 = -1, p2 = -1;
+                    for (int p = 0; p < b.instance.numJobs; p++) {
+                        if (b.getTaskOfMachine(m, p).job == first) p1 = p;
+                        if (b.getTaskOfMachine(m, p).job == second) p2 = p;
+                    }
+                    if (p1 > p2) distance++;
+                }
+            }
+        }
+        return distance;
+    }
+
+    @Test
+    public void testDistance() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/la24"));
+        Random random = new Random(5);
+        ResourceOrder a = random(instance, random);
+        ResourceOrder b = random(instance, random);
+        assert ElitePool.distance(a, a) == 0;
+        assert ElitePool.distance(a, b) == naiveDistance(a, b);
+        assert ElitePool.distance(a, b) == ElitePool.distance(b, a);
+
+        // swapping consecutive tasks changes the distance by one
+        ResourceOrder c = a.copy();
+        c.swapTasks(3, 4, 5);
+        assert ElitePool.distance(a, c) == 1;
+    }
+
+    /** The pool keeps distinct solutions, the best ones when it is full. */
+    @Test
+    public void testPool() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Random random = new Random(7);
+        ElitePool pool = new ElitePool(3);
+        ResourceOrder first = random(instance, random);
+        assert pool.offer(first, first.evaluate());
+        assert !pool.offer(first.copy(), first.evaluate());
+        for (int i = 0; i < 20; i++) {
+            ResourceOrder order = random(instance, random);
+            pool.offer(order, order.evaluate());
+        }
+        assert pool.size() == 3;
+        int worst = pool.elites().get(2).makespan;
+        for (int i = 0; i + 1 < pool.size(); i++)
+            assert pool.elites().get(i).makespan <= pool.elites().get(i + 1).makespan;
+        for (ElitePool.Elite elite : pool.elites())
+            assert elite.order.evaluate() == elite.makespan;
+        ResourceOrder worse = random(instance, random);
+        if (worse.evaluate() >= worst)
+            assert !pool.offer(worse, worse.evaluate());
+    }
+
+    /** A relinked solution is between the two solutions: closer to each of them than they are to each other. */
+    @Test
+    public void testRelink() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/la24"));
+        Random random = new Random(11);
+        ResourceOrder from = random(instance, random);
+        ResourceOrder to = random(instance, random);
+        ResourceOrder fromCopy = from.copy();
+        int total = ElitePool.distance(from, to);
+
+        Optional<ResourceOrder> relinked = new PathRelinking(new Nowicki()).relink(from, to);
+        assert relinked.isPresent();
+        assert from.equals(fromCopy);
+        assert relinked.get().toSchedule().get().isValid();
+        assert ElitePool.distance(from, relinked.get()) >= total / 4;
+        assert ElitePool.distance(relinked.get(), to) < total;
+    }
+
+    private static TabooSolver relinking() {
+        return new TabooSolver(new Nowicki(), new ShiftingBottleneckSolver(), 10, 4, 10);
+    }
+
+    /** The search with path relinking finds valid solutions, and resumes exactly from its checkpoints. */
+    @Test
+    public void testTabooWithRelinking() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/la24"));
+        Path dir = Files.createTempDirectory("checkpoints");
+
+        TabooSolver uninterrupted = relinking();
+        Schedule expected = uninterrupted.solve(instance, Long.MAX_VALUE, 200).get();
+        assert expected.isValid();
+        assert uninterrupted.statistics().get().restarts > 0;
+        assert expected.makespan() <= new ShiftingBottleneckSolver().solve(instance, Long.MAX_VALUE, 0).get().makespan();
+
+        TabooSolver first = relinking();
+        try (Checkpointer checkpointer = new Checkpointer(dir, 0, false)) {
+            first.checkpointWith(checkpointer);
+            first.solve(instance, Long.MAX_VALUE, 90);
+        }
+        TabooSolver second = relinking();
+        try (Checkpointer checkpointer = new Checkpointer(dir, 0, true)) {
+            second.checkpointWith(checkpointer);
+            Schedule resumed = second.solve(instance, Long.MAX_VALUE, 200).get();
+            assert resumed.makespan() == expected.makespan();
+            assert second.statistics().get().evaluations == uninterrupted.statistics().get().evaluations;
+            assert second.statistics().get().restarts == uninterrupted.statistics().get().restarts;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+import jobshop.InstanceFeatures;
+import jobshop.solvers.PerformanceTable;
+import jobshop.solvers.PortfolioSolver;
+import jobshop.solvers.SolveBudget;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+
+public class PortfolioSolverTests {
+
+    private static final InstanceFeatures SQUARE = new InstanceFeatures(1, 0.5, 1.1, 0.5);
+    private static final InstanceFeatures RECTANGULAR = new InstanceFeatures(3.33, 0.5, 1.1, 0.5);
+
+    @Test
+    public void testFeatures() throws IOException {
+        InstanceFeatures square = InstanceFeatures.of(Instance.fromFile(Paths.get("instances/ft10")));
+        InstanceFeatures rectangular = InstanceFeatures.of(Instance.fromFile(Paths.get("instances/ta51")));
+        assert square.ratio == 1;
+        assert Math.abs(rectangular.ratio - 50.0 / 15) < 1e-9;
+        assert square.loadImbalance >= 1 && rectangular.loadImbalance >= 1;
+        assert square.durationVariation > 0 && square.lowerBoundGap > 0;
+        assert square.distance(square) == 0;
+        assert square.distance(rectangular) == rectangular.distance(square);
+    }
+
+    /** Each solver is the best on one kind of instances: the portfolio should pick it on similar instances. */
+    @Test
+    public void testSelection() {
+        PerformanceTable table = PerformanceTable.inMemory();
+        for (int i = 0; i < 3; i++) {
+            table.record(new PerformanceTable.Record("square" + i, SQUARE, "taboo_sb", 1000, 0.05));
+            table.record(new PerformanceTable.Record("square" + i, SQUARE, "lns", 1000, 0.10));
+            table.record(new PerformanceTable.Record("rect" + i, RECTANGULAR, "taboo_sb", 1000, 0.04));
+            table.record(new PerformanceTable.Record("rect" + i, RECTANGULAR, "lns", 1000, 0.01));
+        }
+        PortfolioSolver select = new PortfolioSolver(List.of("taboo_sb", "lns"), table, PortfolioSolver.Mode.SELECT, 0, null);
+        assert select.allocate(new InstanceFeatures(1.1, 0.5, 1.1, 0.5), 1000).get(0).solver.equals("taboo_sb");
+        assert select.allocate(new InstanceFeatures(3, 0.5, 1.1, 0.5), 1000).get(0).solver.equals("lns");
+
+        // in SPLIT mode, solvers that never ran are explored
+        PortfolioSolver split = new PortfolioSolver(List.of("taboo_sb", "lns", "descent_restart"), table,
+                PortfolioSolver.Mode.SPLIT, 0, null);
+        List<PortfolioSolver.Allocation> allocation = split.allocate(SQUARE, 1000);
+        assert allocation.get(0).solver.equals("taboo_sb");
+        assert allocation.stream().anyMatch(a -> a.solver.equals("descent_restart"));
+        assert Math.abs(allocation.stream().mapToDouble(a -> a.share).sum() - 1) < 1e-9;
+    }
+
+    /** Regrets are only measured between runs on the same instance with a similar time. */
+    @Test
+    public void testComparableRuns() {
+        PerformanceTable table = PerformanceTable.inMemory();
+        // the taboo search was given twice as much time as the LNS, which does not make it better
+        table.record(new PerformanceTable.Record("square", SQUARE, "taboo_sb", 1500, 0.02));
+        table.record(new PerformanceTable.Record("square", SQUARE, "lns", 750, 0.05));
+        table.record(new PerformanceTable.Record("square", SQUARE, "descent_restart", 750, 0.04));
+        assert table.predictRegret("taboo_sb", SQUARE, 3000).isEmpty();
+        assert Math.abs(table.predictRegret("lns", SQUARE, 3000).getAsDouble() - 0.01) < 1e-9;
+        assert table.predictRegret("descent_restart", SQUARE, 3000).getAsDouble() == 0;
+
+        // a solver that is the only one to have run on its instances has no known regret
+        table.record(new PerformanceTable.Record("rect", RECTANGULAR, "lns_gt", 1000, 0.10));
+        assert table.predictRegret("lns_gt", RECTANGULAR, 1000).isEmpty();
+        PortfolioSolver select = new PortfolioSolver(List.of("lns_gt", "lns"), table, PortfolioSolver.Mode.SELECT, 0, null);
+        assert select.allocate(RECTANGULAR, 1000).get(0).solver.equals("lns");
+    }
+
+    /** The portfolio records the result of each solver it runs. */
+    @Test
+    public void testLearning() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        PerformanceTable table = PerformanceTable.inMemory();
+        PortfolioSolver solver = new PortfolioSolver(List.of("taboo_sb", "lns", "descent_restart"), table,
+                PortfolioSolver.Mode.SPLIT, 1, null);
+
+        Optional<Schedule> result = solver.solve(instance, System.currentTimeMillis() + 3000, 50);
+        assert result.isPresent() && result.get().isValid();
+        // nothing was known, the time was split between all candidates
+        assert solver.lastAllocation().size() == 3;
+        assert !table.records().isEmpty();
+        for (PerformanceTable.Record record : table.records())
+            assert record.instance.equals("ft06") && record.gap >= 0;
+        // the taboo search stops after 50 iterations, but the time it was given is recorded
+        PerformanceTable.Record taboo = table.records().get(0);
+        assert taboo.solver.equals("taboo_sb") && taboo.timeMs >= 500;
+    }
+
+    /** The evaluations are split between the solvers like the time, so that each of them runs. */
+    @Test
+    public void testSplitEvaluations() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/la24"));
+        PerformanceTable table = PerformanceTable.inMemory();
+        PortfolioSolver solver = new PortfolioSolver(List.of("descent_restart", "taboo_sb"), table,
+                PortfolioSolver.Mode.SPLIT, 1, null);
+
+        SolveBudget budget = SolveBudget.of(System.currentTimeMillis() + 60_000, 1_000_000).withEvaluations(4000);
+        Optional<Schedule> result = solver.solve(instance, budget);
+        assert result.isPresent() && result.get().isValid();
+        assert budget.evaluations() < 5000;
+        // the descent did not use the evaluations of the taboo search
+        assert table.records().size() == 2;
+    }
+
+    @Test
+    public void testStorage() throws IOException {
+        Path file = Files.createTempFile("portfolio", ".csv");
+        Files.delete(file);
+        PerformanceTable table = new PerformanceTable(file);
+        table.record(new PerformanceTable.Record("ft10", SQUARE, "taboo_sb", 1000, 0.05));
+        table.record(new PerformanceTable.Record("ta51", RECTANGULAR, "lns", 2000, 0.01));
+        // a line truncated by an interrupted run
+        Files.write(file, "ta52,3.3".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        List<PerformanceTable.Record> records = new PerformanceTable(file).records();
+        assert records.size() == 2;
+        assert records.get(1).solver.equals("lns") && records.get(1).timeMs == 2000;
+        assert Math.abs(records.get(1).features.ratio - RECTANGULAR.ratio) < 1e-3;
+
+        // the next record starts on a new line
+        new PerformanceTable(file).record(new PerformanceTable.Record("ta52", RECTANGULAR, "lns", 3000, 0.02));
+        records = new PerformanceTable(file).records();
+        assert records.size() == 3 && records.get(2).instance.equals("ta52");
+        // records of a read-only table are not written
+        PerformanceTable.readOnly(file).record(new PerformanceTable.Record("ta53", RECTANGULAR, "lns", 3000, 0.02));
+        assert new PerformanceTable(file).records().size() == 3;
+        Files.delete(file);
+    }
+}
@@ -0,0 +1,81 @@
+package jobshop.encodings;
+
+import jobshop.Disruption;
+import jobshop.Instance;
+import jobshop.solvers.Rescheduler;
+import jobshop.solvers.ShiftingBottleneckSolver;
+import jobshop.solvers.TabooSolver;
+import jobshop.solvers.neighborhood.Nowicki;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public class ReschedulerTests {
+
+    private static Schedule solve(Instance instance) {
+        return new TabooSolver(new Nowicki(), new ShiftingBottleneckSolver(), 10)
+                .solve(instance, System.currentTimeMillis() + 1000, 100).get();
+    }
+
+    /** Tasks that started before the disruption keep their start time, the others start after it. */
+    private static void checkFrozen(Schedule before, Schedule after, int now) {
+        assert after.isValid();
+        for (int j = 0; j < after.instance.numJobs; j++) {
+            for (int t = 0; t < after.instance.numTasks; t++) {
+                if (j < before.instance.numJobs && before.startTime(j, t) < now)
+                    assert after.startTime(j, t) == before.startTime(j, t);
+                else
+                    assert after.startTime(j, t) >= now;
+            }
+        }
+    }
+
+    @Test
+    public void testDurationChange() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Schedule schedule = solve(instance);
+        int now = schedule.makespan() / 3;
+
+        // a task that has not started yet takes twice as long
+        int job = 0, task = instance.numTasks - 1;
+        assert schedule.startTime(job, task) >= now;
+        Disruption disruption = new Disruption().at(now).changeDuration(job, task, 2 * instance.duration(job, task));
+        Schedule result = new Rescheduler(200, 10).reschedule(schedule, disruption, System.currentTimeMillis() + 1000);
+        assert result.instance.duration(job, task) == 2 * instance.duration(job, task);
+        checkFrozen(schedule, result, now);
+    }
+
+    @Test
+    public void testNewJob() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/la24"));
+        Schedule schedule = solve(instance);
+        int now = schedule.makespan() / 2;
+
+        int[] machines = new int[instance.numTasks];
+        int[] durations = new int[instance.numTasks];
+        for (int t = 0; t < instance.numTasks; t++) {
+            machines[t] = instance.numTasks - 1 - t;
+            durations[t] = 10 + t;
+        }
+        Disruption disruption = new Disruption().at(now).addJob(machines, durations);
+        Rescheduler rescheduler = new Rescheduler(200, 10);
+        Schedule result = rescheduler.reschedule(schedule, disruption, System.currentTimeMillis() + 1000);
+        assert result.instance.numJobs == instance.numJobs + 1;
+        checkFrozen(schedule, result, now);
+
+        // the repaired schedule is no worse than appending the new job after all other tasks
+        int appended = Math.max(schedule.makespan(), now) + Arrays.stream(durations).sum();
+        assert result.makespan() <= appended;
+        assert rescheduler.statistics().iterations > 0;
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testCompletedTaskCannotChange() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        Schedule schedule = solve(instance);
+        Disruption disruption = new Disruption().at(schedule.makespan()).changeDuration(0, 0, 100);
+        new Rescheduler(10, 5).reschedule(schedule, disruption, System.currentTimeMillis() + 100);
+    }
+}
@@ -0,0 +1,68 @@
+package jobshop.encodings;
+
+import jobshop.BestKnownResults;
+import jobshop.Instance;
+import jobshop.solvers.ShiftingBottleneckSolver;
+import jobshop.solvers.disjunctive.Carlier;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.Random;
+
+public class ShiftingBottleneckSolverTests {
+
+    @Test
+    public void testValidSchedules() throws IOException {
+        for (String name : new String[]{"aaa1", "ft06", "ft10", "la01", "orb07", "ta01"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances", name));
+            Optional<Schedule> result = new ShiftingBottleneckSolver().solve(instance, Long.MAX_VALUE, 0);
+            assert result.isPresent() : "The solver did not find a solution";
+            assert result.get().isValid() : "Invalid schedule on " + name;
+            assert result.get().makespan() >= BestKnownResults.of(name);
+        }
+    }
+
+    /** Carlier's algorithm should find the optimum of small one-machine problems (compared to enumeration). */
+    @Test
+    public void testCarlierOptimal() {
+        Random random = new Random(42);
+        int n = 6;
+        int[] r = new int[n], p = new int[n], q = new int[n], sequence = new int[n];
+        for (int trial = 0; trial < 50; trial++) {
+            for (int i = 0; i < n; i++) {
+                r[i] = random.nextInt(20);
+                p[i] = 1 + random.nextInt(10);
+                q[i] = random.nextInt(20);
+            }
+            int value = Carlier.solve(r, p, q, n, Integer.MAX_VALUE, sequence);
+            assert value == evaluate(r, p, q, sequence) : "Returned value does not match the returned sequence";
+            assert value == bruteForce(r, p, q, new int[n], 0, new boolean[n]);
+        }
+    }
+
+    private static int evaluate(int[] r, int[] p, int[] q, int[] sequence) {
+        int time = 0, value = 0;
+        for (int j : sequence) {
+            time = Math.max(time, r[j]) + p[j];
+            value = Math.max(value, time + q[j]);
+        }
+        return value;
+    }
+
+    private static int bruteForce(int[] r, int[] p, int[] q, int[] prefix, int size, boolean[] used) {
+        if (size == prefix.length)
+            return evaluate(r, p, q, prefix);
+        int best = Integer.MAX_VALUE;
+        for (int j = 0; j < prefix.length; j++) {
+            if (used[j])
+                continue;
+            used[j] = true;
+            prefix[size] = j;
+            best = Math.min(best, bruteForce(r, p, q, prefix, size + 1, used));
+            used[j] = false;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,120 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+import jobshop.solvers.DescentSolver;
+import jobshop.solvers.GreedySolver;
+import jobshop.solvers.LargeNeighborhoodSolver;
+import jobshop.solvers.SearchStatistics;
+import jobshop.solvers.ShiftingBottleneckSolver;
+import jobshop.solvers.SolveBudget;
+import jobshop.solvers.TabooSolver;
+import jobshop.solvers.neighborhood.Nowicki;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.Random;
+
+public class SolveBudgetTests {
+
+    /** A search stops at the end of the iteration in which its evaluations are exhausted. */
+    @Test
+    public void testEvaluations() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/la24"));
+        TabooSolver solver = new TabooSolver(new Nowicki(), new ShiftingBottleneckSolver(), 10);
+        SolveBudget budget = SolveBudget.unlimited().withEvaluations(500);
+        Optional<Schedule> result = solver.solve(instance, budget);
+        assert result.isPresent() && result.get().isValid();
+
+        SearchStatistics statistics = solver.statistics().get();
+        assert budget.evaluations() == statistics.evaluations;
+        assert statistics.evaluations >= 500;
+        // a neighborhood of la24 has less than 100 swaps
+        assert statistics.evaluations < 600;
+
+        // the evaluations of the path relinking count as well
+        solver = new TabooSolver(new Nowicki(), new ShiftingBottleneckSolver(), 10, 8, 5);
+        budget = SolveBudget.unlimited().withEvaluations(5000);
+        result = solver.solve(instance, budget);
+        assert result.isPresent() && result.get().isValid();
+        statistics = solver.statistics().get();
+        assert statistics.restarts > 0;
+        assert budget.evaluations() == statistics.evaluations;
+        assert statistics.evaluations >= 5000 && statistics.evaluations < 5100;
+    }
+
+    /** Each rebuild of a large neighborhood search is an evaluation. */
+    @Test
+    public void testLargeNeighborhoodEvaluations() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/la24"));
+        LargeNeighborhoodSolver solver = new LargeNeighborhoodSolver(new ShiftingBottleneckSolver(), 20, 0.3, new Random(0));
+        SolveBudget budget = SolveBudget.of(System.currentTimeMillis() + 60_000, Integer.MAX_VALUE).withEvaluations(300);
+        long start = System.currentTimeMillis();
+        Optional<Schedule> result = solver.solve(instance, budget);
+        assert result.isPresent() && result.get().isValid();
+        assert budget.evaluations() == 300;
+        assert System.currentTimeMillis() - start < 30_000;
+    }
+
+    /** The kicks of the iterated local search are evaluations. */
+    @Test
+    public void testIteratedLocalSearchEvaluations() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/la24"));
+        DescentSolver solver = new DescentSolver(new Nowicki(), new ShiftingBottleneckSolver(),
+                DescentSolver.Perturbation.CRITICAL_SWAPS, 3, DescentSolver.Acceptance.BETTER_OR_EQUAL, new Random(0));
+        SolveBudget budget = SolveBudget.unlimited().withEvaluations(2000);
+        Optional<Schedule> result = solver.solve(instance, budget);
+        assert result.isPresent() && result.get().isValid();
+        assert budget.evaluations() == solver.statistics().get().evaluations;
+        assert budget.evaluations() >= 2000;
+    }
+
+    /** A search with a limit on CPU time and no deadline uses its CPU time and stops. */
+    @Test
+    public void testCpuTime() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        DescentSolver solver = new DescentSolver(new Nowicki(), new ShiftingBottleneckSolver(),
+                DescentSolver.Perturbation.CRITICAL_SWAPS, 3, DescentSolver.Acceptance.BETTER_OR_EQUAL, new Random(0));
+        SolveBudget budget = SolveBudget.unlimited().withCpuTime(200);
+        long start = System.currentTimeMillis();
+        Optional<Schedule> result = solver.solve(instance, budget);
+        assert result.isPresent() && result.get().isValid();
+        assert budget.cpuTimeUsedMs() >= 200;
+        assert budget.exhausted();
+        assert System.currentTimeMillis() - start < 5000;
+    }
+
+    /** Constructive solvers stop their restarts at the deadline. */
+    @Test
+    public void testDeadline() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ta21"));
+        GreedySolver solver = new GreedySolver(GreedySolver.Priority.EST_LRPT, true, 1_000_000, new Random(0));
+        long start = System.currentTimeMillis();
+        Optional<Schedule> result = solver.solve(instance, start + 100, Integer.MAX_VALUE);
+        assert result.isPresent() && result.get().isValid();
+        assert System.currentTimeMillis() - start < 1000;
+    }
+
+    /** Derived budgets share what was consumed, and keep the earliest deadline. */
+    @Test
+    public void testDerived() {
+        SolveBudget budget = SolveBudget.of(System.currentTimeMillis() + 60_000, 10).withEvaluations(100);
+        SolveBudget derived = budget.withDeadline(SolveBudget.UNLIMITED).withIterations(5);
+        assert derived.deadline() == budget.deadline();
+        assert derived.maxIterations() == 5 && budget.maxIterations() == 10;
+        derived.evaluated(60);
+        budget.evaluated(40);
+        assert derived.evaluations() == 100;
+        assert budget.exhausted() && derived.exhausted();
+        assert !SolveBudget.unlimited().exhausted();
+        assert SolveBudget.of(System.currentTimeMillis() - 1, 10).exhausted();
+
+        // the clock is not read at each call, but the deadline is not missed
+        long deadline = System.currentTimeMillis() + 20;
+        SolveBudget timed = SolveBudget.of(deadline, 10);
+        while (!timed.exhausted())
+            assert System.currentTimeMillis() < deadline + 1000;
+        assert System.currentTimeMillis() >= deadline;
+    }
+}
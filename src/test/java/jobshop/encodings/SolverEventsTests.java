@@ -0,0 +1,58 @@
+package jobshop.encodings;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import jobshop.Instance;
+import jobshop.solvers.GreedySolver;
+import jobshop.solvers.TabooSolver;
+import jobshop.solvers.neighborhood.Nowicki;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class SolverEventsTests {
+
+    private static List<RecordedEvent> events(List<RecordedEvent> all, String name) {
+        return all.stream().filter(e -> e.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testTabooEvents() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        TabooSolver solver = new TabooSolver(new Nowicki(), new GreedySolver(GreedySolver.Priority.EST_LRPT, true, 10), 10);
+
+        Path file = Files.createTempFile("solver", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("Construction", "Neighborhood", "Decode", "CriticalPath", "MoveAccepted", "NewBest"))
+                recording.enable("jobshop." + name);
+            recording.start();
+            solver.solve(instance, System.currentTimeMillis() + 5000, 50);
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> all = RecordingFile.readAllEvents(file);
+
+        // one construction for the deterministic priority and one for each randomized one
+        assert events(all, "jobshop.Construction").size() == 11;
+        assert events(all, "jobshop.Neighborhood").size() == 50;
+        assert events(all, "jobshop.MoveAccepted").size() == 50;
+        assert !events(all, "jobshop.Decode").isEmpty();
+        assert !events(all, "jobshop.CriticalPath").isEmpty();
+
+        // improvements are recorded in order, with decreasing makespans
+        List<RecordedEvent> bests = events(all, "jobshop.NewBest");
+        assert bests.size() == solver.statistics().get().improvements;
+        int previous = Integer.MAX_VALUE;
+        for (RecordedEvent best : bests) {
+            assert best.getString("instance").equals("ft10");
+            assert best.getInt("makespan") < previous;
+            previous = best.getInt("makespan");
+        }
+    }
+}
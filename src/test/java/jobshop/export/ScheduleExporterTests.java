@@ -0,0 +1,115 @@
+package jobshop.export;
+
+import jobshop.Disruption;
+import jobshop.Instance;
+import jobshop.InstanceGenerator;
+import jobshop.encodings.Schedule;
+import jobshop.encodings.Task;
+import jobshop.solvers.GreedySolver;
+import jobshop.solvers.Rescheduler;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+public class ScheduleExporterTests {
+
+    private static Schedule solve(Instance instance) {
+        return new GreedySolver(GreedySolver.Priority.EST_LRPT, false, 1).solve(instance, Long.MAX_VALUE, 1).get();
+    }
+
+    private static String export(Schedule schedule, ScheduleExporter.Format format) throws IOException {
+        StringWriter out = new StringWriter();
+        ScheduleExporter.write(schedule, format, out);
+        return out.toString();
+    }
+
+    private static Document parse(String xml) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /** In a rescheduled solution, the critical path may start with a task that waits for its release time. */
+    @Test
+    public void testRescheduled() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Schedule schedule = solve(instance);
+        Rescheduler rescheduler = new Rescheduler(20, 10);
+        for (int now = 0; now < schedule.makespan(); now += schedule.makespan() / 35) {
+            // tasks that did not start are released at the disruption time
+            Schedule rescheduled = rescheduler.reschedule(schedule, new Disruption().at(now), Long.MAX_VALUE);
+            boolean[] critical = rescheduled.criticalTaskMap();
+            int numCritical = 0;
+            for (boolean c : critical)
+                numCritical += c ? 1 : 0;
+            assert numCritical == rescheduled.criticalPath().size();
+            String[] lines = export(rescheduled, ScheduleExporter.Format.CSV).split("\n");
+            assert lines.length == instance.numJobs * instance.numTasks + 1;
+            assert export(rescheduled, ScheduleExporter.Format.SVG).contains("</svg>");
+        }
+    }
+
+    @Test
+    public void testCsv() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        Schedule schedule = solve(instance);
+        boolean[] critical = schedule.criticalTaskMap();
+
+        String[] lines = export(schedule, ScheduleExporter.Format.CSV).split("\n");
+        assert lines.length == instance.numJobs * instance.numTasks + 1;
+        assert lines[0].equals("job,task,machine,start,end,duration,critical");
+        int numCritical = 0;
+        for (int i = 1; i < lines.length; i++) {
+            String[] fields = lines[i].split(",");
+            int job = Integer.parseInt(fields[0]);
+            int task = Integer.parseInt(fields[1]);
+            assert Integer.parseInt(fields[2]) == instance.machine(job, task);
+            assert Integer.parseInt(fields[3]) == schedule.startTime(job, task);
+            assert Integer.parseInt(fields[4]) == schedule.endTime(job, task);
+            assert Boolean.parseBoolean(fields[6]) == critical[job * instance.numTasks + task];
+            if (critical[job * instance.numTasks + task])
+                numCritical++;
+        }
+        // the map holds the tasks of the critical path
+        assert numCritical == schedule.criticalPath().size();
+        for (Task t : schedule.criticalPath())
+            assert critical[t.job * instance.numTasks + t.task];
+    }
+
+    @Test
+    public void testSvgAndHtml() throws Exception {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Schedule schedule = solve(instance);
+
+        Document svg = parse(export(schedule, ScheduleExporter.Format.SVG));
+        assert svg.getElementsByTagName("rect").getLength() == instance.numJobs * instance.numTasks;
+        int outlined = 0;
+        for (int i = 0; i < svg.getElementsByTagName("rect").getLength(); i++) {
+            if (svg.getElementsByTagName("rect").item(i).getAttributes().getNamedItem("stroke") != null)
+                outlined++;
+        }
+        assert outlined == schedule.criticalPath().size();
+
+        String html = export(schedule, ScheduleExporter.Format.HTML);
+        assert html.startsWith("<!DOCTYPE html>");
+        assert html.contains("makespan " + schedule.makespan());
+        assert html.contains("<svg");
+    }
+
+    /** A large schedule is exported with one element per task. */
+    @Test
+    public void testLargeInstance() throws IOException {
+        Instance instance = InstanceGenerator.taillard("large", 100, 20, 1, 2);
+        Schedule schedule = solve(instance);
+
+        String svg = export(schedule, ScheduleExporter.Format.SVG);
+        String csv = export(schedule, ScheduleExporter.Format.CSV);
+        assert svg.split("<rect ").length - 1 == 2000;
+        assert csv.split("\n").length == 2001;
+    }
+}
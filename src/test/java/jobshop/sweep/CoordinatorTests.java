@@ -0,0 +1,74 @@
+package jobshop.sweep;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class CoordinatorTests {
+
+    /** Runs a sweep with worker JVMs, one of which is killed while solving a unit. */
+    @Test
+    public void testWorkerLoss() throws Exception {
+        // ft10 is not solved to its lower bound, each taboo search uses its whole timeout
+        List<WorkUnit> units = Coordinator.units(List.of(Paths.get("instances/ft10")), List.of("taboo_sb"), 3, 700);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Process doomed = null;
+        Process survivor = null;
+        try (Coordinator coordinator = new Coordinator(units, InetAddress.getLoopbackAddress(), 0)) {
+            Future<List<WorkUnit>> sweep = executor.submit(() -> coordinator.run(unit -> {}));
+
+            doomed = Coordinator.startLocalWorker(coordinator.port(), "doomed");
+            waitForWorkers(coordinator, 1);
+            Thread.sleep(300);
+            doomed.destroyForcibly().waitFor();
+
+            survivor = Coordinator.startLocalWorker(coordinator.port(), "survivor");
+            List<WorkUnit> results = sweep.get(60, TimeUnit.SECONDS);
+
+            assert results.size() == 3;
+            for (WorkUnit unit : results) {
+                assert unit.succeeded() : unit + " failed: " + unit.error;
+                assert unit.makespan >= 930;
+            }
+            assert coordinator.redispatched() >= 1;
+            assert results.stream().anyMatch(unit -> unit.worker.equals("survivor") && unit.attempts == 2);
+        } finally {
+            executor.shutdownNow();
+            if (doomed != null)
+                doomed.destroyForcibly();
+            if (survivor != null)
+                survivor.destroyForcibly();
+        }
+    }
+
+    /** A sweep without any worker fails instead of waiting forever. */
+    @Test
+    public void testNoWorker() throws Exception {
+        List<WorkUnit> units = Coordinator.units(List.of(Paths.get("instances/ft06")), List.of("taboo_sb"), 1, 100);
+        try (Coordinator coordinator = new Coordinator(units, InetAddress.getLoopbackAddress(), 0)) {
+            long start = System.currentTimeMillis();
+            try {
+                coordinator.run(unit -> {}, 300);
+                assert false : "the sweep should fail";
+            } catch (IOException e) {
+                assert System.currentTimeMillis() - start < 5000;
+            }
+        }
+    }
+
+    private static void waitForWorkers(Coordinator coordinator, int count) throws InterruptedException, IOException {
+        long giveUp = System.currentTimeMillis() + 30_000;
+        while (coordinator.connectedWorkers() < count) {
+            if (System.currentTimeMillis() > giveUp)
+                throw new IOException("workers did not connect");
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package jobshop.tuning;
+
+import jobshop.Instance;
+import jobshop.encodings.Schedule;
+import jobshop.solvers.DescentSolver;
+import jobshop.solvers.Solver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TuningTests {
+
+    @Test
+    public void testDistributions() {
+        assert Math.abs(Friedman.chiSquareSurvival(3.841, 1) - 0.05) < 1e-3;
+        assert Math.abs(Friedman.chiSquareSurvival(5.991, 2) - 0.05) < 1e-3;
+        assert Math.abs(Friedman.chiSquareSurvival(2.0, 4) - 0.7358) < 1e-3;
+        assert Math.abs(Friedman.normalQuantile(0.975) - 1.95996) < 1e-4;
+        assert Math.abs(Friedman.studentQuantile(0.975, 10) - 2.228) < 2e-3;
+        assert Math.abs(Friedman.studentQuantile(0.975, 30) - 2.042) < 1e-3;
+    }
+
+    @Test
+    public void testFriedman() {
+        // ties get the average of their ranks
+        double[][] ranks = Friedman.ranks(new double[][]{{3, 1, 3}});
+        assert ranks[0][0] == 2.5 && ranks[0][1] == 1 && ranks[0][2] == 2.5;
+
+        // the three configurations are always in the same order: T = 12 for 2 degrees of freedom
+        double[][] costs = new double[6][];
+        for (int b = 0; b < costs.length; b++)
+            costs[b] = new double[]{0.1 * b, 0.1 * b + 1, 0.1 * b + 2};
+        ranks = Friedman.ranks(costs);
+        assert Math.abs(Friedman.pValue(ranks) - Math.exp(-6)) < 1e-9;
+        boolean[] worse = Friedman.worseThanBest(ranks, 0.05);
+        assert !worse[0] && worse[1] && worse[2];
+
+        // no difference between configurations
+        double[][] equal = Friedman.ranks(new double[][]{{1, 2}, {2, 1}, {1, 2}, {2, 1}});
+        assert Friedman.pValue(equal) == 1;
+        assert Friedman.rankSums(new double[0][]).length == 0;
+        assert !Friedman.worseThanBest(equal, 0.05)[0] && !Friedman.worseThanBest(equal, 0.05)[1];
+    }
+
+    @Test
+    public void testConfigurations() throws IOException {
+        Configuration configuration = new Configuration("descent_restart", "est_lrpt", 12, 20, 500);
+        // the tenure has no effect on a descent
+        assert configuration.tenure == 0;
+        assert Configuration.parse(configuration.toString()).equals(configuration);
+        assert Configuration.parse(configuration.toString().replace(',', ';')).equals(configuration);
+        assert Configuration.parse("taboo_sb").equals(new Configuration("taboo", "sb", 10, 0, 150));
+
+        List<Configuration> grid = Tuner.configurations(List.of("taboo", "descent"), List.of("sb"),
+                List.of(5, 10), List.of(1, 100), List.of(100));
+        // restarts do not matter with the sb start, nor the tenure for the descent
+        assert grid.size() == 3;
+        grid = Tuner.configurations(List.of("taboo", "descent_restart", "ils"), List.of("sb"), List.of(10), List.of(1),
+                List.of(150, 1000, 10000));
+        // the descent and the iterated local search are not limited by the iterations
+        assert grid.size() == 3 + 1 + 1;
+        assert grid.contains(new Configuration("descent_restart", "sb", 0, 0, 0));
+
+        Configuration ils = Configuration.parse("ils_sb:iter=20,perturbation=bottleneck_shuffle,strength=5,acceptance=annealing");
+        assert ils.perturbation == DescentSolver.Perturbation.BOTTLENECK_SHUFFLE && ils.strength == 5
+                && ils.acceptance == DescentSolver.Acceptance.ANNEALING;
+        assert Configuration.parse(ils.toString()).equals(ils);
+        assert ils.maxIter == 0 && ils.equals(Configuration.parse(ils.toString().replace("iter=0", "iter=500")));
+        // the settings of the iterated local search do not matter for the other searches
+        grid = Tuner.configurations(List.of("ils", "descent"), List.of("sb"), List.of(10), List.of(1), List.of(100),
+                List.of(DescentSolver.Perturbation.values()), List.of(2, 4), List.of(DescentSolver.Acceptance.values()));
+        assert grid.size() == 2 * 2 * 2 + 1;
+
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        Solver solver = Solver.getSolver("taboo_est_lrpt:tenure=8,restarts=5,iter=20", 1, null);
+        Optional<Schedule> result = solver.solve(instance, Long.MAX_VALUE, 0);
+        assert result.isPresent() && result.get().isValid();
+        assert solver.statistics().get().iterations <= 20;
+    }
+
+    /** A search with no iterations from a poor start is eliminated early, and does not win the race. */
+    @Test
+    public void testRace() throws IOException {
+        List<Configuration> configurations = List.of(
+                new Configuration("taboo", "spt", 10, 1, 0),
+                new Configuration("taboo", "sb", 10, 0, 200),
+                new Configuration("taboo", "est_lrpt", 10, 10, 200));
+        List<Instance> instances = List.of(Instance.fromFile(Paths.get("instances/la16")),
+                Instance.fromFile(Paths.get("instances/la17")), Instance.fromFile(Paths.get("instances/la18")));
+        List<Race.Block> blocks = Tuner.blocks(instances, 3, new Random(0));
+        assert blocks.size() == 9;
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Race.Result result = new Race(configurations, blocks, 500, 4, 0.05, 0).run(executor, 2, null);
+            assert !result.survivors.contains(configurations.get(0));
+            assert result.runs < configurations.size() * blocks.size();
+            assert result.meanGaps.get(0) >= 0;
+
+            // a budget that does not allow to run all configurations once is rejected
+            try {
+                new Race(configurations, blocks, 500, 4, 0.05, configurations.size() - 1);
+                assert false : "the budget should be rejected";
+            } catch (RuntimeException e) {
+                // expected
+            }
+
+            // a single configuration is not tested, but still gets its mean gap
+            Race.Result single = new Race(configurations.subList(1, 2), blocks, 200, 4, 0.05, 0).run(executor, 2, null);
+            assert single.survivors.equals(configurations.subList(1, 2));
+            assert single.blocks >= 1 && single.meanGaps.get(0) >= 0;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}